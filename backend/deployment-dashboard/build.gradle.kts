@@ -1,9 +1,11 @@
 plugins {
   idea
 	java
+  `java-test-fixtures`
   application
 	id("org.springframework.boot") version "3.2.9"
 	id("io.spring.dependency-management") version "1.1.6"
+  id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "cz.oksystem"
@@ -27,6 +29,10 @@ dependencies {
   implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
   implementation("org.liquibase:liquibase-core")
   implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.1.0")
+  // metriky - casy operaci (aspekt), statistiky Hibernate a export pro Prometheus
+  implementation("org.springframework.boot:spring-boot-starter-aop")
+  implementation("org.hibernate.orm:hibernate-micrometer")
+  runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 
 
   // dočasná db
@@ -34,6 +40,10 @@ dependencies {
 
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 
+  // generator syntetickych dat (src/testFixtures) pro testy, benchmarky a lokalni DB
+  testFixturesImplementation("org.springframework.boot:spring-boot-starter-data-jpa")
+  jmh(testFixtures(project(":")))
+
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
@@ -41,6 +51,55 @@ tasks.withType<Test> {
 	useJUnitPlatform()
 }
 
+// synteticka data do lokalni DB: ./gradlew generateDataset --args="--dataset.seed=42 --dataset.projects=300"
+tasks.register<JavaExec>("generateDataset") {
+  group = "application"
+  description = "Fills the local database with a deterministic synthetic dataset."
+  classpath = sourceSets["testFixtures"].runtimeClasspath
+  mainClass = "cz.oksystem.deployment_dashboard.fixtures.DatasetGeneratorApplication"
+  jvmArgs("-Dfile.encoding=utf-8", "-Duser.timezone=Europe/Prague")
+}
+
+// zatezovy test bezici instance (src/loadtest), jen JDK HttpClient a Jackson:
+// ./gradlew loadTest --args="--scenario=release-train --baseUrl=http://localhost:8080/deploydash --duration=10m"
+val loadtest: SourceSet by sourceSets.creating
+
+dependencies {
+  "loadtestImplementation"("com.fasterxml.jackson.core:jackson-databind")
+}
+
+tasks.register<JavaExec>("loadTest") {
+  group = "verification"
+  description = "Runs an HTTP load scenario against a running backend."
+  classpath = loadtest.runtimeClasspath
+  mainClass = "cz.oksystem.deployment_dashboard.loadtest.LoadTest"
+  jvmArgs("-Dfile.encoding=utf-8")
+}
+
+// benchmarky sluzebni vrstvy (src/jmh) nad in-memory H2: ./gradlew jmh
+// vyber benchmarku: -Pjmh.includes=ReleaseBenchmark, velikost dat: -Pjmh.params=projects=50,components=20
+jmh {
+  jmhVersion = "1.37"
+  benchmarkMode = listOf("thrpt", "sample")
+  timeUnit = "ms"
+  fork = 1
+  warmupIterations = 3
+  warmup = "5s"
+  iterations = 5
+  timeOnIteration = "10s"
+  // alokace na operaci a prace GC
+  profilers = listOf("gc")
+  resultFormat = "JSON"
+  includes = listOfNotNull(findProperty("jmh.includes")?.toString())
+  benchmarkParameters = (findProperty("jmh.params")?.toString() ?: "")
+    .split(",")
+    .filter { it.contains("=") }
+    .associate { param ->
+      val (name, value) = param.split("=", limit = 2)
+      name.trim() to objects.listProperty<String>().value(listOf(value.trim()))
+    }
+}
+
 // Application
 application {
   mainClass.set("cz.oksystem.deployment_dashboard.DeploymentDashboardApplication")
@@ -0,0 +1,96 @@
+package cz.oksystem.deployment_dashboard.benchmark;
+
+import cz.oksystem.deployment_dashboard.DeploymentDashboardApplication;
+import cz.oksystem.deployment_dashboard.fixtures.Dataset;
+import cz.oksystem.deployment_dashboard.fixtures.DatasetGenerator;
+import cz.oksystem.deployment_dashboard.fixtures.DatasetSpec;
+import cz.oksystem.deployment_dashboard.service.DashboardChangedEvent;
+import cz.oksystem.deployment_dashboard.service.ServiceOrchestrator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+// spring kontext bez webove vrstvy nad in-memory H2 (schema z Liquibase) naplnenou syntetickymi daty
+// z DatasetGenerator, jeden na fork - velikost dat se nastavuje parametry (-Pjmh.params=projects=50,components=20)
+@State(Scope.Benchmark)
+public class DashboardState {
+
+  @Param("42")
+  public long seed;
+
+  @Param("20")
+  public int projects;
+
+  // prumerny pocet komponent na projekt
+  @Param("10")
+  public int components;
+
+  // prostredi na projekt
+  @Param("4")
+  public int environments;
+
+  // nasazeni celkem, rozdelena mezi aplikace podle Zipfova rozdeleni
+  @Param("20000")
+  public long deployments;
+
+  // overview a detaily z read modelu (true) nebo z DB (false)
+  @Param("false")
+  public boolean readModel;
+
+  private ConfigurableApplicationContext context;
+  private ServiceOrchestrator orchestrator;
+  private Dataset dataset;
+  private List<String> projectKeys;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(DeploymentDashboardApplication.class)
+      .web(WebApplicationType.NONE)
+      .properties(
+        "spring.datasource.url=jdbc:h2:mem:deploydash-bench;DB_CLOSE_DELAY=-1",
+        "spring.h2.console.enabled=false",
+        "spring.main.banner-mode=off",
+        "logging.level.root=WARN",
+        "deploydash.read-model.enabled=" + readModel
+      )
+      .run();
+    orchestrator = context.getBean(ServiceOrchestrator.class);
+
+    dataset = new DatasetGenerator(context.getBean(JdbcTemplate.class))
+      .generate(new DatasetSpec(seed, projects, components, environments, deployments));
+    projectKeys = dataset.projectKeys();
+
+    // data vznikla mimo orchestrator, read model se musi nacist znovu
+    context.publishEvent(DashboardChangedEvent.catalogueChanged(DashboardChangedEvent.Type.DEPLOYMENTS_IMPORTED, null, null));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  public ServiceOrchestrator orchestrator() {
+    return orchestrator;
+  }
+
+  public List<String> projectKeys() {
+    return projectKeys;
+  }
+
+  public List<String> appKeys(String projectKey) {
+    return dataset.projectKeyToAppKeys().get(projectKey);
+  }
+
+  public List<String> environmentNames(String projectKey) {
+    return dataset.projectKeyToEnvironmentNames().get(projectKey);
+  }
+}
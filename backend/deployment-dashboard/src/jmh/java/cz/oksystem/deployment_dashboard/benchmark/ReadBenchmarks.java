@@ -0,0 +1,35 @@
+package cz.oksystem.deployment_dashboard.benchmark;
+
+import cz.oksystem.deployment_dashboard.dto.DeploymentDto;
+import cz.oksystem.deployment_dashboard.dto.ProjectDetailDto;
+import cz.oksystem.deployment_dashboard.dto.ProjectOverviewDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+// cteni, ktera obsluhuji dashboard - overview, detail projektu a historie nasazeni
+@State(Scope.Thread)
+public class ReadBenchmarks {
+
+  private int next;
+
+  @Benchmark
+  public List<ProjectOverviewDto> getAllProjectOverviews(DashboardState state) {
+    return state.orchestrator().getAllProjectOverviews();
+  }
+
+  // projekty se stridaji, at se nemeri jen jeden (zahraty) strom
+  @Benchmark
+  public ProjectDetailDto getAppDetailDto(DashboardState state) {
+    List<String> projectKeys = state.projectKeys();
+
+    return state.orchestrator().getAppDetailDto(projectKeys.get(next++ % projectKeys.size()));
+  }
+
+  @Benchmark
+  public List<DeploymentDto> getAllDeployments(DashboardState state) {
+    return state.orchestrator().getAllDeployments();
+  }
+}
@@ -0,0 +1,30 @@
+package cz.oksystem.deployment_dashboard.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// release nove verze vsech aplikaci projektu (commit vcetne prepoctu read modelu a udalosti),
+// kazde volani zaklada nove verze a nasazeni, data tedy behem mereni rostou
+@State(Scope.Benchmark)
+public class ReleaseBenchmark {
+
+  private final AtomicLong releases = new AtomicLong();
+
+  @Benchmark
+  public void release(DashboardState state) {
+    long release = releases.getAndIncrement();
+    List<String> projectKeys = state.projectKeys();
+    String projectKey = projectKeys.get((int) (release % projectKeys.size()));
+
+    Map<String, String> versionedApps = new LinkedHashMap<>();
+    state.appKeys(projectKey).forEach(appKey -> versionedApps.put(appKey, "bench." + release));
+
+    state.orchestrator().release(projectKey, state.environmentNames(projectKey).getFirst(), versionedApps, "ok-jira://BENCH-" + release, false);
+  }
+}
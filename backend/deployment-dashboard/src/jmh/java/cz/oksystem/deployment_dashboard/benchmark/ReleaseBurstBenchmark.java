@@ -0,0 +1,162 @@
+package cz.oksystem.deployment_dashboard.benchmark;
+
+import cz.oksystem.deployment_dashboard.DeploymentDashboardApplication;
+import cz.oksystem.deployment_dashboard.fixtures.Dataset;
+import cz.oksystem.deployment_dashboard.fixtures.DatasetGenerator;
+import cz.oksystem.deployment_dashboard.fixtures.DatasetSpec;
+import cz.oksystem.deployment_dashboard.service.DashboardChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// davka soubeznych releasu pres HTTP (release train z CI) proti Tomcatu s platformnimi a s virtualnimi
+// vlakny - jedna operace je cela davka; porovnani rezimu: ./gradlew jmh -Pjmh.includes=ReleaseBurstBenchmark
+// po behu vypise odmitnute pozadavky a pinning nosnych vlaken (VirtualThreadPinningMonitor)
+@State(Scope.Benchmark)
+public class ReleaseBurstBenchmark {
+
+  // spring.threads.virtual.enabled
+  @Param({"false", "true"})
+  public boolean virtualThreads;
+
+  // soubezne releasy v jedne davce
+  @Param("256")
+  public int burst;
+
+  // server.tomcat.threads.max (jen pro platformni vlakna)
+  @Param("200")
+  public int tomcatThreads;
+
+  // spring.datasource.hikari.maximum-pool-size
+  @Param("10")
+  public int connectionPool;
+
+  @Param("42")
+  public long seed;
+
+  @Param("50")
+  public int projects;
+
+  @Param("10")
+  public int components;
+
+  @Param("4")
+  public int environments;
+
+  @Param("20000")
+  public long deployments;
+
+  private ConfigurableApplicationContext context;
+  private ExecutorService clientThreads;
+  private HttpClient client;
+  private String baseUrl;
+  // (projekt, prostredi, aplikace) - kazdy pozadavek davky nasazuje jinou aplikaci
+  private List<Target> targets;
+
+  private final AtomicLong bursts = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(DeploymentDashboardApplication.class)
+      .web(WebApplicationType.SERVLET)
+      .properties(
+        "server.port=0",
+        "spring.datasource.url=jdbc:h2:mem:deploydash-burst;DB_CLOSE_DELAY=-1",
+        "spring.h2.console.enabled=false",
+        "spring.main.banner-mode=off",
+        "logging.level.root=WARN",
+        "spring.threads.virtual.enabled=" + virtualThreads,
+        "server.tomcat.threads.max=" + tomcatThreads,
+        "server.tomcat.accept-count=" + 2 * burst,
+        "spring.datasource.hikari.maximum-pool-size=" + connectionPool
+      )
+      .run();
+    baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+      + context.getEnvironment().getProperty("server.servlet.context-path", "");
+
+    Dataset dataset = new DatasetGenerator(context.getBean(JdbcTemplate.class))
+      .generate(new DatasetSpec(seed, projects, components, environments, deployments));
+    context.publishEvent(DashboardChangedEvent.catalogueChanged(DashboardChangedEvent.Type.DEPLOYMENTS_IMPORTED, null, null));
+
+    targets = new ArrayList<>();
+    dataset.projectKeys().forEach(projectKey -> dataset.projectKeyToAppKeys().get(projectKey).forEach(appKey ->
+      targets.add(new Target(projectKey, dataset.projectKeyToEnvironmentNames().get(projectKey).getFirst(), appKey))
+    ));
+    if (targets.size() < burst) {
+      throw new IllegalStateException(String.format("Dataset has %d apps, burst of %d would release some twice", targets.size(), burst));
+    }
+
+    // klient nesmi byt uzkym hrdlem - kazdy pozadavek na vlastnim virtualnim vlakne
+    clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+    client = HttpClient.newBuilder().executor(clientThreads).connectTimeout(Duration.ofSeconds(10)).build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    System.out.printf("%n[%s threads] %d failed releases in %d bursts%n",
+      virtualThreads ? "virtual" : "platform", failures.get(), bursts.get());
+    context.getBean(MeterRegistry.class).find("deploydash.virtual-threads.pinned").timers().forEach(timer ->
+      System.out.printf("  pinned (%s): %d times, %.1f ms total, %.1f ms max%n", timer.getId().getTag("source"),
+        timer.count(), timer.totalTime(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS))
+    );
+
+    clientThreads.shutdownNow();
+    context.close();
+  }
+
+  @Benchmark
+  public int releaseBurst() {
+    long burstNumber = bursts.getAndIncrement();
+    List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(burst);
+
+    for (int i = 0; i < burst; i++) {
+      Target target = targets.get((int) ((burstNumber * burst + i) % targets.size()));
+      URI uri = URI.create(baseUrl + "/api/apps/" + encode(target.projectKey()) + "/envs/" + encode(target.envName())
+        + "/versions?" + encode(target.appKey()) + "=" + encode("burst." + burstNumber + "." + i)
+        + "&ticket=" + encode("ok-jira://BURST-" + burstNumber));
+
+      responses.add(client.sendAsync(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding()));
+    }
+
+    int succeeded = 0;
+    for (CompletableFuture<HttpResponse<Void>> response : responses) {
+      if (response.join().statusCode() == 200) {
+        succeeded++;
+      } else {
+        failures.incrementAndGet();
+      }
+    }
+    return succeeded;
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  private record Target(String projectKey, String envName, String appKey) {}
+}
@@ -0,0 +1,131 @@
+package cz.oksystem.deployment_dashboard.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// histogram latenci v mikrosekundach bez zamku - logaritmicke skupiny (mocniny dvou) deleny
+// na SUB_BUCKETS linearnich casti, relativni chyba percentilu je tak nejvyse ~3 %
+final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // do 2^36 us (~19 h), delsi hodnoty spadnou do posledni skupiny
+  private static final int MAX_EXPONENT = 35;
+  private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  // hranice radku vypisu v milisekundach
+  private static final List<Long> REPORT_BOUNDS_MILLIS = List.of(1L, 2L, 5L, 10L, 20L, 50L, 100L, 200L, 500L, 1000L, 2000L, 5000L);
+  private static final int BAR_WIDTH = 40;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  void record(long micros) {
+    long value = Math.max(0, micros);
+
+    counts.incrementAndGet(index(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  long count() {
+    return count.sum();
+  }
+
+  long maxMicros() {
+    return max.get();
+  }
+
+  double meanMicros() {
+    long total = count.sum();
+    return total == 0 ? 0 : (double) sum.sum() / total;
+  }
+
+  // horni hranice skupiny, do ktere padne pozadovany podil hodnot
+  long percentileMicros(double percentile) {
+    long total = count.sum();
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  // textovy histogram po hrubych hranicich REPORT_BOUNDS_MILLIS
+  String render() {
+    long[] rows = new long[REPORT_BOUNDS_MILLIS.size() + 1];
+
+    for (int i = 0; i < BUCKETS; i++) {
+      long bucketCount = counts.get(i);
+      if (bucketCount == 0) {
+        continue;
+      }
+      int row = 0;
+      while (row < REPORT_BOUNDS_MILLIS.size() && upperBound(i) >= REPORT_BOUNDS_MILLIS.get(row) * 1000) {
+        row++;
+      }
+      rows[row] += bucketCount;
+    }
+
+    long total = Math.max(1, count.sum());
+    long widest = Math.max(1, Arrays.stream(rows).max().orElse(1));
+    StringBuilder out = new StringBuilder();
+
+    // prazdne radky na okrajich vynechame
+    int first = 0;
+    int last = rows.length - 1;
+    while (first < last && rows[first] == 0) {
+      first++;
+    }
+    while (last > first && rows[last] == 0) {
+      last--;
+    }
+
+    for (int row = first; row <= last; row++) {
+      String label = row < REPORT_BOUNDS_MILLIS.size()
+        ? "< " + REPORT_BOUNDS_MILLIS.get(row) + " ms"
+        : ">= " + REPORT_BOUNDS_MILLIS.getLast() + " ms";
+
+      out.append(String.format("    %-10s %9d %6.2f %% %s%n",
+        label, rows[row], 100.0 * rows[row] / total, "#".repeat((int) (BAR_WIDTH * rows[row] / widest))));
+    }
+    return out.toString();
+  }
+
+  private static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent > MAX_EXPONENT) {
+      return BUCKETS - 1;
+    }
+    int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long upperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long subBucket = index % SUB_BUCKETS;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+
+    return ((SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+  }
+}
@@ -0,0 +1,161 @@
+package cz.oksystem.deployment_dashboard.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// parametry zateze - pojmenovany profil, jehoz hodnoty lze prepsat argumenty (--rate=100 --duration=10m)
+//
+// rate          ustalena zatez v pozadavcich za sekundu (otevreny model, Poissonovy prichody)
+// writeRatio    podil zapisu (release) v ustalene zatezi, zbytek jsou cteni overview, detailu a stranek nasazeni
+// pollers       pocet otevrenych dashboardu, kazdy se po pollInterval pta na overview (s If-None-Match)
+// detailRatio   podil dotazu dashboardu, ktere navic nactou detail projektu
+// burstSize     release v jedne vlne CI, rozlozene do burstWindow a opakovane kazdych burstEvery (0 = bez vln)
+// ticketReuse   pravdepodobnost, ze release projektu pouzije stejny Jira ticket jako predchozi
+// rollbackRatio podil zapisu, ktere nasazuji starsi verzi (server je odmitne jako rollback nebo redeploy)
+// forceRatio    podil odmitnutych rollbacku, ktere se zopakuji pres /force
+// projects      nejvyse tolik projektu z overview (0 = vsechny)
+public record LoadScenario(String name,
+                           URI baseUrl,
+                           Duration duration,
+                           Duration timeout,
+                           double rate,
+                           double writeRatio,
+                           int pollers,
+                           Duration pollInterval,
+                           double detailRatio,
+                           int burstSize,
+                           Duration burstWindow,
+                           Duration burstEvery,
+                           double ticketReuse,
+                           double rollbackRatio,
+                           double forceRatio,
+                           int projects,
+                           long seed) {
+
+  private static final Pattern DURATION = Pattern.compile("(\\d+)(ms|s|m|h)");
+
+  public LoadScenario {
+    requireRatio("writeRatio", writeRatio);
+    requireRatio("detailRatio", detailRatio);
+    requireRatio("ticketReuse", ticketReuse);
+    requireRatio("rollbackRatio", rollbackRatio);
+    requireRatio("forceRatio", forceRatio);
+    if (rate < 0 || pollers < 0 || burstSize < 0 || projects < 0) {
+      throw new IllegalArgumentException("rate, pollers, burstSize and projects must not be negative");
+    }
+    if (duration.isZero() || duration.isNegative()) {
+      throw new IllegalArgumentException("duration must be positive");
+    }
+    if (pollers > 0 && pollInterval.isZero()) {
+      throw new IllegalArgumentException("pollInterval must be positive");
+    }
+    if (burstSize > 0 && (burstWindow.isZero() || burstEvery.isZero())) {
+      throw new IllegalArgumentException("burstWindow and burstEvery must be positive");
+    }
+  }
+
+  // vlna releasu z CI (stovky volani za minutu) a padesat dashboardu, ktere mezitim obnovuji overview
+  public static LoadScenario releaseTrain() {
+    return new LoadScenario("release-train", URI.create("http://localhost:8080/deploydash"),
+      Duration.ofMinutes(5), Duration.ofSeconds(30),
+      5, 0.2,
+      50, Duration.ofSeconds(5), 0.2,
+      300, Duration.ofMinutes(1), Duration.ofMinutes(2),
+      0.5, 0.02, 0.5,
+      0, 42);
+  }
+
+  // ustalena smisena zatez bez vln, pro porovnani propustnosti mezi verzemi
+  public static LoadScenario mixed() {
+    return new LoadScenario("mixed", URI.create("http://localhost:8080/deploydash"),
+      Duration.ofMinutes(2), Duration.ofSeconds(30),
+      50, 0.1,
+      0, Duration.ofSeconds(5), 0,
+      0, Duration.ZERO, Duration.ZERO,
+      0.3, 0.05, 0.5,
+      0, 42);
+  }
+
+  // konfliktni rollbacky a jejich vynuceni soubezne s beznymi release
+  public static LoadScenario rollbacks() {
+    return new LoadScenario("rollbacks", URI.create("http://localhost:8080/deploydash"),
+      Duration.ofMinutes(2), Duration.ofSeconds(30),
+      20, 0.5,
+      10, Duration.ofSeconds(5), 0,
+      0, Duration.ZERO, Duration.ZERO,
+      0.3, 0.5, 0.8,
+      0, 42);
+  }
+
+  public static LoadScenario fromArgs(Map<String, String> args) {
+    LoadScenario base = switch (args.getOrDefault("scenario", "release-train")) {
+      case "release-train" -> releaseTrain();
+      case "mixed" -> mixed();
+      case "rollbacks" -> rollbacks();
+      default -> throw new IllegalArgumentException("Unknown scenario '" + args.get("scenario")
+        + "', expected one of release-train, mixed, rollbacks");
+    };
+
+    return new LoadScenario(
+      base.name,
+      args.containsKey("baseUrl") ? URI.create(args.get("baseUrl").replaceAll("/+$", "")) : base.baseUrl,
+      duration(args, "duration", base.duration),
+      duration(args, "timeout", base.timeout),
+      number(args, "rate", base.rate),
+      number(args, "writeRatio", base.writeRatio),
+      (int) number(args, "pollers", base.pollers),
+      duration(args, "pollInterval", base.pollInterval),
+      number(args, "detailRatio", base.detailRatio),
+      (int) number(args, "burstSize", base.burstSize),
+      duration(args, "burstWindow", base.burstWindow),
+      duration(args, "burstEvery", base.burstEvery),
+      number(args, "ticketReuse", base.ticketReuse),
+      number(args, "rollbackRatio", base.rollbackRatio),
+      number(args, "forceRatio", base.forceRatio),
+      (int) number(args, "projects", base.projects),
+      (long) number(args, "seed", base.seed)
+    );
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT,
+      "%s against %s for %s: %.1f req/s (%.0f %% writes), %d pollers every %s, bursts of %d in %s every %s, "
+        + "ticket reuse %.2f, rollbacks %.2f (forced %.2f), seed %d",
+      name, baseUrl, duration, rate, writeRatio * 100, pollers, pollInterval, burstSize, burstWindow, burstEvery,
+      ticketReuse, rollbackRatio, forceRatio, seed);
+  }
+
+  private static void requireRatio(String name, double value) {
+    if (value < 0 || value > 1) {
+      throw new IllegalArgumentException(name + " must be between 0 and 1");
+    }
+  }
+
+  private static double number(Map<String, String> args, String key, double defaultValue) {
+    return args.containsKey(key) ? Double.parseDouble(args.get(key)) : defaultValue;
+  }
+
+  // 250ms, 30s, 5m, 1h
+  private static Duration duration(Map<String, String> args, String key, Duration defaultValue) {
+    if (!args.containsKey(key)) {
+      return defaultValue;
+    }
+    Matcher matcher = DURATION.matcher(args.get(key).trim());
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException(key + " must look like 250ms, 30s, 5m or 1h");
+    }
+    long amount = Long.parseLong(matcher.group(1));
+
+    return switch (matcher.group(2)) {
+      case "ms" -> Duration.ofMillis(amount);
+      case "s" -> Duration.ofSeconds(amount);
+      case "m" -> Duration.ofMinutes(amount);
+      default -> Duration.ofHours(amount);
+    };
+  }
+}
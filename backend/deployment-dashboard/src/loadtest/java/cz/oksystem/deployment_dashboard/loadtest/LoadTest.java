@@ -0,0 +1,378 @@
+package cz.oksystem.deployment_dashboard.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// zatezovy test bezici backendu (./gradlew bootRun, data napr. z ./gradlew generateDataset, mock Jira z tools/compose):
+//   ./gradlew loadTest --args="--scenario=release-train --duration=10m --pollers=100"
+// pozadavky se posilaji v otevrenem modelu - kazdy ma naplanovany cas odeslani a latence se meri od nej,
+// zahlceny server tak nezpomali generovani zateze a fronta se projevi v latencich (coordinated omission);
+// kazdy pozadavek bezi na vlastnim virtualnim vlakne
+public class LoadTest {
+  private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(10);
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+  // podil druhu cteni v ustalene zatezi
+  private static final double READ_OVERVIEW = 0.6;
+  private static final double READ_DETAIL = 0.3;
+
+  private final LoadScenario scenario;
+  private final HttpClient client;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  private List<Project> projects;
+  private ReleasePlanner planner;
+
+  public LoadTest(LoadScenario scenario) {
+    this.scenario = scenario;
+    this.client = HttpClient.newBuilder()
+      .executor(Executors.newVirtualThreadPerTaskExecutor())
+      .connectTimeout(scenario.timeout())
+      .version(HttpClient.Version.HTTP_1_1)
+      .build();
+    for (Operation operation : Operation.values()) {
+      stats.put(operation, new OperationStats(operation));
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --name=value, got '" + arg + "'");
+      }
+      String[] keyValue = arg.substring(2).split("=", 2);
+      options.put(keyValue[0], keyValue[1]);
+    }
+    new LoadTest(LoadScenario.fromArgs(options)).run();
+  }
+
+  public void run() throws Exception {
+    System.out.println("Scenario: " + scenario);
+
+    this.projects = this.discoverProjects();
+    if (projects.isEmpty()) {
+      throw new IllegalStateException("No project with environments at " + scenario.baseUrl()
+        + ", fill the database first (./gradlew generateDataset)");
+    }
+    this.planner = new ReleasePlanner(scenario.baseUrl(), projects, scenario.ticketReuse());
+    System.out.printf("Targets: %d projects, %d apps%n",
+      projects.size(), projects.stream().mapToInt(project -> project.appKeys().size()).sum());
+
+    SplittableRandom seedRandom = new SplittableRandom(scenario.seed());
+    long start = System.nanoTime();
+    long end = start + scenario.duration().toNanos();
+    List<Thread> generators = new ArrayList<>();
+
+    try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+      if (scenario.rate() > 0) {
+        SplittableRandom random = seedRandom.split();
+        generators.add(Thread.ofVirtual().name("steady").start(() -> this.steady(requests, random, start, end)));
+      }
+      for (int i = 0; i < scenario.pollers(); i++) {
+        SplittableRandom random = seedRandom.split();
+        generators.add(Thread.ofVirtual().name("poller-" + i).start(() -> this.poll(requests, random, start, end)));
+      }
+      if (scenario.burstSize() > 0) {
+        SplittableRandom random = seedRandom.split();
+        generators.add(Thread.ofVirtual().name("bursts").start(() -> this.bursts(requests, random, start, end)));
+      }
+      Thread progress = Thread.ofVirtual().name("progress").start(() -> this.progress(start));
+
+      for (Thread generator : generators) {
+        generator.join();
+      }
+      progress.interrupt();
+      // close() pocka na rozpracovane pozadavky
+    }
+
+    this.report(System.nanoTime() - start);
+  }
+
+  // ustalena zatez, exponencialni rozestupy odpovidaji nahodnym prichodum uzivatelu a CI
+  private void steady(ExecutorService requests, SplittableRandom random, long start, long end) {
+    double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / scenario.rate();
+    long next = start;
+
+    while (true) {
+      next += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+      if (next >= end || !sleepUntil(next)) {
+        return;
+      }
+      long intended = next;
+
+      if (random.nextDouble() < scenario.writeRatio()) {
+        ReleasePlanner.Release release = random.nextDouble() < scenario.rollbackRatio()
+          ? planner.rollback(random)
+          : planner.release(random);
+        boolean force = random.nextDouble() < scenario.forceRatio();
+
+        requests.execute(() -> this.release(release, force, intended));
+      } else {
+        double read = random.nextDouble();
+        Project project = projects.get(random.nextInt(projects.size()));
+
+        if (read < READ_OVERVIEW) {
+          requests.execute(() -> this.get(Operation.OVERVIEW, this.uri("/api/apps-overview"), null, intended));
+        } else if (read < READ_OVERVIEW + READ_DETAIL) {
+          requests.execute(() -> this.get(Operation.APP_DETAIL,
+            this.uri("/api/apps/" + ReleasePlanner.pathSegment(project.key())), null, intended));
+        } else {
+          requests.execute(() -> this.get(Operation.DEPLOYMENT_PAGE,
+            this.uri("/api/deployments/page?limit=50&projectKey=" + ReleasePlanner.pathSegment(project.key())), null, intended));
+        }
+      }
+    }
+  }
+
+  // otevreny dashboard - pravidelne se pta na overview a posila ETag posledni odpovedi
+  private void poll(ExecutorService requests, SplittableRandom random, long start, long end) {
+    long interval = scenario.pollInterval().toNanos();
+    long next = start + (long) (random.nextDouble() * interval);
+    AtomicReference<String> etag = new AtomicReference<>();
+
+    for (; next < end && sleepUntil(next); next += interval) {
+      long intended = next;
+      Project project = random.nextDouble() < scenario.detailRatio() ? projects.get(random.nextInt(projects.size())) : null;
+
+      requests.execute(() -> {
+        String received = this.get(Operation.OVERVIEW, this.uri("/api/apps-overview"), etag.get(), intended);
+        if (received != null) {
+          etag.set(received);
+        }
+        if (project != null) {
+          this.get(Operation.APP_DETAIL, this.uri("/api/apps/" + ReleasePlanner.pathSegment(project.key())), null, System.nanoTime());
+        }
+      });
+    }
+  }
+
+  // vlny releasu z CI - burstSize volani rovnomerne v burstWindow, opakovane kazdych burstEvery
+  private void bursts(ExecutorService requests, SplittableRandom random, long start, long end) {
+    long window = scenario.burstWindow().toNanos();
+    long every = scenario.burstEvery().toNanos();
+
+    for (long burst = start; burst < end; burst += every) {
+      for (int i = 0; i < scenario.burstSize(); i++) {
+        long intended = burst + window * i / scenario.burstSize();
+        if (intended >= end || !sleepUntil(intended)) {
+          return;
+        }
+        ReleasePlanner.Release release = random.nextDouble() < scenario.rollbackRatio()
+          ? planner.rollback(random)
+          : planner.release(random);
+        boolean force = random.nextDouble() < scenario.forceRatio();
+
+        requests.execute(() -> this.release(release, force, intended));
+      }
+    }
+  }
+
+  // vraci ETag odpovedi
+  private String get(Operation operation, URI uri, String etag, long intended) {
+    HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(scenario.timeout()).GET();
+    if (etag != null) {
+      request.header("If-None-Match", etag);
+    }
+    HttpResponse<Void> response = this.send(operation, request.build(), intended);
+
+    return response == null ? null : response.headers().firstValue("ETag").orElse(null);
+  }
+
+  // odmitnuty rollback muze obsluha vynutit, jako by klikla na odkaz z chybove odpovedi
+  private void release(ReleasePlanner.Release release, boolean forceRejected, long intended) {
+    Operation operation = release.rollback() ? Operation.ROLLBACK : Operation.RELEASE;
+    HttpResponse<Void> response = this.send(operation,
+      HttpRequest.newBuilder(planner.uri(release, false)).timeout(scenario.timeout()).GET().build(), intended);
+
+    if (response == null) {
+      return;
+    }
+    if (response.statusCode() / 100 == 2) {
+      planner.succeeded(release);
+    } else if (response.statusCode() == 400 && release.rollback() && forceRejected) {
+      this.send(Operation.FORCED_ROLLBACK,
+        HttpRequest.newBuilder(planner.uri(release, true)).timeout(scenario.timeout()).GET().build(), System.nanoTime());
+    }
+  }
+
+  private HttpResponse<Void> send(Operation operation, HttpRequest request, long intended) {
+    OperationStats operationStats = stats.get(operation);
+    inFlight.incrementAndGet();
+
+    try {
+      HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+
+      if (operationStats.record(response.statusCode(), micros(intended)) == OperationStats.Outcome.ERROR) {
+        failed.incrementAndGet();
+      }
+      return response;
+    } catch (IOException | InterruptedException ex) {
+      operationStats.recordFailure(ex, micros(intended));
+      failed.incrementAndGet();
+      return null;
+    } finally {
+      inFlight.decrementAndGet();
+      completed.incrementAndGet();
+    }
+  }
+
+  // projekty z overview, prostredi a aplikace z detailu
+  private List<Project> discoverProjects() throws Exception {
+    JsonNode overviews = this.getJson(this.uri("/api/apps-overview"));
+    List<String> projectKeys = new ArrayList<>();
+    overviews.forEach(overview -> projectKeys.add(overview.get("key").asText()));
+
+    Collections.shuffle(projectKeys, new Random(scenario.seed()));
+    if (scenario.projects() > 0 && projectKeys.size() > scenario.projects()) {
+      projectKeys.subList(scenario.projects(), projectKeys.size()).clear();
+    }
+
+    List<Callable<Project>> loads = projectKeys.stream().<Callable<Project>>map(key -> () -> {
+      JsonNode detail = this.getJson(this.uri("/api/apps/" + ReleasePlanner.pathSegment(key)));
+      List<String> environmentNames = new ArrayList<>();
+      List<String> appKeys = new ArrayList<>();
+
+      detail.path("environmentNames").forEach(env -> environmentNames.add(env.asText()));
+      detail.path("componentKeysAndNamesMap").fieldNames().forEachRemaining(appKeys::add);
+      Collections.sort(appKeys);
+
+      return new Project(key, List.copyOf(environmentNames), List.copyOf(appKeys));
+    }).toList();
+
+    List<Project> discovered = new ArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (Future<Project> project : executor.invokeAll(loads)) {
+        if (!project.get().environmentNames().isEmpty() && !project.get().appKeys().isEmpty()) {
+          discovered.add(project.get());
+        }
+      }
+    }
+    return discovered;
+  }
+
+  private JsonNode getJson(URI uri) throws IOException, InterruptedException {
+    HttpResponse<String> response = client.send(
+      HttpRequest.newBuilder(uri).timeout(scenario.timeout()).GET().build(), HttpResponse.BodyHandlers.ofString());
+
+    if (response.statusCode() != 200) {
+      throw new IOException("GET " + uri + " returned " + response.statusCode());
+    }
+    return objectMapper.readTree(response.body());
+  }
+
+  // bezi do preruseni po skonceni generatoru
+  private void progress(long start) {
+    long lastCompleted = 0;
+    long lastFailed = 0;
+
+    while (sleepUntil(System.nanoTime() + PROGRESS_INTERVAL.toNanos())) {
+      long nowCompleted = completed.get();
+      long nowFailed = failed.get();
+
+      System.out.printf(Locale.ROOT, "[%5ds] %8.1f req/s, %5d errors, %4d in flight%n",
+        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start),
+        (nowCompleted - lastCompleted) / (double) PROGRESS_INTERVAL.toSeconds(),
+        nowFailed - lastFailed,
+        inFlight.get());
+
+      lastCompleted = nowCompleted;
+      lastFailed = nowFailed;
+    }
+  }
+
+  private void report(long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    StringBuilder out = new StringBuilder();
+
+    out.append(String.format(Locale.ROOT, "%nResults after %.1f s (latency from the intended send time, ms)%n", seconds));
+    out.append(String.format(Locale.ROOT, "%-26s %8s %8s %8s %8s %8s %7s %8s %8s %8s %8s %8s%n",
+      "operation", "count", "req/s", "ok", "304", "rejected", "err %", "p50", "p90", "p99", "p99.9", "max"));
+
+    for (OperationStats operationStats : stats.values()) {
+      long count = operationStats.count();
+      if (count == 0) {
+        continue;
+      }
+      LatencyHistogram latency = operationStats.latency();
+
+      out.append(String.format(Locale.ROOT, "%-26s %8d %8.1f %8d %8d %8d %7.2f",
+        operationStats.operation().label(), count, count / seconds,
+        operationStats.count(OperationStats.Outcome.OK),
+        operationStats.count(OperationStats.Outcome.NOT_MODIFIED),
+        operationStats.count(OperationStats.Outcome.REJECTED),
+        100.0 * operationStats.count(OperationStats.Outcome.ERROR) / count));
+      for (double percentile : PERCENTILES) {
+        out.append(String.format(Locale.ROOT, " %8.1f", latency.percentileMicros(percentile) / 1000.0));
+      }
+      out.append(String.format(Locale.ROOT, " %8.1f%n", latency.maxMicros() / 1000.0));
+    }
+
+    for (OperationStats operationStats : stats.values()) {
+      if (operationStats.count() == 0) {
+        continue;
+      }
+      out.append(String.format(Locale.ROOT, "%n  %s (mean %.1f ms)%n",
+        operationStats.operation().label(), operationStats.latency().meanMicros() / 1000.0));
+      out.append(operationStats.latency().render());
+      operationStats.errorCauses().forEach((cause, count) ->
+        out.append(String.format("    error %s: %d%n", cause, count.sum())));
+    }
+    System.out.print(out);
+  }
+
+  private URI uri(String path) {
+    return URI.create(scenario.baseUrl() + path);
+  }
+
+  private static long micros(long intendedNanos) {
+    return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+  }
+
+  // false pri preruseni
+  private static boolean sleepUntil(long nanoTime) {
+    long remaining = nanoTime - System.nanoTime();
+    if (remaining <= 0) {
+      return true;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(remaining);
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  record Project(String key, List<String> environmentNames, List<String> appKeys) {}
+}
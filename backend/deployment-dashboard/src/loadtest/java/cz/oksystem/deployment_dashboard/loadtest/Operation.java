@@ -0,0 +1,27 @@
+package cz.oksystem.deployment_dashboard.loadtest;
+
+// druhy pozadavku, ktere zatez posila - kazdy ma vlastni statistiku
+enum Operation {
+  OVERVIEW("GET /api/apps-overview", false),
+  APP_DETAIL("GET /api/apps/{key}", false),
+  DEPLOYMENT_PAGE("GET /api/deployments/page", false),
+  RELEASE("release", true),
+  ROLLBACK("rollback", true),
+  FORCED_ROLLBACK("forced rollback", true);
+
+  private final String label;
+  private final boolean write;
+
+  Operation(String label, boolean write) {
+    this.label = label;
+    this.write = write;
+  }
+
+  String label() {
+    return label;
+  }
+
+  boolean isWrite() {
+    return write;
+  }
+}
@@ -0,0 +1,75 @@
+package cz.oksystem.deployment_dashboard.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// vysledky jednoho druhu pozadavku za cely beh
+final class OperationStats {
+
+  enum Outcome {
+    OK,
+    // 304 na podmineny dotaz dashboardu
+    NOT_MODIFIED,
+    // 400 na zapis - konflikt s jiz evidovanym nasazenim (rollback, redeploy), ocekavany vysledek
+    REJECTED,
+    ERROR
+  }
+
+  private final Operation operation;
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final Map<Outcome, LongAdder> outcomes = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> errorCauses = new ConcurrentHashMap<>();
+
+  OperationStats(Operation operation) {
+    this.operation = operation;
+  }
+
+  Outcome record(int status, long latencyMicros) {
+    Outcome outcome;
+    if (status == 304) {
+      outcome = Outcome.NOT_MODIFIED;
+    } else if (status / 100 == 2) {
+      outcome = Outcome.OK;
+    } else if (status == 400 && operation.isWrite()) {
+      outcome = Outcome.REJECTED;
+    } else {
+      outcome = Outcome.ERROR;
+      errorCauses.computeIfAbsent("HTTP " + status, cause -> new LongAdder()).increment();
+    }
+    this.record(outcome, latencyMicros);
+
+    return outcome;
+  }
+
+  void recordFailure(Throwable failure, long latencyMicros) {
+    errorCauses.computeIfAbsent(failure.getClass().getSimpleName(), cause -> new LongAdder()).increment();
+    this.record(Outcome.ERROR, latencyMicros);
+  }
+
+  private void record(Outcome outcome, long latencyMicros) {
+    outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    latency.record(latencyMicros);
+  }
+
+  Operation operation() {
+    return operation;
+  }
+
+  LatencyHistogram latency() {
+    return latency;
+  }
+
+  long count() {
+    return latency.count();
+  }
+
+  long count(Outcome outcome) {
+    LongAdder adder = outcomes.get(outcome);
+    return adder == null ? 0 : adder.sum();
+  }
+
+  Map<String, LongAdder> errorCauses() {
+    return errorCauses;
+  }
+}
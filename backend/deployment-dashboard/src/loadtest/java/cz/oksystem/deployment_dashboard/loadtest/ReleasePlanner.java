@@ -0,0 +1,130 @@
+package cz.oksystem.deployment_dashboard.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// sestavuje release volani tak, jak je posila CI - nahodna podmnozina komponent projektu v nove verzi
+// na jedno prostredi, s novym nebo znovu pouzitym ticketem; rollback nasadi starsi uspesny release
+final class ReleasePlanner {
+  // uspesne release na prostredi, ze kterych se vybira rollback
+  private static final int REMEMBERED_RELEASES = 50;
+  private static final double COMPONENT_IN_RELEASE = 0.5;
+
+  private final URI baseUrl;
+  private final List<ProjectState> projects;
+  private final double ticketReuse;
+  // verze a tickety se mezi behy neopakuji
+  private final String runId = Long.toString(System.currentTimeMillis(), 36);
+  private final long ticketBase = System.currentTimeMillis() / 1000 % 100_000 * 1000;
+
+  ReleasePlanner(URI baseUrl, List<LoadTest.Project> projects, double ticketReuse) {
+    this.baseUrl = baseUrl;
+    this.projects = projects.stream().map(ProjectState::new).toList();
+    this.ticketReuse = ticketReuse;
+  }
+
+  Release release(SplittableRandom random) {
+    ProjectState project = projects.get(random.nextInt(projects.size()));
+    String envName = project.project.environmentNames().get(random.nextInt(project.project.environmentNames().size()));
+
+    List<String> appKeys = new ArrayList<>();
+    for (String appKey : project.project.appKeys()) {
+      if (random.nextDouble() < COMPONENT_IN_RELEASE) {
+        appKeys.add(appKey);
+      }
+    }
+    if (appKeys.isEmpty()) {
+      appKeys.add(project.project.appKeys().get(random.nextInt(project.project.appKeys().size())));
+    }
+
+    synchronized (project) {
+      String version = "lt" + runId + "." + (++project.versions);
+      String ticket = project.lastTicket != null && random.nextDouble() < ticketReuse
+        ? project.lastTicket
+        : "ok-jira://" + project.project.key().toUpperCase() + "-" + (ticketBase + ++project.tickets);
+      project.lastTicket = ticket;
+
+      return new Release(project, envName, version, List.copyOf(appKeys), ticket, false);
+    }
+  }
+
+  // starsi release na prostredi, pokud tam uz probehly aspon dva, jinak bezny release
+  Release rollback(SplittableRandom random) {
+    ProjectState project = projects.get(random.nextInt(projects.size()));
+    String envName = project.project.environmentNames().get(random.nextInt(project.project.environmentNames().size()));
+
+    synchronized (project) {
+      Deque<Release> released = project.released.get(envName);
+
+      if (released != null && released.size() >= 2) {
+        List<Release> older = new ArrayList<>(released);
+        Release previous = older.get(random.nextInt(older.size() - 1));
+
+        return new Release(project, envName, previous.version, previous.appKeys, previous.ticket, true);
+      }
+    }
+    return this.release(random);
+  }
+
+  void succeeded(Release release) {
+    if (release.rollback()) {
+      return;
+    }
+    synchronized (release.project) {
+      Deque<Release> released = release.project.released.computeIfAbsent(release.envName, env -> new ArrayDeque<>());
+
+      released.addLast(release);
+      if (released.size() > REMEMBERED_RELEASES) {
+        released.removeFirst();
+      }
+    }
+  }
+
+  URI uri(Release release, boolean force) {
+    StringBuilder uri = new StringBuilder(baseUrl.toString())
+      .append(force ? "/api/force/apps/" : "/api/apps/")
+      .append(pathSegment(release.project.project.key()))
+      .append("/envs/")
+      .append(pathSegment(release.envName))
+      .append("/versions?");
+
+    for (String appKey : release.appKeys) {
+      uri.append(queryParam(appKey)).append('=').append(queryParam(release.version)).append('&');
+    }
+    uri.append("ticket=").append(queryParam(release.ticket));
+
+    return URI.create(uri.toString());
+  }
+
+  record Release(ProjectState project, String envName, String version, List<String> appKeys, String ticket,
+                 boolean rollback) {}
+
+  static String pathSegment(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+  }
+
+  private static String queryParam(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  static final class ProjectState {
+    private final LoadTest.Project project;
+    // chraneno zamkem this
+    private final Map<String, Deque<Release>> released = new HashMap<>();
+    private long versions;
+    private long tickets;
+    private String lastTicket;
+
+    private ProjectState(LoadTest.Project project) {
+      this.project = project;
+    }
+  }
+}
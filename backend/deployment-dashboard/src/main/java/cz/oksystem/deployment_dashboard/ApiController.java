@@ -4,19 +4,30 @@ import cz.oksystem.deployment_dashboard.dto.*;
 import cz.oksystem.deployment_dashboard.entity.App;
 import cz.oksystem.deployment_dashboard.entity.Deployment;
 import cz.oksystem.deployment_dashboard.entity.Environment;
+import cz.oksystem.deployment_dashboard.entity.QueuedRelease;
 import cz.oksystem.deployment_dashboard.entity.Version;
 import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
 import cz.oksystem.deployment_dashboard.exceptions.CustomResponseBody;
+import cz.oksystem.deployment_dashboard.service.DashboardChangeStream;
 import cz.oksystem.deployment_dashboard.service.ServiceOrchestrator;
 import jakarta.validation.Valid;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -28,9 +39,11 @@ import java.util.Map;
 @RequestMapping("/api")
 class ApiController {
   private final ServiceOrchestrator serviceOrchestrator;
+  private final DashboardChangeStream changeStream;
 
-  public ApiController(ServiceOrchestrator serviceOrchestrator) {
+  public ApiController(ServiceOrchestrator serviceOrchestrator, DashboardChangeStream changeStream) {
     this.serviceOrchestrator = serviceOrchestrator;
+    this.changeStream = changeStream;
   }
 
   String getBindingResultErrorMessage(BindingResult result) {
@@ -99,22 +112,30 @@ class ApiController {
   }
 
   // overview vsech aplikaci
+  //  ETag = revize dat, If-None-Match s aktualni revizi vraci 304 bez cteni dat
   @GetMapping("/apps-overview")
-  ResponseEntity<List<ProjectOverviewDto>> getAllProjectOverviews() {
+  ResponseEntity<List<ProjectOverviewDto>> getAllProjectOverviews(WebRequest request) {
+    if (request.checkNotModified(serviceOrchestrator.getDataRevisionETag())) {
+      return null;
+    }
     return ResponseEntity.ok(serviceOrchestrator.getAllProjectOverviews());
   }
 
   // detailni informace o vsech aplikacich
   @GetMapping(path = "/apps")
-  @ResponseStatus(value = HttpStatus.OK)
-  ResponseEntity<List<ProjectDetailDto>> getAllAppDetails() {
+  ResponseEntity<List<ProjectDetailDto>> getAllAppDetails(WebRequest request) {
+    if (request.checkNotModified(serviceOrchestrator.getDataRevisionETag())) {
+      return null;
+    }
     return ResponseEntity.ok(serviceOrchestrator.getAllAppDetailDtos());
   }
 
   // detailni informace o specifikovane aplikaci
   @GetMapping("/apps/{key}")
-  @ResponseStatus(value = HttpStatus.OK)
-  ResponseEntity<ProjectDetailDto> getAppDetail(@PathVariable("key") String key) {
+  ResponseEntity<ProjectDetailDto> getAppDetail(@PathVariable("key") String key, WebRequest request) {
+    if (request.checkNotModified(serviceOrchestrator.getProjectRevisionETag(key))) {
+      return null;
+    }
     try {
       return ResponseEntity.ok(serviceOrchestrator.getAppDetailDto(key));
     } catch (CustomExceptions.NotManagedException ex) {
@@ -124,8 +145,10 @@ class ApiController {
 
   // získání všech prostředí - GET /api/apps/:key/envs
   @GetMapping("/apps/{key}/envs")
-  @ResponseStatus(value = HttpStatus.OK)
-  ResponseEntity<List<Environment>> getAllAppEnvs(@PathVariable("key") String key) {
+  ResponseEntity<List<Environment>> getAllAppEnvs(@PathVariable("key") String key, WebRequest request) {
+    if (request.checkNotModified(serviceOrchestrator.getProjectRevisionETag(key))) {
+      return null;
+    }
     try {
       return ResponseEntity.ok(serviceOrchestrator.getAppEnvironments(key));
     } catch (CustomExceptions.NotManagedException ex) {
@@ -274,7 +297,10 @@ class ApiController {
       HashMap<String, String> versionedApps = new HashMap<>(parameters);
       versionedApps.remove("ticket");
 
-      serviceOrchestrator.release(appKey, envKey, versionedApps, ticketUuid, force);
+      // opakovany pozadavek (retry z CI) dostane puvodni odpoved bez transakce
+      if (!serviceOrchestrator.isReleaseRepeated(appKey, envKey, versionedApps, ticketUuid, force)) {
+        serviceOrchestrator.release(appKey, envKey, versionedApps, ticketUuid, force);
+      }
       return ResponseEntity.ok(new CustomResponseBody(HttpStatus.OK, "Nasazení úspěšně zaevidováno."));
     } catch (CustomExceptions.NotManagedException
              | CustomExceptions.NoSuchAppComponentException
@@ -284,12 +310,126 @@ class ApiController {
     }
   }
 
+  // asynchronni zaevidovani (deploydash.release-queue.enabled) - 202 s trackingId,
+  //  vysledek na adrese z hlavicky Location (GET /api/releases/:trackingId)
+  @GetMapping("/apps/{key}/envs/{envKey}/versions/async")
+  ResponseEntity<ReleaseStatusDto> queueNewVersions(@PathVariable("key") String appKey,
+                                                    @PathVariable("envKey") String envKey,
+                                                    @RequestParam Map<String, String> parameters) {
+    return doQueueNewVersions(appKey, envKey, parameters, false);
+  }
+
+  @GetMapping("/force/apps/{key}/envs/{envKey}/versions/async")
+  ResponseEntity<ReleaseStatusDto> queueNewVersionsForce(@PathVariable("key") String appKey,
+                                                         @PathVariable("envKey") String envKey,
+                                                         @RequestParam Map<String, String> parameters) {
+    return doQueueNewVersions(appKey, envKey, parameters, true);
+  }
+
+  private ResponseEntity<ReleaseStatusDto> doQueueNewVersions(String appKey, String envKey, Map<String, String> parameters, boolean force) {
+    try {
+      String ticketUuid = parameters.get("ticket");
+
+      // poradi aplikaci zachovavame, zapisovac kontroluje v poradi
+      LinkedHashMap<String, String> versionedApps = new LinkedHashMap<>(parameters);
+      versionedApps.remove("ticket");
+
+      ReleaseStatusDto status = serviceOrchestrator.queueRelease(appKey, envKey, versionedApps, ticketUuid, force);
+      return ResponseEntity.accepted()
+        .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+          .path("/api/releases/{trackingId}")
+          .buildAndExpand(status.getTrackingId())
+          .toUri())
+        .body(status);
+    } catch (CustomExceptions.NotManagedException
+             | CustomExceptions.ReleaseQueueUnavailableException ex) {
+      throw new CustomExceptions.DeploymentEvidenceException(ex);
+    }
+  }
+
+  // stav asynchronne zaevidovaneho nasazeni
+  @GetMapping("/releases/{trackingId}")
+  ResponseEntity<ReleaseStatusDto> getReleaseStatus(@PathVariable("trackingId") String trackingId) {
+    try {
+      return ResponseEntity.ok(serviceOrchestrator.getReleaseStatus(trackingId));
+    } catch (CustomExceptions.NotManagedException ex) {
+      throw new CustomExceptions.EntityFetchException(QueuedRelease.CZECH_NAME, ex);
+    }
+  }
+
   @GetMapping(path = "/deployments")
-  @ResponseStatus(value = HttpStatus.OK)
-  ResponseEntity<List<DeploymentDto>> getAllDeployments() {
+  ResponseEntity<List<DeploymentDto>> getAllDeployments(WebRequest request) {
+    if (request.checkNotModified(serviceOrchestrator.getDataRevisionETag())) {
+      return null;
+    }
     return ResponseEntity.ok(serviceOrchestrator.getAllDeployments());
   }
 
+  // strankovana historie nasazeni (keyset podle data a id), nejnovejsi nasazeni prvni
+  //  filtry: appKey, projectKey, envName, ticket, from, to (ISO date-time)
+  @GetMapping(path = "/deployments/page")
+  ResponseEntity<DeploymentPageDto> getDeploymentPage(DeploymentFilterDto filter,
+                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                      @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                                      WebRequest request) {
+    if (request.checkNotModified(serviceOrchestrator.getDataRevisionETag())) {
+      return null;
+    }
+    try {
+      return ResponseEntity.ok(serviceOrchestrator.getDeploymentPage(filter, cursor, limit));
+    } catch (CustomExceptions.InvalidPageRequestException ex) {
+      throw new CustomExceptions.EntityFetchException(Deployment.CZECH_NAME, ex);
+    }
+  }
+
+  // export cele historie nasazeni po radcich (format=ndjson|csv), stejne filtry jako /deployments/page
+  @GetMapping(path = "/deployments/export")
+  ResponseEntity<StreamingResponseBody> exportDeployments(DeploymentFilterDto filter,
+                                                          @RequestParam(value = "format", defaultValue = "ndjson") String formatName) {
+    DeploymentExportFormat format = DeploymentExportFormat.fromName(formatName).orElseThrow(
+      () -> new CustomExceptions.EntityFetchException(Deployment.CZECH_NAME,
+        new HttpMessageConversionException(String.format("Nepodporovaný formát exportu '%s'.", formatName)))
+    );
+
+    StreamingResponseBody body = out -> serviceOrchestrator.exportDeployments(filter, format, out);
+
+    return ResponseEntity.ok()
+      .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+      .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"deployments." + format.getFileExtension() + "\"")
+      .body(body);
+  }
+
+  //
+  // EVENTS
+  //
+
+  // stream zmen (SSE) misto pollingu - udalost "change" po kazdem commitnutem zapisu,
+  //  volitelne jen pro jeden projekt; pri obnoveni spojeni se doruci zmeskane udalosti od Last-Event-ID
+  //  (nebo ?since=), pokud uz nejsou k dispozici, prijde udalost "reset" a klient nacte data znovu
+  @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  SseEmitter subscribeToChanges(@RequestParam(value = "projectKey", required = false) String projectKey,
+                                @RequestParam(value = "since", required = false) String since,
+                                @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+    return changeStream.subscribe(projectKey, lastEventId != null ? lastEventId : since);
+  }
+
+  // hromadny import historie nasazeni (format=ndjson|csv), pole jako u exportu:
+  //  appKey, environmentName, versionName, jiraUrl, deployedAt (ISO date-time);
+  //  chybne radky se odmitnou a vrati ve vysledku, import pokracuje
+  @PostMapping(path = "/deployments/import")
+  ResponseEntity<DeploymentImportResultDto> importDeployments(@RequestParam(value = "format", defaultValue = "ndjson") String formatName,
+                                                              InputStream body) throws IOException {
+    try {
+      DeploymentExportFormat format = DeploymentExportFormat.fromName(formatName).orElseThrow(
+        () -> new HttpMessageConversionException(String.format("Nepodporovaný formát importu '%s'.", formatName))
+      );
+
+      return ResponseEntity.ok(serviceOrchestrator.importDeployments(body, format));
+    } catch (HttpMessageConversionException ex) {
+      throw new CustomExceptions.EntityAdditionException(Deployment.CZECH_NAME, "", ex);
+    }
+  }
+
   @DeleteMapping(path = "/apps/{appKey}/envs/{envKey}/versions/{versionName}/deployment")
   @ResponseStatus(value = HttpStatus.OK)
   void deleteDeployment(@PathVariable("appKey") String appKey,
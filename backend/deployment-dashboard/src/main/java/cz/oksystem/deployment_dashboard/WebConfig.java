@@ -1,11 +1,19 @@
 package cz.oksystem.deployment_dashboard;
 
+import cz.oksystem.deployment_dashboard.metrics.RequestQueryMetrics;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+  private final RequestQueryMetrics requestQueryMetrics;
+
+  public WebConfig(RequestQueryMetrics requestQueryMetrics) {
+    this.requestQueryMetrics = requestQueryMetrics;
+  }
+
   @Override
   public void addCorsMappings(CorsRegistry registry) {
     registry.addMapping("/**")
@@ -14,4 +22,9 @@ public class WebConfig implements WebMvcConfigurer {
       .allowedHeaders("*")
       .allowCredentials(true);
   }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(requestQueryMetrics).addPathPatterns("/api/**");
+  }
 }
@@ -0,0 +1,55 @@
+package cz.oksystem.deployment_dashboard.dto;
+
+import java.util.Map;
+
+// udalost streamu zmen /api/events
+public class DashboardChangeDto {
+
+  // token revize, od ktere lze stream obnovit (Last-Event-ID)
+  private String revision;
+  private String type;
+  private String projectKey;
+  private String appKey;
+  private String envName;
+
+  // klic aplikace -> nazev verze
+  private Map<String, String> versions;
+
+  public DashboardChangeDto() {}
+
+  public DashboardChangeDto(String revision, String type, String projectKey, String appKey, String envName,
+                            Map<String, String> versions) {
+    this.revision = revision;
+    this.type = type;
+    this.projectKey = projectKey;
+    this.appKey = appKey;
+    this.envName = envName;
+    this.versions = versions;
+  }
+
+  // Getters
+  public String getRevision() { return revision; }
+
+  public String getType() { return type; }
+
+  public String getProjectKey() { return projectKey; }
+
+  public String getAppKey() { return appKey; }
+
+  public String getEnvName() { return envName; }
+
+  public Map<String, String> getVersions() { return versions; }
+
+  // Setters
+  public void setRevision(String revision) { this.revision = revision; }
+
+  public void setType(String type) { this.type = type; }
+
+  public void setProjectKey(String projectKey) { this.projectKey = projectKey; }
+
+  public void setAppKey(String appKey) { this.appKey = appKey; }
+
+  public void setEnvName(String envName) { this.envName = envName; }
+
+  public void setVersions(Map<String, String> versions) { this.versions = versions; }
+}
@@ -1,5 +1,7 @@
 package cz.oksystem.deployment_dashboard.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import cz.oksystem.deployment_dashboard.serializers.CustomProtocolsSerializer;
 import java.time.LocalDateTime;
 
 public class DeploymentDto {
@@ -17,6 +19,8 @@ public class DeploymentDto {
 
   private String versionDescription;
 
+  // puvodni hodnota (ok-jira://...), na odkaz se prevede pri serializaci
+  @JsonSerialize(using = CustomProtocolsSerializer.OfString.class)
   private String jiraUrl;
 
   public DeploymentDto() {}
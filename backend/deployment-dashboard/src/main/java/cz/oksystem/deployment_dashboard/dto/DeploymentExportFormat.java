@@ -0,0 +1,28 @@
+package cz.oksystem.deployment_dashboard.dto;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum DeploymentExportFormat {
+  NDJSON("application/x-ndjson", "ndjson"),
+  CSV("text/csv", "csv");
+
+  private final String contentType;
+  private final String fileExtension;
+
+  DeploymentExportFormat(String contentType, String fileExtension) {
+    this.contentType = contentType;
+    this.fileExtension = fileExtension;
+  }
+
+  // Getters
+  public String getContentType() { return this.contentType; }
+
+  public String getFileExtension() { return this.fileExtension; }
+
+  public static Optional<DeploymentExportFormat> fromName(String name) {
+    return Arrays.stream(values())
+      .filter(format -> format.fileExtension.equalsIgnoreCase(name))
+      .findFirst();
+  }
+}
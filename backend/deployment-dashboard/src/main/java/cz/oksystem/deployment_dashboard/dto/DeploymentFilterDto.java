@@ -0,0 +1,59 @@
+package cz.oksystem.deployment_dashboard.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public class DeploymentFilterDto {
+
+  @Nullable
+  private String appKey;
+
+  @Nullable
+  private String projectKey;
+
+  @Nullable
+  private String envName;
+
+  @Nullable
+  private String ticket;
+
+  @Nullable
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private LocalDateTime from;
+
+  @Nullable
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private LocalDateTime to;
+
+
+  public DeploymentFilterDto() {}
+
+  // Getters
+  public Optional<String> getAppKey() { return Optional.ofNullable(this.appKey); }
+
+  public Optional<String> getProjectKey() { return Optional.ofNullable(this.projectKey); }
+
+  public Optional<String> getEnvName() { return Optional.ofNullable(this.envName); }
+
+  public Optional<String> getTicket() { return Optional.ofNullable(this.ticket); }
+
+  public Optional<LocalDateTime> getFrom() { return Optional.ofNullable(this.from); }
+
+  public Optional<LocalDateTime> getTo() { return Optional.ofNullable(this.to); }
+
+  // Setters
+  public void setAppKey(@Nullable String newAppKey) { this.appKey = newAppKey; }
+
+  public void setProjectKey(@Nullable String newProjectKey) { this.projectKey = newProjectKey; }
+
+  public void setEnvName(@Nullable String newEnvName) { this.envName = newEnvName; }
+
+  public void setTicket(@Nullable String newTicket) { this.ticket = newTicket; }
+
+  public void setFrom(@Nullable LocalDateTime newFrom) { this.from = newFrom; }
+
+  public void setTo(@Nullable LocalDateTime newTo) { this.to = newTo; }
+}
@@ -0,0 +1,38 @@
+package cz.oksystem.deployment_dashboard.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeploymentImportResultDto {
+
+  private long imported;
+  private long rejected;
+
+  // jen prvnich nekolik odmitnutych radku, celkovy pocet je v rejected
+  private List<RejectedRow> rejects = new ArrayList<>();
+
+  public DeploymentImportResultDto() {}
+
+  public DeploymentImportResultDto(long imported, long rejected, List<RejectedRow> rejects) {
+    this.imported = imported;
+    this.rejected = rejected;
+    this.rejects = rejects;
+  }
+
+  // Getters
+  public long getImported() { return imported; }
+
+  public long getRejected() { return rejected; }
+
+  public List<RejectedRow> getRejects() { return rejects; }
+
+  // Setters
+  public void setImported(long imported) { this.imported = imported; }
+
+  public void setRejected(long rejected) { this.rejected = rejected; }
+
+  public void setRejects(List<RejectedRow> rejects) { this.rejects = rejects; }
+
+  // row - poradi datoveho radku ve vstupu (bez hlavicky CSV), od 1
+  public record RejectedRow(long row, String reason) {}
+}
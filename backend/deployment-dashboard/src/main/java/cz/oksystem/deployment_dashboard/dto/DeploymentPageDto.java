@@ -0,0 +1,29 @@
+package cz.oksystem.deployment_dashboard.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeploymentPageDto {
+
+  private List<DeploymentDto> deployments = new ArrayList<>();
+
+  // null, pokud uz dalsi stranka neexistuje
+  private String nextCursor;
+
+  public DeploymentPageDto() {}
+
+  public DeploymentPageDto(List<DeploymentDto> deployments, String nextCursor) {
+    this.deployments = deployments;
+    this.nextCursor = nextCursor;
+  }
+
+  // Getters
+  public List<DeploymentDto> getDeployments() { return deployments; }
+
+  public String getNextCursor() { return nextCursor; }
+
+  // Setters
+  public void setDeployments(List<DeploymentDto> deployments) { this.deployments = deployments; }
+
+  public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -1,5 +1,7 @@
 package cz.oksystem.deployment_dashboard.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import cz.oksystem.deployment_dashboard.serializers.CustomProtocolsSerializer;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,6 +18,8 @@ public class ProjectOverviewDto {
 
   private String lastDeployedToEnvName;
 
+  // puvodni hodnota (ok-jira://...), na odkaz se prevede pri serializaci
+  @JsonSerialize(using = CustomProtocolsSerializer.OfString.class)
   private String lastDeploymentJiraUrl;
 
   private List<String> versionedComponentsNames = new ArrayList<>();
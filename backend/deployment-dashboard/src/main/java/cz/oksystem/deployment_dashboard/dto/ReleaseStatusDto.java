@@ -0,0 +1,64 @@
+package cz.oksystem.deployment_dashboard.dto;
+
+import java.time.LocalDateTime;
+
+public class ReleaseStatusDto {
+
+  private String trackingId;
+
+  // QUEUED, DONE, REJECTED, FAILED
+  private String status;
+
+  // duvod odmitnuti nebo chyby
+  private String message;
+
+  private String projectKey;
+  private String envName;
+  private LocalDateTime acceptedAt;
+
+  // null, dokud pozadavek ceka ve fronte
+  private LocalDateTime processedAt;
+
+  public ReleaseStatusDto() {}
+
+  public ReleaseStatusDto(String trackingId, String status, String message, String projectKey, String envName,
+                          LocalDateTime acceptedAt, LocalDateTime processedAt) {
+    this.trackingId = trackingId;
+    this.status = status;
+    this.message = message;
+    this.projectKey = projectKey;
+    this.envName = envName;
+    this.acceptedAt = acceptedAt;
+    this.processedAt = processedAt;
+  }
+
+  // Getters
+  public String getTrackingId() { return trackingId; }
+
+  public String getStatus() { return status; }
+
+  public String getMessage() { return message; }
+
+  public String getProjectKey() { return projectKey; }
+
+  public String getEnvName() { return envName; }
+
+  public LocalDateTime getAcceptedAt() { return acceptedAt; }
+
+  public LocalDateTime getProcessedAt() { return processedAt; }
+
+  // Setters
+  public void setTrackingId(String trackingId) { this.trackingId = trackingId; }
+
+  public void setStatus(String status) { this.status = status; }
+
+  public void setMessage(String message) { this.message = message; }
+
+  public void setProjectKey(String projectKey) { this.projectKey = projectKey; }
+
+  public void setEnvName(String envName) { this.envName = envName; }
+
+  public void setAcceptedAt(LocalDateTime acceptedAt) { this.acceptedAt = acceptedAt; }
+
+  public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+}
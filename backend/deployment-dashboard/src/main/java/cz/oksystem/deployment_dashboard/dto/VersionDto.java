@@ -1,6 +1,7 @@
 package cz.oksystem.deployment_dashboard.dto;
 
-
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import cz.oksystem.deployment_dashboard.serializers.CustomProtocolsSerializer;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.data.util.Pair;
 
@@ -8,6 +9,8 @@ import java.time.LocalDateTime;
 import java.util.Map;
 
 public class VersionDto {
+  // odkazy drzi puvodni hodnotu (ok-jira://...), na odkaz se prevedou pri serializaci
+  @JsonSerialize(contentUsing = CustomProtocolsSerializer.DateAndUrl.class)
   private Map<String, Pair<LocalDateTime, String>> environmentToDateAndJiraUrlMap;
   private String description;
   private Long id;
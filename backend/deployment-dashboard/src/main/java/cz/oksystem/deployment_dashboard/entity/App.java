@@ -29,6 +29,11 @@ public class App {
   @Nullable
   private LocalDateTime archivedTimestamp;
 
+  // denormalizovany korenovy projekt (pro projekt vlastni id), udrzuje AppService/AppClosureService
+  @Nullable
+  @Column(name = "root_project_id")
+  private Long rootProjectId;
+
   @JsonBackReference
   @Nullable
   @ManyToOne
@@ -76,6 +81,8 @@ public class App {
   }
 
   // Getters
+  public Long getId() { return this.id; }
+
   public String getKey() { return this.key; }
 
   public String getName() { return this.name; }
@@ -84,6 +91,9 @@ public class App {
     return Optional.ofNullable(this.archivedTimestamp);
   }
 
+  @Nullable
+  public Long getRootProjectId() { return this.rootProjectId; }
+
   public Optional<App> getParent() {
     return Optional.ofNullable(this.parent);
   }
@@ -102,22 +112,28 @@ public class App {
     return Collections.unmodifiableList(this.components);
   }
 
+  // prochazi lazy vazby (dotaz na kazdy uzel), services pouzivaji AppService.getSubtree
   public List<App> getComponents() {
     List<App> components = new ArrayList<>();
+    Set<App> visited = new HashSet<>();
 
-    Queue<App> appQueue = new LinkedList<>();
+    Queue<App> appQueue = new ArrayDeque<>();
 
     appQueue.add(this);
+    visited.add(this);
 
     while (appQueue.peek() != null)
     {
       App app = appQueue.poll();
-      if (!components.contains(app)) {
+      if (app != this) {
         components.add(app);
-        appQueue.addAll(app.getDirectComponents());
+      }
+      for (App component : app.getDirectComponents()) {
+        if (visited.add(component)) {
+          appQueue.add(component);
+        }
       }
     }
-    components.remove(this);
 
     return components;
   }
@@ -159,6 +175,10 @@ public class App {
     this.parent = newParent;
   }
 
+  public void setRootProjectId(@Nullable Long newRootProjectId) {
+    this.rootProjectId = newRootProjectId;
+  }
+
   // Properties
   public boolean isComponent() {
     return this.parent != null;
@@ -173,21 +193,6 @@ public class App {
     return false;
   }
 
-  public boolean hasCycle() {
-    App slow = this, fast = this;
-
-    while (slow != null && fast != null
-      && fast.parent != null) {
-      slow = slow.parent;
-      fast = fast.parent.parent;
-
-      if (slow == fast) {
-        return true;
-      }
-    }
-    return false;
-  }
-
   @Override
   public String toString() {
     return "App{" +
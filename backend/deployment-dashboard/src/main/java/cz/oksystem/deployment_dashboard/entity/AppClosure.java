@@ -0,0 +1,65 @@
+package cz.oksystem.deployment_dashboard.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// uzaverova tabulka hierarchie aplikaci - radek pro kazdou dvojici (predek, potomek) vcetne
+// aplikace same se sebou (depth 0), udrzuje ji AppClosureService nativnimi dotazy, pres JPA se jen cte
+@Entity
+@Immutable
+@Table(name = "app_closure")
+public class AppClosure {
+
+  @EmbeddedId
+  private Key id;
+
+  private int depth;
+
+
+  public AppClosure() {}
+
+  // Getters
+  public Key getId() { return this.id; }
+
+  public int getDepth() { return this.depth; }
+
+  @Embeddable
+  public static class Key implements Serializable {
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    public Key() {}
+
+    public Key(Long ancestorId, Long descendantId) {
+      this.ancestorId = ancestorId;
+      this.descendantId = descendantId;
+    }
+
+    // Getters
+    public Long getAncestorId() { return this.ancestorId; }
+
+    public Long getDescendantId() { return this.descendantId; }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key key)) {
+        return false;
+      }
+      return Objects.equals(ancestorId, key.ancestorId) && Objects.equals(descendantId, key.descendantId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(ancestorId, descendantId);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package cz.oksystem.deployment_dashboard.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// materializovany aktualni stav - posledni nasazeni aplikace na prostredi,
+// udrzuje ho CurrentDeploymentService nativnimi dotazy, pres JPA se jen cte
+@Entity
+@Immutable
+@Table(name = "current_deployments")
+public class CurrentDeployment {
+
+  @EmbeddedId
+  private Key id;
+
+  @OneToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "deployment_id")
+  private Deployment deployment;
+
+
+  public CurrentDeployment() {}
+
+  // Getters
+  public Key getId() { return this.id; }
+
+  public Deployment getDeployment() { return this.deployment; }
+
+  @Embeddable
+  public static class Key implements Serializable {
+    @Column(name = "app_id")
+    private Long appId;
+
+    @Column(name = "env_id")
+    private Long envId;
+
+    public Key() {}
+
+    public Key(Long appId, Long envId) {
+      this.appId = appId;
+      this.envId = envId;
+    }
+
+    // Getters
+    public Long getAppId() { return this.appId; }
+
+    public Long getEnvId() { return this.envId; }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key key)) {
+        return false;
+      }
+      return Objects.equals(appId, key.appId) && Objects.equals(envId, key.envId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(appId, envId);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package cz.oksystem.deployment_dashboard.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import cz.oksystem.deployment_dashboard.serializers.CustomProtocolsSerializer;
 import jakarta.persistence.*;
@@ -30,6 +31,14 @@ public class Deployment {
   @Column(name = "jira_url")
   private String jiraUrl;
 
+  // normalizovany ticket z jiraUrl, prirazuje ho DeploymentService pri ulozeni;
+  // podle nej (index) se hledaji nasazeni ticketu, jiraUrl zustava jako zobrazovany odkaz
+  @JsonIgnore
+  @Nullable
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "ticket_id")
+  private JiraTicket ticket;
+
   @JsonBackReference
   @NotNull
   @ManyToOne(fetch = FetchType.LAZY)
@@ -42,6 +51,11 @@ public class Deployment {
   @JoinColumn(name = "version_id", updatable = false)
   private Version version;
 
+  // korenovy projekt aplikace verze, pri presunu aplikace ho prepisuje AppClosureService
+  @Nullable
+  @Column(name = "root_project_id")
+  private Long rootProjectId;
+
 
   public Deployment() {}
 
@@ -81,6 +95,10 @@ public class Deployment {
     return Optional.ofNullable(this.jiraUrl);
   }
 
+  public Optional<JiraTicket> getTicket() {
+    return Optional.ofNullable(this.ticket);
+  }
+
   public Environment getEnvironment() { return this.environment; }
 
   public Version getVersion() {
@@ -92,8 +110,15 @@ public class Deployment {
     this.date = newDate;
   }
 
+  // ticket se prirazi znovu pri ulozeni (DeploymentService)
   public void setJiraUrl(@Nullable String newJiraUrl) {
     this.jiraUrl = newJiraUrl;
+    this.ticket = null;
+  }
+
+  public void setTicket(@Nullable JiraTicket newTicket) {
+    this.ticket = newTicket;
+    this.jiraUrl = newTicket == null ? null : newTicket.getUrl();
   }
 
   public void setEnvironment(Environment newEnvironment) {
@@ -124,6 +149,18 @@ public class Deployment {
     this.version = newVersion;
   }
 
+  // volajici, ktery projekt zna, usetri nacteni verze (napr. pri importu pres reference)
+  public void setRootProjectId(@Nullable Long newRootProjectId) {
+    this.rootProjectId = newRootProjectId;
+  }
+
+  @PrePersist
+  void inheritRootProjectId() {
+    if (this.rootProjectId == null) {
+      this.rootProjectId = this.version.getRootProjectId();
+    }
+  }
+
   @Override
   public String toString() {
     return "Deployment{" +
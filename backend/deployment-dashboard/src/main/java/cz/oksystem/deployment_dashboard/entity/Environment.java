@@ -1,6 +1,7 @@
 package cz.oksystem.deployment_dashboard.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -12,6 +13,8 @@ public class Environment extends AbstractDeploymentHolder {
 
   public static final String CZECH_NAME = "Prostředí";
 
+  // id potrebuji jen sluzby (cache klicu, aktualni nasazeni), API prostredi vraci klic a nazev
+  @JsonIgnore
   @Id
   @GeneratedValue
   @Column(name = "env_id")
@@ -46,6 +49,8 @@ public class Environment extends AbstractDeploymentHolder {
   }
 
   // Getters
+  public Long getId() { return this.id; }
+
   public String getName() { return this.name; }
 
   public App getApp() { return this.app; }
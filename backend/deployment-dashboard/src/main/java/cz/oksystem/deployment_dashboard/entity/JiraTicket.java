@@ -0,0 +1,86 @@
+package cz.oksystem.deployment_dashboard.entity;
+
+import jakarta.persistence.*;
+
+import java.util.Objects;
+
+// jira ticket, na ktery odkazuji nasazeni - hodnota 'ok-jira://ABC-123' se uklada jako (ok-jira, ABC-123);
+// radky se jen vkladaji (JiraTicketService), nikdy nemeni
+@Entity
+@Table(name = "jira_tickets", uniqueConstraints = @UniqueConstraint(columnNames = {"ticket_key", "protocol"}))
+public class JiraTicket {
+
+  public static final String CZECH_NAME = "Jira ticket";
+
+  @Id
+  @GeneratedValue
+  @Column(name = "ticket_id")
+  private Long id;
+
+  @Column(name = "protocol", updatable = false)
+  private String protocol;
+
+  @Column(name = "ticket_key", updatable = false)
+  private String key;
+
+
+  public JiraTicket() {}
+
+  public JiraTicket(Key key) {
+    if (key == null) {
+      throw new IllegalArgumentException(
+        "Key is null."
+      );
+    }
+    this.protocol = key.protocol();
+    this.key = key.key();
+  }
+
+  // Getters
+  public Long getId() { return this.id; }
+
+  public String getProtocol() { return this.protocol; }
+
+  public String getKey() { return this.key; }
+
+  public Key getTicketKey() {
+    return new Key(this.protocol, this.key);
+  }
+
+  public String getUrl() {
+    return this.getTicketKey().url();
+  }
+
+  @Override
+  public String toString() {
+    return "JiraTicket{" +
+      "id=" + id +
+      ", protocol='" + protocol + '\'' +
+      ", key='" + key + '\'' +
+      '}';
+  }
+
+  // protokol je cast pred prvnim '://', hodnota bez protokolu ma protokol prazdny
+  // (stejne rozdeleni pouziva naplneni tabulky v changesetu 10)
+  public record Key(String protocol, String key) {
+    private static final String SEPARATOR = "://";
+
+    public Key {
+      Objects.requireNonNull(protocol);
+      Objects.requireNonNull(key);
+    }
+
+    public static Key of(String url) {
+      int separatorIndex = url.indexOf(SEPARATOR);
+
+      if (separatorIndex < 1) {
+        return new Key("", url);
+      }
+      return new Key(url.substring(0, separatorIndex), url.substring(separatorIndex + SEPARATOR.length()));
+    }
+
+    public String url() {
+      return protocol.isEmpty() ? key : protocol + SEPARATOR + key;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package cz.oksystem.deployment_dashboard.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.*;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// pozadavek na evidenci nasazeni zarazeny do fronty (outbox) - zapisuje se pri prijeti,
+// stav a vysledek nastavi zapisovac ve stejne transakci jako samotne nasazeni
+@Entity
+@Table(name = "release_queue")
+public class QueuedRelease {
+
+  public static final String CZECH_NAME = "Nasazení ve frontě";
+
+  public enum Status {
+    QUEUED,
+    // zaevidovano
+    DONE,
+    // odmitnuto kontrolou evidence (rollback, prenasazeni, neznama aplikace)
+    REJECTED,
+    // chyba zpracovani
+    FAILED
+  }
+
+  @Id
+  @GeneratedValue
+  @Column(name = "queued_release_id")
+  private Long id;
+
+  @Column(name = "tracking_id", updatable = false)
+  private String trackingId;
+
+  @Column(name = "project_key", updatable = false)
+  private String projectKey;
+
+  @Column(name = "env_name", updatable = false)
+  private String envName;
+
+  @Convert(converter = VersionedAppsConverter.class)
+  @Column(name = "versioned_apps", updatable = false)
+  private Map<String, String> versionedApps;
+
+  @Nullable
+  @Column(name = "jira_url", updatable = false)
+  private String jiraUrl;
+
+  @Column(name = "forced", updatable = false)
+  private boolean force;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status")
+  private Status status;
+
+  @Nullable
+  @Column(name = "message")
+  private String message;
+
+  @Column(name = "accepted_at", updatable = false)
+  private LocalDateTime acceptedAt;
+
+  @Nullable
+  @Column(name = "processed_at")
+  private LocalDateTime processedAt;
+
+
+  public QueuedRelease() {}
+
+  public QueuedRelease(String projectKey, String envName, Map<String, String> versionedApps,
+                       @Nullable String jiraUrl, boolean force) {
+    if (projectKey == null || projectKey.isEmpty()) {
+      throw new IllegalArgumentException(
+        "Project key is empty."
+      );
+    }
+    if (envName == null || envName.isEmpty()) {
+      throw new IllegalArgumentException(
+        "Environment name is empty."
+      );
+    }
+    this.trackingId = UUID.randomUUID().toString();
+    this.projectKey = projectKey;
+    this.envName = envName;
+    this.versionedApps = versionedApps == null ? new LinkedHashMap<>() : new LinkedHashMap<>(versionedApps);
+    this.jiraUrl = jiraUrl;
+    this.force = force;
+    this.status = Status.QUEUED;
+    this.acceptedAt = LocalDateTime.now();
+  }
+
+  // Getters
+  public Long getId() { return this.id; }
+
+  public String getTrackingId() { return this.trackingId; }
+
+  public String getProjectKey() { return this.projectKey; }
+
+  public String getEnvName() { return this.envName; }
+
+  public Map<String, String> getVersionedApps() { return this.versionedApps; }
+
+  public Optional<String> getJiraUrl() { return Optional.ofNullable(this.jiraUrl); }
+
+  public boolean isForce() { return this.force; }
+
+  public Status getStatus() { return this.status; }
+
+  public Optional<String> getMessage() { return Optional.ofNullable(this.message); }
+
+  public LocalDateTime getAcceptedAt() { return this.acceptedAt; }
+
+  public Optional<LocalDateTime> getProcessedAt() { return Optional.ofNullable(this.processedAt); }
+
+  // Properties
+  public void processed(Status newStatus, @Nullable String newMessage) {
+    if (newStatus == Status.QUEUED) {
+      throw new IllegalArgumentException(
+        "Processed release cannot be queued."
+      );
+    }
+    this.status = newStatus;
+    // zprava se vejde do sloupce message
+    this.message = newMessage != null && newMessage.length() > 2000 ? newMessage.substring(0, 2000) : newMessage;
+    this.processedAt = LocalDateTime.now();
+  }
+
+  @Override
+  public String toString() {
+    return "QueuedRelease{" +
+      "id=" + id +
+      ", trackingId='" + trackingId + '\'' +
+      ", projectKey='" + projectKey + '\'' +
+      ", envName='" + envName + '\'' +
+      ", versionedApps=" + versionedApps +
+      ", status=" + status +
+      '}';
+  }
+
+  // mapa verzi jako JSON objekt, poradi aplikaci se zachovava (kontroly probihaji v poradi)
+  @Converter
+  public static class VersionedAppsConverter implements AttributeConverter<Map<String, String>, String> {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> TYPE = new TypeReference<>() {};
+
+    @Override
+    public String convertToDatabaseColumn(Map<String, String> versionedApps) {
+      try {
+        return MAPPER.writeValueAsString(versionedApps);
+      } catch (JsonProcessingException ex) {
+        throw new IllegalArgumentException(ex);
+      }
+    }
+
+    @Override
+    public Map<String, String> convertToEntityAttribute(String json) {
+      try {
+        return MAPPER.readValue(json, TYPE);
+      } catch (JsonProcessingException ex) {
+        throw new IllegalArgumentException(ex);
+      }
+    }
+  }
+}
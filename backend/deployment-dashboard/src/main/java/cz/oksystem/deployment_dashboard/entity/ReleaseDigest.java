@@ -0,0 +1,39 @@
+package cz.oksystem.deployment_dashboard.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// otisk posledniho releasu (projekt, prostredi, mnozina aplikaci),
+// udrzuje ho ReleaseDigests nativnimi dotazy, pres JPA se jen cte
+@Entity
+@Immutable
+@Table(name = "release_digests")
+public class ReleaseDigest {
+
+  @Id
+  @Column(name = "release_key")
+  private String releaseKey;
+
+  @Column(name = "digest")
+  private String digest;
+
+  @Column(name = "project_key")
+  private String projectKey;
+
+  @Column(name = "created_at")
+  private LocalDateTime createdAt;
+
+
+  public ReleaseDigest() {}
+
+  // Getters
+  public String getReleaseKey() { return this.releaseKey; }
+
+  public String getDigest() { return this.digest; }
+
+  public String getProjectKey() { return this.projectKey; }
+
+  public LocalDateTime getCreatedAt() { return this.createdAt; }
+}
@@ -34,6 +34,11 @@ public class Version extends AbstractDeploymentHolder {
   @JoinColumn(name = "app_id", updatable = false)
   private App app;
 
+  // korenovy projekt aplikace, pri presunu aplikace ho prepisuje AppClosureService
+  @Nullable
+  @Column(name = "root_project_id")
+  private Long rootProjectId;
+
 
   public Version() {}
 
@@ -71,6 +76,10 @@ public class Version extends AbstractDeploymentHolder {
 
   public App getApp() { return this.app; }
 
+  // jen pro entity, neni soucasti JSON
+  @Nullable
+  Long getRootProjectId() { return this.rootProjectId; }
+
   // Setters
   public void setName(String newName) {
     if (newName == null) {
@@ -103,6 +112,18 @@ public class Version extends AbstractDeploymentHolder {
     this.app = newApp;
   }
 
+  // volajici, ktery projekt zna, usetri nacteni aplikace (napr. pri importu pres reference)
+  public void setRootProjectId(@Nullable Long newRootProjectId) {
+    this.rootProjectId = newRootProjectId;
+  }
+
+  @PrePersist
+  void inheritRootProjectId() {
+    if (this.rootProjectId == null) {
+      this.rootProjectId = this.app.getRootProjectId();
+    }
+  }
+
   @Override
   public String toString() {
     return "Version{" +
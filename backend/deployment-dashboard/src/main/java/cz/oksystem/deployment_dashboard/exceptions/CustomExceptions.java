@@ -65,6 +65,18 @@ public class CustomExceptions {
     }
   }
 
+  public static class InvalidPageRequestException extends IllegalArgumentException {
+    public InvalidPageRequestException(String message) {
+      super(message);
+    }
+  }
+
+  public static class ReleaseQueueUnavailableException extends RuntimeException {
+    public ReleaseQueueUnavailableException(String message) {
+      super(message);
+    }
+  }
+
   public static class EntityAdditionException extends RuntimeException {
     public EntityAdditionException(String entityClassName, String key, Throwable cause) {
       super(String.format("%s%s se nepodařilo přidat.", getCzechDeclension(entityClassName), key.isEmpty() ? "" : String.format(" s klíčem '%s'", key)), cause);
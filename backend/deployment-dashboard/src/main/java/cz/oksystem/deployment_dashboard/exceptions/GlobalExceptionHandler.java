@@ -21,7 +21,9 @@ public class GlobalExceptionHandler {
     return switch (ex.getClass().getSimpleName()) {
       case "DuplicateKeyException", "RecursiveAppParentingException", "DeletionNotAllowedException" -> HttpStatus.CONFLICT;
       case "NotManagedException" -> HttpStatus.NOT_FOUND;
-      case "HttpMessageConversionException", "VersionRedeployException", "VersionRollbackException" -> HttpStatus.BAD_REQUEST;
+      case "HttpMessageConversionException", "VersionRedeployException", "VersionRollbackException",
+           "InvalidPageRequestException" -> HttpStatus.BAD_REQUEST;
+      case "ReleaseQueueUnavailableException" -> HttpStatus.SERVICE_UNAVAILABLE;
       default -> HttpStatus.INTERNAL_SERVER_ERROR;
     };
   }
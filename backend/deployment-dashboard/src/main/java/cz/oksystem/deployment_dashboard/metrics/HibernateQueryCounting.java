@@ -0,0 +1,45 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// napojeni QueryCounter na Hibernate - SQL pres StatementInspector, cas v JDBC pres posluchace session,
+// nacteni entit a kolekci pres posluchace udalosti pripojene za vychozi (jen pocitaji, chovani nemeni)
+@Configuration
+public class HibernateQueryCounting {
+
+  @Bean
+  HibernatePropertiesCustomizer queryCountingStatementInspector() {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+      QueryCounter.statementPrepared(sql);
+      return sql;
+    });
+  }
+
+  @Bean
+  HibernatePropertiesCustomizer jdbcTimeSessionListener() {
+    return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimeListener.class.getName());
+  }
+
+  @Bean
+  SmartInitializingSingleton queryCountingEventListeners(EntityManagerFactory entityManagerFactory) {
+    return () -> {
+      EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class);
+
+      registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> QueryCounter.entityLoaded());
+      registry.appendListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event -> QueryCounter.collectionFetched());
+    };
+  }
+}
@@ -0,0 +1,52 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import org.hibernate.SessionEventListener;
+
+// cas v JDBC pro QueryCounter - ziskani spojeni z poolu, priprava a provedeni prikazu (i davek);
+// Hibernate vytvari instanci pro kazdou session, cteni ResultSetu se do casu nepocita
+public class JdbcTimeListener implements SessionEventListener {
+  private long connectionStart;
+  private long prepareStart;
+  private long executeStart;
+  private long batchStart;
+
+  @Override
+  public void jdbcConnectionAcquisitionStart() {
+    connectionStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcConnectionAcquisitionEnd() {
+    QueryCounter.jdbcTime(System.nanoTime() - connectionStart);
+  }
+
+  @Override
+  public void jdbcPrepareStatementStart() {
+    prepareStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcPrepareStatementEnd() {
+    QueryCounter.jdbcTime(System.nanoTime() - prepareStart);
+  }
+
+  @Override
+  public void jdbcExecuteStatementStart() {
+    executeStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteStatementEnd() {
+    QueryCounter.jdbcTime(System.nanoTime() - executeStart);
+  }
+
+  @Override
+  public void jdbcExecuteBatchStart() {
+    batchStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteBatchEnd() {
+    QueryCounter.jdbcTime(System.nanoTime() - batchStart);
+  }
+}
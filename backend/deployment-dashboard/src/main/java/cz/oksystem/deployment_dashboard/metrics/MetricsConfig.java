@@ -0,0 +1,17 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+  // tag project ma tolik hodnot, kolik je projektu - nad limit se dalsi metriky neregistruji,
+  // aby preklep v klici z CI nebo prochazeni neexistujicich projektu nezahltil Prometheus
+  @Bean
+  MeterFilter projectTagLimit(@Value("${deploydash.metrics.max-projects:1000}") int maxProjects) {
+    return MeterFilter.maximumAllowableTags("deploydash.", "project", maxProjects, MeterFilter.deny());
+  }
+}
@@ -0,0 +1,118 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// casy operaci ServiceOrchestrator podle operace, projektu a vysledku; bezi vne transakce,
+// mereni tak zahrnuje i commit a posluchace po commitu (prepocet read modelu);
+// cas bez JDBC se zaroven pricita do Server-Timing (app), pokud je zapnuty
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OrchestratorMetrics {
+  public static final String OPERATION_TIMER = "deploydash.orchestrator";
+  public static final String RELEASE_CONFLICTS = "deploydash.release.conflicts";
+
+  // operace bez projektu (seznamy, katalog aplikaci) a neexistujici projekt
+  static final String NO_PROJECT = "none";
+  static final String UNKNOWN_PROJECT = "unknown";
+
+  private final MeterRegistry meterRegistry;
+  private final boolean percentileHistogram;
+
+  // metoda -> index parametru s @ProjectKey, -1 pokud zadny nema
+  private final Map<Method, Integer> projectKeyIndexes = new ConcurrentHashMap<>();
+
+  public OrchestratorMetrics(MeterRegistry meterRegistry,
+                             @Value("${deploydash.metrics.percentile-histogram:true}") boolean percentileHistogram) {
+    this.meterRegistry = meterRegistry;
+    this.percentileHistogram = percentileHistogram;
+  }
+
+  // ETagy a prevody DTO jsou jen pomocne metody bez pristupu do DB
+  @Around("execution(public * cz.oksystem.deployment_dashboard.service.ServiceOrchestrator.*(..))"
+    + " && !execution(* *ETag(..)) && !execution(* *FromDto(..))")
+  public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+    MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+    String project = this.projectTag(signature.getMethod(), joinPoint.getArgs());
+    String outcome = "success";
+    long jdbcNanosBefore = QueryCounter.jdbcNanos();
+    Timer.Sample sample = Timer.start(meterRegistry);
+
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable ex) {
+      outcome = ex.getClass().getSimpleName();
+
+      if (ex instanceof CustomExceptions.NotManagedException) {
+        project = UNKNOWN_PROJECT;
+      } else if (ex instanceof CustomExceptions.VersionRollbackException) {
+        this.conflict("rollback", project);
+      } else if (ex instanceof CustomExceptions.VersionRedeployException) {
+        this.conflict("redeploy", project);
+      }
+      throw ex;
+    } finally {
+      long elapsed = sample.stop(Timer.builder(OPERATION_TIMER)
+        .description("Duration of dashboard operations including commit")
+        .tag("operation", signature.getName())
+        .tag("project", project)
+        .tag("outcome", outcome)
+        .publishPercentileHistogram(percentileHistogram)
+        .minimumExpectedValue(Duration.ofMillis(1))
+        .maximumExpectedValue(Duration.ofSeconds(30))
+        .register(meterRegistry));
+      long jdbcNanos = QueryCounter.jdbcNanos() - jdbcNanosBefore;
+
+      ServerTiming.current().ifPresent(timing -> timing.addService(elapsed - jdbcNanos));
+    }
+  }
+
+  private void conflict(String type, String project) {
+    Counter.builder(RELEASE_CONFLICTS)
+      .description("Releases rejected because a newer or the same version was already deployed")
+      .tag("type", type)
+      .tag("project", project)
+      .register(meterRegistry)
+      .increment();
+  }
+
+  // klice jsou case-insensitive, hodnota tagu je proto vzdy malymi pismeny
+  private String projectTag(Method method, Object[] args) {
+    int index = projectKeyIndexes.computeIfAbsent(method, OrchestratorMetrics::projectKeyIndex);
+
+    if (index < 0 || !(args[index] instanceof String projectKey)) {
+      return NO_PROJECT;
+    }
+    return projectKey.toLowerCase();
+  }
+
+  private static int projectKeyIndex(Method method) {
+    Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+
+    for (int i = 0; i < parameterAnnotations.length; i++) {
+      for (Annotation annotation : parameterAnnotations[i]) {
+        if (annotation instanceof ProjectKey) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,14 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// parametr operace ServiceOrchestrator s klicem projektu, podle ktereho OrchestratorMetrics oznaci mereni
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ProjectKey {
+}
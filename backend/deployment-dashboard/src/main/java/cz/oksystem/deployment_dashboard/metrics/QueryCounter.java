@@ -0,0 +1,106 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// pocitadla prace Hibernate v ramci jednoho pozadavku - pripravene SQL prikazy, nactene entity,
+// inicializovane kolekce a cas v JDBC; pocita se jen na vlakne, kde je mereni zahajene (begin)
+public final class QueryCounter {
+  private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+  private QueryCounter() {
+  }
+
+  public static Counts begin() {
+    return begin(false);
+  }
+
+  // recordStatements - krome poctu uchovava i text prikazu (pro testy, v provozu zbytecna pamet)
+  public static Counts begin(boolean recordStatements) {
+    Counts counts = new Counts(recordStatements);
+    CURRENT.set(counts);
+    return counts;
+  }
+
+  // ukonci mereni na aktualnim vlakne, vraci null, pokud zadne nebezelo
+  public static Counts end() {
+    Counts counts = CURRENT.get();
+    CURRENT.remove();
+    return counts;
+  }
+
+  public static boolean isActive() {
+    return CURRENT.get() != null;
+  }
+
+  // probihajici mereni na aktualnim vlakne nebo null
+  public static Counts current() {
+    return CURRENT.get();
+  }
+
+  public static long jdbcNanos() {
+    Counts counts = CURRENT.get();
+    return counts == null ? 0 : counts.jdbcNanos;
+  }
+
+  static void statementPrepared(String sql) {
+    Counts counts = CURRENT.get();
+    if (counts != null) {
+      counts.statements++;
+      if (counts.statementSql != null) {
+        counts.statementSql.add(sql);
+      }
+    }
+  }
+
+  static void entityLoaded() {
+    Counts counts = CURRENT.get();
+    if (counts != null) {
+      counts.entityLoads++;
+    }
+  }
+
+  static void jdbcTime(long nanos) {
+    Counts counts = CURRENT.get();
+    if (counts != null) {
+      counts.jdbcNanos += nanos;
+    }
+  }
+
+  static void collectionFetched() {
+    Counts counts = CURRENT.get();
+    if (counts != null) {
+      counts.collectionFetches++;
+    }
+  }
+
+  // meni se jen z vlakna, ktere mereni zahajilo
+  public static final class Counts {
+    private long statements;
+    private long entityLoads;
+    private long collectionFetches;
+    private long jdbcNanos;
+    private final List<String> statementSql;
+
+    private Counts(boolean recordStatements) {
+      this.statementSql = recordStatements ? new ArrayList<>() : null;
+    }
+
+    // Getters
+    public long getStatements() { return this.statements; }
+
+    public long getEntityLoads() { return this.entityLoads; }
+
+    public long getCollectionFetches() { return this.collectionFetches; }
+
+    public long getJdbcNanos() { return this.jdbcNanos; }
+
+    // prazdny seznam, pokud se text prikazu neuchovava
+    public List<String> getStatementSql() { return this.statementSql == null ? List.of() : List.copyOf(this.statementSql); }
+
+    @Override
+    public String toString() {
+      return String.format("%d statements, %d entity loads, %d collection fetches", statements, entityLoads, collectionFetches);
+    }
+  }
+}
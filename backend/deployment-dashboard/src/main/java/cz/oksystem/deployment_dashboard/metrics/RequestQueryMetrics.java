@@ -0,0 +1,81 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// prace Hibernate na jeden pozadavek podle endpointu (vzor URI jako u http.server.requests);
+// zapisy zahrnuji i prepocet read modelu po commitu, ktery bezi na vlakne pozadavku;
+// u asynchronnich pozadavku (SSE, streamovany export) se meri jen cast do spusteni async zpracovani
+@Component
+public class RequestQueryMetrics implements AsyncHandlerInterceptor {
+  public static final String STATEMENTS = "deploydash.request.statements";
+  public static final String ENTITY_LOADS = "deploydash.request.entity.loads";
+  public static final String COLLECTION_FETCHES = "deploydash.request.collection.fetches";
+
+  private static final String COUNTS_ATTRIBUTE = RequestQueryMetrics.class.getName() + ".counts";
+  private static final String OWNER_ATTRIBUTE = RequestQueryMetrics.class.getName() + ".owner";
+
+  private final MeterRegistry meterRegistry;
+
+  public RequestQueryMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    // async ani chybovy dispatch stejneho pozadavku mereni nezahajuje znovu; mereni zahajene drive
+    // (ServerTimingFilter, test) se jen sdili a ukonci ho ten, kdo ho zahajil
+    if (request.getAttribute(COUNTS_ATTRIBUTE) == null) {
+      boolean owner = !QueryCounter.isActive();
+
+      request.setAttribute(COUNTS_ATTRIBUTE, owner ? QueryCounter.begin() : QueryCounter.current());
+      request.setAttribute(OWNER_ATTRIBUTE, owner);
+    }
+    return true;
+  }
+
+  // vlakno kontejneru se vraci do poolu driv, nez pozadavek skonci (afterCompletion bezi az pri
+  // async dispatchi na jinem vlakne) - mereni je nutne ukoncit zde, jinak by na vlakne zustalo viset
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (Boolean.TRUE.equals(request.getAttribute(OWNER_ATTRIBUTE))) {
+      QueryCounter.end();
+      request.setAttribute(OWNER_ATTRIBUTE, false);
+    }
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    if (!(request.getAttribute(COUNTS_ATTRIBUTE) instanceof QueryCounter.Counts counts)) {
+      return;
+    }
+    request.removeAttribute(COUNTS_ATTRIBUTE);
+    if (Boolean.TRUE.equals(request.getAttribute(OWNER_ATTRIBUTE))) {
+      QueryCounter.end();
+    }
+
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+
+    this.summary(STATEMENTS, "SQL statements prepared per request", "statements", request, uri)
+      .record(counts.getStatements());
+    this.summary(ENTITY_LOADS, "Entities loaded per request", "entities", request, uri)
+      .record(counts.getEntityLoads());
+    this.summary(COLLECTION_FETCHES, "Collections initialized per request", "collections", request, uri)
+      .record(counts.getCollectionFetches());
+  }
+
+  private DistributionSummary summary(String name, String description, String unit, HttpServletRequest request, String uri) {
+    return DistributionSummary.builder(name)
+      .description(description)
+      .baseUnit(unit)
+      .tag("method", request.getMethod())
+      .tag("uri", uri)
+      .register(meterRegistry);
+  }
+}
@@ -0,0 +1,46 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Locale;
+import java.util.Optional;
+
+// rozpad casu jednoho pozadavku pro hlavicku Server-Timing, ulozeny v atributu pozadavku;
+// plni ho OrchestratorMetrics (sluzby) a TimedJacksonHttpMessageConverter (serializace)
+public final class ServerTiming {
+  public static final String HEADER = "Server-Timing";
+  static final String ATTRIBUTE = ServerTiming.class.getName();
+
+  private long serviceNanos;
+  private long jsonNanos;
+
+  // jen na vlakne pozadavku se zapnutym ServerTimingFilter
+  static Optional<ServerTiming> current() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+    return attributes == null
+      ? Optional.empty()
+      : Optional.ofNullable((ServerTiming) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+  }
+
+  void addService(long nanos) {
+    serviceNanos += nanos;
+  }
+
+  void addJson(long nanos) {
+    jsonNanos += nanos;
+  }
+
+  // db - cas v JDBC, app - sluzby bez SQL (sestaveni DTO, logika), json - serializace odpovedi
+  String header(long totalNanos, QueryCounter.Counts counts) {
+    return String.format(Locale.ROOT,
+      "db;dur=%.1f;desc=\"%d statements, %d entities, %d collections\", app;dur=%.1f, json;dur=%.1f, total;dur=%.1f",
+      millis(counts.getJdbcNanos()), counts.getStatements(), counts.getEntityLoads(), counts.getCollectionFetches(),
+      millis(serviceNanos), millis(jsonNanos), millis(totalNanos));
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+}
@@ -0,0 +1,25 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+// Server-Timing je volitelny (deploydash.server-timing.enabled) - buferuje odpovedi API
+@Configuration
+@ConditionalOnProperty(prefix = "deploydash.server-timing", name = "enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+  @Bean
+  FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+    return new FilterRegistrationBean<>(new ServerTimingFilter());
+  }
+
+  // nahrazuje vychozi konvertor ze Spring Boot, ktery pri existujicim beanu ustoupi
+  @Bean
+  MappingJackson2HttpMessageConverter timedJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+    return new TimedJacksonHttpMessageConverter(objectMapper);
+  }
+}
@@ -0,0 +1,51 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Set;
+
+// hlavicka Server-Timing pro volani API (zobrazi ji devtools prohlizece); serializace JSON
+// konci az pri zapisu tela, odpoved se proto buferuje a hlavicka se doplni pred odeslanim;
+// streamovane odpovedi (SSE, export) se nemeri
+public class ServerTimingFilter extends OncePerRequestFilter {
+  private static final String API_PREFIX = "/api/";
+  private static final Set<String> STREAMING_PATHS = Set.of("/api/events", "/api/deployments/export");
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+
+    return !path.startsWith(API_PREFIX) || STREAMING_PATHS.contains(path);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+    throws ServletException, IOException {
+    long start = System.nanoTime();
+    boolean owner = !QueryCounter.isActive();
+    QueryCounter.Counts counts = owner ? QueryCounter.begin() : QueryCounter.current();
+    ServerTiming timing = new ServerTiming();
+    ContentCachingResponseWrapper bufferedResponse = new ContentCachingResponseWrapper(response);
+
+    request.setAttribute(ServerTiming.ATTRIBUTE, timing);
+    try {
+      filterChain.doFilter(request, bufferedResponse);
+    } finally {
+      if (owner) {
+        QueryCounter.end();
+      }
+      request.removeAttribute(ServerTiming.ATTRIBUTE);
+
+      if (!bufferedResponse.isCommitted()) {
+        bufferedResponse.setHeader(ServerTiming.HEADER, timing.header(System.nanoTime() - start, counts));
+      }
+      bufferedResponse.copyBodyToResponse();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// Jackson konvertor, ktery pricita cas serializace odpovedi do Server-Timing
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+  public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+    super(objectMapper);
+  }
+
+  @Override
+  protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+    throws IOException, HttpMessageNotWritableException {
+    long start = System.nanoTime();
+
+    try {
+      super.writeInternal(object, type, outputMessage);
+    } finally {
+      long elapsed = System.nanoTime() - start;
+      ServerTiming.current().ifPresent(timing -> timing.addJson(elapsed));
+    }
+  }
+}
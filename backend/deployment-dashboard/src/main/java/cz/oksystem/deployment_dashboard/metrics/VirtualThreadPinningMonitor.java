@@ -0,0 +1,102 @@
+package cz.oksystem.deployment_dashboard.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// pinning virtualnich vlaken na nosnem vlakne (synchronized v H2 a Hibernate, nativni volani) z JFR
+// udalosti jdk.VirtualThreadPinned - metrika deploydash.virtual-threads.pinned podle zdroje a varovani
+// se zasobnikem pro kazde nove misto; bezi jen v rezimu virtualnich vlaken (spring.threads.virtual.enabled)
+@Component
+@ConditionalOnProperty(prefix = "spring.threads.virtual", name = "enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  // prvni ramec z techto balicku urcuje zdroj pinningu
+  private static final List<Source> SOURCES = List.of(
+    new Source("org.h2.", "h2"),
+    new Source("org.hibernate.", "hibernate"),
+    new Source("com.zaxxer.hikari.", "hikari"),
+    new Source("cz.oksystem.", "application")
+  );
+  private static final int MAX_REPORTED_SITES = 100;
+  private static final int REPORTED_FRAMES = 12;
+
+  private final MeterRegistry meterRegistry;
+  private final RecordingStream recording;
+  // mista (zdroj + vrchni ramce), ktera uz byla zalogovana
+  private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+  public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                     @Value("${deploydash.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+    this.meterRegistry = meterRegistry;
+
+    this.recording = new RecordingStream();
+    this.recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    this.recording.onEvent(PINNED_EVENT, this::onPinned);
+    this.recording.startAsync();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    recording.close();
+  }
+
+  private void onPinned(RecordedEvent event) {
+    RecordedStackTrace stackTrace = event.getStackTrace();
+    List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+    String source = source(frames);
+
+    Timer.builder("deploydash.virtual-threads.pinned")
+      .description("Time a virtual thread kept its carrier thread blocked")
+      .tag("source", source)
+      .register(meterRegistry)
+      .record(event.getDuration());
+
+    String site = source + "|" + frames.stream().limit(REPORTED_FRAMES).map(VirtualThreadPinningMonitor::frame).toList();
+    if (reportedSites.size() < MAX_REPORTED_SITES && reportedSites.add(site)) {
+      StringBuilder message = new StringBuilder(String.format(
+        "Virtuální vlákno '%s' blokovalo nosné vlákno %d ms (zdroj %s):",
+        event.getThread() == null ? "?" : event.getThread().getJavaName(), event.getDuration().toMillis(), source));
+      frames.stream().limit(REPORTED_FRAMES).forEach(frame -> message.append("\n\tat ").append(frame(frame)));
+
+      log.warn(message.toString());
+    }
+  }
+
+  private static String source(List<RecordedFrame> frames) {
+    for (RecordedFrame frame : frames) {
+      if (!frame.isJavaFrame()) {
+        continue;
+      }
+      String className = frame.getMethod().getType().getName();
+      for (Source source : SOURCES) {
+        if (className.startsWith(source.packagePrefix())) {
+          return source.tag();
+        }
+      }
+    }
+    return "other";
+  }
+
+  private static String frame(RecordedFrame frame) {
+    return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+  }
+
+  private record Source(String packagePrefix, String tag) {}
+}
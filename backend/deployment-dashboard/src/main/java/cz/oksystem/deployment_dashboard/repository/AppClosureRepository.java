@@ -0,0 +1,96 @@
+package cz.oksystem.deployment_dashboard.repository;
+
+import cz.oksystem.deployment_dashboard.entity.App;
+import cz.oksystem.deployment_dashboard.entity.AppClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AppClosureRepository extends JpaRepository<AppClosure, AppClosure.Key> {
+
+  // nova aplikace: sama se sebou a pod vsemi predky rodice
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "INSERT INTO app_closure (ancestor_id, descendant_id, depth) " +
+    "VALUES (:appId, :appId, 0)")
+  void insertSelf(@Param("appId") Long appId);
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "INSERT INTO app_closure (ancestor_id, descendant_id, depth) " +
+    "SELECT p.ancestor_id, s.descendant_id, p.depth + s.depth + 1 " +
+    "FROM app_closure p " +
+    "CROSS JOIN app_closure s " +
+    "WHERE p.descendant_id = :parentId " +
+    "AND s.ancestor_id = :appId")
+  void linkSubtree(@Param("appId") Long appId, @Param("parentId") Long parentId);
+
+  // odpoji podstrom aplikace od vsech jejich dosavadnich predku, vazby uvnitr podstromu zustavaji
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "DELETE FROM app_closure " +
+    "WHERE descendant_id IN (SELECT s.descendant_id FROM app_closure s WHERE s.ancestor_id = :appId) " +
+    "AND ancestor_id NOT IN (SELECT s.descendant_id FROM app_closure s WHERE s.ancestor_id = :appId)")
+  void unlinkSubtree(@Param("appId") Long appId);
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "DELETE FROM app_closure " +
+    "WHERE descendant_id IN (SELECT s.descendant_id FROM app_closure s WHERE s.ancestor_id = :appId)")
+  void deleteSubtree(@Param("appId") Long appId);
+
+  // korenovy projekt pro aplikace, verze a nasazeni celeho podstromu (po presunu aplikace)
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "UPDATE apps SET root_project_id = :rootProjectId " +
+    "WHERE app_id IN (SELECT c.descendant_id FROM app_closure c WHERE c.ancestor_id = :appId)")
+  void updateAppRootProjectIds(@Param("appId") Long appId, @Param("rootProjectId") Long rootProjectId);
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "UPDATE versions SET root_project_id = :rootProjectId " +
+    "WHERE app_id IN (SELECT c.descendant_id FROM app_closure c WHERE c.ancestor_id = :appId)")
+  void updateVersionRootProjectIds(@Param("appId") Long appId, @Param("rootProjectId") Long rootProjectId);
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "UPDATE deployments SET root_project_id = :rootProjectId " +
+    "WHERE version_id IN (" +
+    "  SELECT v.version_id FROM versions v " +
+    "  JOIN app_closure c ON c.descendant_id = v.app_id " +
+    "  WHERE c.ancestor_id = :appId" +
+    ")")
+  void updateDeploymentRootProjectIds(@Param("appId") Long appId, @Param("rootProjectId") Long rootProjectId);
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value = "DELETE FROM app_closure")
+  void deleteAllRows();
+
+  // uzaver z vazeb parent_id, shodne s changesetem 6 (hierarchie je validovana, bez cyklu)
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "WITH RECURSIVE closure(ancestor_id, descendant_id, depth) AS (" +
+    "  SELECT a.app_id, a.app_id, 0 FROM apps a " +
+    "  UNION ALL " +
+    "  SELECT c.ancestor_id, a.app_id, c.depth + 1 " +
+    "  FROM closure c " +
+    "  JOIN apps a ON a.parent_id = c.descendant_id" +
+    ") " +
+    "INSERT INTO app_closure (ancestor_id, descendant_id, depth) " +
+    "SELECT ancestor_id, descendant_id, depth FROM closure")
+  void insertFromParents();
+
+  boolean existsByIdAncestorIdAndIdDescendantId(Long ancestorId, Long descendantId);
+
+  // korenovy projekt je nejvzdalenejsi predek
+  @Query("SELECT a FROM AppClosure c " +
+    "JOIN App a ON a.id = c.id.ancestorId " +
+    "WHERE c.id.descendantId = :appId " +
+    "ORDER BY c.depth DESC LIMIT 1")
+  Optional<App> findRootProject(@Param("appId") Long appId);
+}
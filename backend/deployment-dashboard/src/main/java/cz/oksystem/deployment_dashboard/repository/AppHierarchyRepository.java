@@ -0,0 +1,15 @@
+package cz.oksystem.deployment_dashboard.repository;
+
+import cz.oksystem.deployment_dashboard.repository.projections.AppNode;
+
+import java.util.List;
+
+// nacitani hierarchie aplikaci jednim dotazem nad uzaverovou tabulkou app_closure misto prochazeni lazy vazeb
+public interface AppHierarchyRepository {
+
+  // aplikace a vsechny jeji (i neprime) komponenty, aplikace je prvni
+  List<AppNode> findSubtreeNodes(Long appId);
+
+  // cely strom, do ktereho aplikace patri (od korenoveho projektu), koren je prvni
+  List<AppNode> findTreeNodes(Long appId);
+}
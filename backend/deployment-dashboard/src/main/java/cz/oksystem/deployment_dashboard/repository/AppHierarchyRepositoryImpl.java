@@ -0,0 +1,57 @@
+package cz.oksystem.deployment_dashboard.repository;
+
+import cz.oksystem.deployment_dashboard.repository.projections.AppNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class AppHierarchyRepositoryImpl implements AppHierarchyRepository {
+
+  private static final String SELECT_SUBTREE =
+    "SELECT a.app_id, a.parent_id, a.app_key, a.name " +
+    "FROM app_closure c " +
+    "JOIN apps a ON a.app_id = c.descendant_id " +
+    "WHERE c.ancestor_id = %s " +
+    "ORDER BY c.depth, a.app_id";
+
+  // korenovy projekt je nejvzdalenejsi predek
+  private static final String ROOT_PROJECT_ID =
+    "(SELECT r.ancestor_id FROM app_closure r " +
+    "WHERE r.descendant_id = :appId " +
+    "ORDER BY r.depth DESC LIMIT 1)";
+
+  @PersistenceContext
+  private EntityManager em;
+
+  @Override
+  public List<AppNode> findSubtreeNodes(Long appId) {
+    return this.toNodes(em.createNativeQuery(String.format(SELECT_SUBTREE, ":appId"))
+      .setParameter("appId", appId)
+      .getResultList());
+  }
+
+  @Override
+  public List<AppNode> findTreeNodes(Long appId) {
+    return this.toNodes(em.createNativeQuery(String.format(SELECT_SUBTREE, ROOT_PROJECT_ID))
+      .setParameter("appId", appId)
+      .getResultList());
+  }
+
+  private List<AppNode> toNodes(List<?> rows) {
+    List<AppNode> nodes = new ArrayList<>(rows.size());
+
+    for (Object row : rows) {
+      Object[] columns = (Object[]) row;
+
+      nodes.add(new AppNode(
+        ((Number) columns[0]).longValue(),
+        columns[1] == null ? null : ((Number) columns[1]).longValue(),
+        (String) columns[2],
+        (String) columns[3]
+      ));
+    }
+    return nodes;
+  }
+}
@@ -1,6 +1,7 @@
 package cz.oksystem.deployment_dashboard.repository;
 
 import cz.oksystem.deployment_dashboard.entity.App;
+import cz.oksystem.deployment_dashboard.repository.projections.AppNode;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -9,7 +10,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AppRepository extends JpaRepository<App, Long> {
+public interface AppRepository extends JpaRepository<App, Long>, AppHierarchyRepository {
   boolean existsByKey(String key);
   Optional<App> findByKey(String key);
   Optional<App> findByKeyAndArchivedTimestampIsNull(String key);
@@ -17,4 +18,10 @@ public interface AppRepository extends JpaRepository<App, Long> {
   @Query("SELECT a FROM App a " +
     "WHERE a.parent IS NULL")
   List<App> getAllWhereParentIsNull();
+
+  // cela hierarchie aplikaci jednim dotazem, bez nacitani entit
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.AppNode(a.id, p.id, a.key, a.name) " +
+    "FROM App a " +
+    "LEFT JOIN a.parent p")
+  List<AppNode> getAllAppNodes();
 }
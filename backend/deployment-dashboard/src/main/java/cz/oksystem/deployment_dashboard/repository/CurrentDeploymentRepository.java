@@ -0,0 +1,90 @@
+package cz.oksystem.deployment_dashboard.repository;
+
+import cz.oksystem.deployment_dashboard.entity.CurrentDeployment;
+import cz.oksystem.deployment_dashboard.repository.projections.CurrentVersionRow;
+import cz.oksystem.deployment_dashboard.repository.projections.LastDeploymentRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CurrentDeploymentRepository extends JpaRepository<CurrentDeployment, CurrentDeployment.Key> {
+  // posledni nasazeni pro kazdou dvojici (aplikace, prostredi), shodne s changesetem 5
+  String RANKED_DEPLOYMENTS =
+    "SELECT ranked.app_id, ranked.env_id, ranked.deployment_id " +
+    "FROM (" +
+    "  SELECT v.app_id, d.env_id, d.deployment_id, " +
+    "         ROW_NUMBER() OVER (PARTITION BY v.app_id, d.env_id ORDER BY d.date DESC NULLS LAST, d.deployment_id DESC) AS rn " +
+    "  FROM deployments d " +
+    "  JOIN versions v ON v.version_id = d.version_id ";
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "MERGE INTO current_deployments (app_id, env_id, deployment_id) " +
+    "KEY (app_id, env_id) " +
+    "VALUES (:appId, :envId, :deploymentId)")
+  void upsert(@Param("appId") Long appId,
+              @Param("envId") Long envId,
+              @Param("deploymentId") Long deploymentId);
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "DELETE FROM current_deployments " +
+    "WHERE app_id = :appId")
+  void deleteByAppId(@Param("appId") Long appId);
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "INSERT INTO current_deployments (app_id, env_id, deployment_id) " +
+    RANKED_DEPLOYMENTS +
+    "  WHERE v.app_id = :appId" +
+    ") ranked " +
+    "WHERE ranked.rn = 1")
+  void insertFromHistoryForApp(@Param("appId") Long appId);
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value = "DELETE FROM current_deployments")
+  void deleteAllRows();
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "INSERT INTO current_deployments (app_id, env_id, deployment_id) " +
+    RANKED_DEPLOYMENTS +
+    ") ranked " +
+    "WHERE ranked.rn = 1")
+  void insertFromHistory();
+
+  // projekce misto entit - spravovane (@Immutable) CurrentDeployment by po MERGE ve stejne
+  // transakci (davka releasu z fronty) vracely puvodni nasazeni
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.CurrentVersionRow(" +
+    "cd.id.appId, d.id, d.version.id, d.date) " +
+    "FROM CurrentDeployment cd " +
+    "JOIN cd.deployment d " +
+    "WHERE cd.id.appId IN :appIds")
+  List<CurrentVersionRow> findCurrentVersionRowsByAppIds(@Param("appIds") Collection<Long> appIds);
+
+  // aktualni nasazeni vsech aplikaci na vsech prostredich
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.LastDeploymentRow(" +
+    "cd.id.appId, d.rootProjectId, d.id, d.date, v.name, e.name, d.jiraUrl, d.ticket.id) " +
+    "FROM CurrentDeployment cd " +
+    "JOIN cd.deployment d " +
+    "JOIN d.version v " +
+    "JOIN d.environment e")
+  List<LastDeploymentRow> getCurrentDeploymentRows();
+
+  // aktualni nasazeni vsech aplikaci projektu pres denormalizovany korenovy projekt
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.LastDeploymentRow(" +
+    "cd.id.appId, d.rootProjectId, d.id, d.date, v.name, e.name, d.jiraUrl, d.ticket.id) " +
+    "FROM App a " +
+    "JOIN CurrentDeployment cd ON cd.id.appId = a.id " +
+    "JOIN cd.deployment d " +
+    "JOIN d.version v " +
+    "JOIN d.environment e " +
+    "WHERE a.rootProjectId IN :projectIds")
+  List<LastDeploymentRow> getCurrentDeploymentRowsByProjectIds(@Param("projectIds") Collection<Long> projectIds);
+}
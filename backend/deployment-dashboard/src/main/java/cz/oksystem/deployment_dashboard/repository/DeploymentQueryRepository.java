@@ -0,0 +1,23 @@
+package cz.oksystem.deployment_dashboard.repository;
+
+import cz.oksystem.deployment_dashboard.dto.DeploymentFilterDto;
+import cz.oksystem.deployment_dashboard.repository.projections.DeploymentRow;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// dotazy nad historii nasazeni s dynamickymi filtry
+public interface DeploymentQueryRepository {
+
+  // keyset strankovani - radky serazene od nejnovejsiho (date DESC NULLS LAST, id DESC),
+  // zacina za nasazenim (afterDate, afterId), pokud je zadano afterId; afterDate je null u nasazeni bez data
+  List<DeploymentRow> findDeploymentPage(DeploymentFilterDto filter,
+                                         @Nullable LocalDateTime afterDate,
+                                         @Nullable Long afterId,
+                                         int limit);
+
+  // cela (filtrovana) historie jako kurzor nad JDBC result setem, musi byt uzavren v ramci transakce
+  Stream<DeploymentRow> streamDeployments(DeploymentFilterDto filter, int fetchSize);
+}
@@ -0,0 +1,110 @@
+package cz.oksystem.deployment_dashboard.repository;
+
+import cz.oksystem.deployment_dashboard.dto.DeploymentFilterDto;
+import cz.oksystem.deployment_dashboard.entity.JiraTicket;
+import cz.oksystem.deployment_dashboard.repository.projections.DeploymentRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class DeploymentQueryRepositoryImpl implements DeploymentQueryRepository {
+
+  private static final String DEPLOYMENT_ROW_SELECT =
+    "SELECT new cz.oksystem.deployment_dashboard.repository.projections.DeploymentRow(" +
+      "d.id, d.date, a.key, a.name, e.name, v.name, v.description, d.jiraUrl) " +
+      "FROM Deployment d " +
+      "JOIN d.version v " +
+      "JOIN v.app a " +
+      "JOIN d.environment e ";
+
+  @PersistenceContext
+  private EntityManager em;
+
+  @Override
+  public List<DeploymentRow> findDeploymentPage(DeploymentFilterDto filter,
+                                                @Nullable LocalDateTime afterDate,
+                                                @Nullable Long afterId,
+                                                int limit) {
+    return this.createFilteredQuery(filter, afterDate, afterId)
+      .setMaxResults(limit)
+      .getResultList();
+  }
+
+  @Override
+  public Stream<DeploymentRow> streamDeployments(DeploymentFilterDto filter, int fetchSize) {
+    return this.createFilteredQuery(filter, null, null)
+      .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+      .getResultStream();
+  }
+
+  private TypedQuery<DeploymentRow> createFilteredQuery(DeploymentFilterDto filter,
+                                                        @Nullable LocalDateTime afterDate,
+                                                        @Nullable Long afterId) {
+    // do dotazu davame jen pouzite filtry, at DB nemusi vyhodnocovat ":param IS NULL"
+    StringBuilder jpql = new StringBuilder(DEPLOYMENT_ROW_SELECT);
+    List<String> conditions = new ArrayList<>();
+    Map<String, Object> parameters = new HashMap<>();
+
+    filter.getAppKey().ifPresent(appKey -> {
+      conditions.add("a.key = :appKey");
+      parameters.put("appKey", appKey);
+    });
+    // denormalizovany korenovy projekt, bez spojeni pres prostredi (index root_project_id, env_id, date);
+    // plati aktualni projekt aplikace - po preveseni komponenty pod jiny projekt patri i jeji starsi
+    // nasazeni (na prostredich puvodniho projektu) pod novy projekt, stejne jako v prehledu a detailu
+    filter.getProjectKey().ifPresent(projectKey -> {
+      conditions.add("d.rootProjectId = (SELECT p.id FROM App p WHERE p.key = :projectKey)");
+      parameters.put("projectKey", projectKey);
+    });
+    filter.getEnvName().ifPresent(envName -> {
+      conditions.add("e.name = :envName");
+      parameters.put("envName", envName);
+    });
+    // ticket pres unikatni index jira_tickets a index ticket_id na nasazenich
+    filter.getTicket().map(JiraTicket.Key::of).ifPresent(ticket -> {
+      conditions.add("d.ticket.id = (SELECT t.id FROM JiraTicket t WHERE t.key = :ticketKey AND t.protocol = :ticketProtocol)");
+      parameters.put("ticketKey", ticket.key());
+      parameters.put("ticketProtocol", ticket.protocol());
+    });
+    // nasazeni bez data do zadneho obdobi nepatri
+    filter.getFrom().ifPresent(from -> {
+      conditions.add("d.date >= :dateFrom");
+      parameters.put("dateFrom", from);
+    });
+    filter.getTo().ifPresent(to -> {
+      conditions.add("d.date < :dateTo");
+      parameters.put("dateTo", to);
+    });
+
+    // nasazeni bez data (starsi data, import) jsou az za vsemi datovanymi - NULLS LAST;
+    // kurzor z nasazeni bez data pokracuje uz jen mezi nimi
+    if (afterId != null) {
+      if (afterDate != null) {
+        conditions.add("(d.date < :afterDate OR (d.date = :afterDate AND d.id < :afterId) OR d.date IS NULL)");
+        parameters.put("afterDate", afterDate);
+      } else {
+        conditions.add("d.date IS NULL AND d.id < :afterId");
+      }
+      parameters.put("afterId", afterId);
+    }
+
+    if (!conditions.isEmpty()) {
+      jpql.append("WHERE ").append(String.join(" AND ", conditions)).append(' ');
+    }
+    jpql.append("ORDER BY d.date DESC NULLS LAST, d.id DESC");
+
+    TypedQuery<DeploymentRow> query = em.createQuery(jpql.toString(), DeploymentRow.class);
+    parameters.forEach(query::setParameter);
+
+    return query;
+  }
+}
@@ -1,16 +1,21 @@
 package cz.oksystem.deployment_dashboard.repository;
 
 import cz.oksystem.deployment_dashboard.entity.Deployment;
+import cz.oksystem.deployment_dashboard.repository.projections.DeploymentCellRow;
+import cz.oksystem.deployment_dashboard.repository.projections.DeploymentKeyRow;
+import cz.oksystem.deployment_dashboard.repository.projections.DeploymentRow;
+import cz.oksystem.deployment_dashboard.repository.projections.TicketComponentRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DeploymentRepository extends JpaRepository<Deployment, Long> {
+public interface DeploymentRepository extends JpaRepository<Deployment, Long>, DeploymentQueryRepository {
   // prostředí patří pod projekt, musíme proto hledat appku přes verze
   @Query("SELECT d FROM Deployment d " +
     "WHERE d.version.app.key = :appKey " +
@@ -20,12 +25,44 @@ public interface DeploymentRepository extends JpaRepository<Deployment, Long> {
                                                          @Param("environment") String environmentName,
                                                          @Param("version") String versionName);
 
+  // dvojice (prostredi, verze) existujicich nasazeni zadanych verzi
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.DeploymentKeyRow(d.environment.id, d.version.id) " +
+    "FROM Deployment d " +
+    "WHERE d.version.id IN :versionIds")
+  List<DeploymentKeyRow> findDeploymentKeysByVersionIds(@Param("versionIds") Collection<Long> versionIds);
+
+  // existujici nasazeni vice verzi na jedno prostredi
   @Query("SELECT d FROM Deployment d " +
-    "WHERE d.version.app.key = :appKey " +
-    "ORDER BY d.date DESC LIMIT 1")
-  Optional<Deployment> getLastDeploymentForApp(@Param("appKey") String appKey);
+    "JOIN FETCH d.version " +
+    "WHERE d.environment.id = :envId " +
+    "AND d.version.id IN :versionIds")
+  List<Deployment> findByEnvironmentAndVersionIds(@Param("envId") Long envId,
+                                                  @Param("versionIds") Collection<Long> versionIds);
 
   @Query("SELECT d FROM Deployment d " +
-    "WHERE d.jiraUrl = :jiraUrl")
-  List<Deployment> findByJiraUrl(Optional<String> jiraUrl);
+    "WHERE d.ticket.id = :ticketId")
+  List<Deployment> findByTicketId(@Param("ticketId") Long ticketId);
+
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.TicketComponentRow(d.ticket.id, a.key) " +
+    "FROM Deployment d " +
+    "JOIN d.version v " +
+    "JOIN v.app a " +
+    "WHERE d.ticket.id IN :ticketIds")
+  List<TicketComponentRow> findAppKeysByTicketIds(@Param("ticketIds") Collection<Long> ticketIds);
+
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.DeploymentCellRow(v.id, e.name, d.date, d.jiraUrl) " +
+    "FROM Deployment d " +
+    "JOIN d.version v " +
+    "JOIN d.environment e " +
+    "WHERE v.app.id IN :appIds")
+  List<DeploymentCellRow> findDeploymentCellsByAppIds(@Param("appIds") Collection<Long> appIds);
+
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.DeploymentRow(" +
+    "d.id, d.date, a.key, a.name, e.name, v.name, v.description, d.jiraUrl) " +
+    "FROM Deployment d " +
+    "JOIN d.version v " +
+    "JOIN v.app a " +
+    "JOIN d.environment e " +
+    "ORDER BY d.id DESC")
+  List<DeploymentRow> findAllDeploymentRows();
 }
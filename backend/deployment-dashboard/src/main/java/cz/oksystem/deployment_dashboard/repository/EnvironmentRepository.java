@@ -1,11 +1,15 @@
 package cz.oksystem.deployment_dashboard.repository;
 
 import cz.oksystem.deployment_dashboard.entity.Environment;
+import cz.oksystem.deployment_dashboard.repository.projections.EnvironmentKeyRow;
+import cz.oksystem.deployment_dashboard.repository.projections.EnvironmentRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -21,4 +25,14 @@ public interface EnvironmentRepository extends JpaRepository<Environment, Long>
          "AND e.app.key = :appKey ")
   Optional<Environment> findByAppKeyAndName(@Param("appKey") String appKey,
                                             @Param("name") String envName);
+
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.EnvironmentRow(e.app.id, e.name) " +
+         "FROM Environment e " +
+         "WHERE e.app.id IN :appIds " +
+         "ORDER BY e.id")
+  List<EnvironmentRow> findEnvironmentRowsByAppIds(@Param("appIds") Collection<Long> appIds);
+
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.EnvironmentKeyRow(e.id, e.app.id, e.name) " +
+         "FROM Environment e")
+  List<EnvironmentKeyRow> findAllEnvironmentKeyRows();
 }
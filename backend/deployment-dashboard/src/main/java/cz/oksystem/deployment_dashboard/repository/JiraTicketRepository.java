@@ -0,0 +1,18 @@
+package cz.oksystem.deployment_dashboard.repository;
+
+import cz.oksystem.deployment_dashboard.entity.JiraTicket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JiraTicketRepository extends JpaRepository<JiraTicket, Long> {
+  // kandidati podle klicu ticketu (unikatni index ticket_key, protocol), protokol porovna volajici
+  @Query("SELECT t FROM JiraTicket t " +
+         "WHERE t.key IN :keys")
+  List<JiraTicket> findAllByKeys(@Param("keys") Collection<String> keys);
+}
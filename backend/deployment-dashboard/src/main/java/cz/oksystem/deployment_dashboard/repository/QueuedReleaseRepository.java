@@ -0,0 +1,29 @@
+package cz.oksystem.deployment_dashboard.repository;
+
+import cz.oksystem.deployment_dashboard.entity.QueuedRelease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface QueuedReleaseRepository extends JpaRepository<QueuedRelease, Long> {
+  Optional<QueuedRelease> findByTrackingId(String trackingId);
+
+  // nezpracovane pozadavky v poradi prijeti (obnova fronty po restartu)
+  @Query("SELECT r.id FROM QueuedRelease r " +
+         "WHERE r.status = cz.oksystem.deployment_dashboard.entity.QueuedRelease.Status.QUEUED " +
+         "ORDER BY r.id")
+  List<Long> findQueuedIds();
+
+  @Modifying
+  @Query("DELETE FROM QueuedRelease r " +
+         "WHERE r.status <> cz.oksystem.deployment_dashboard.entity.QueuedRelease.Status.QUEUED " +
+         "AND r.processedAt < :before")
+  int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
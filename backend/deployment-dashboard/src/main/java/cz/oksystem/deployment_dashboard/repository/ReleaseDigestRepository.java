@@ -0,0 +1,43 @@
+package cz.oksystem.deployment_dashboard.repository;
+
+import cz.oksystem.deployment_dashboard.entity.ReleaseDigest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReleaseDigestRepository extends JpaRepository<ReleaseDigest, String> {
+  @Query("SELECT COUNT(r) > 0 FROM ReleaseDigest r " +
+         "WHERE r.releaseKey = :releaseKey " +
+         "AND r.digest = :digest " +
+         "AND r.createdAt > :after")
+  boolean existsSince(@Param("releaseKey") String releaseKey,
+                      @Param("digest") String digest,
+                      @Param("after") LocalDateTime after);
+
+  @Modifying(flushAutomatically = true)
+  @Query(nativeQuery = true, value =
+    "MERGE INTO release_digests (release_key, digest, project_key, created_at) " +
+    "KEY (release_key) " +
+    "VALUES (:releaseKey, :digest, :projectKey, :createdAt)")
+  void upsert(@Param("releaseKey") String releaseKey,
+              @Param("digest") String digest,
+              @Param("projectKey") String projectKey,
+              @Param("createdAt") LocalDateTime createdAt);
+
+  @Modifying
+  @Query(nativeQuery = true, value =
+    "DELETE FROM release_digests " +
+    "WHERE created_at < :before")
+  int deleteCreatedBefore(@Param("before") LocalDateTime before);
+
+  @Modifying
+  @Query(nativeQuery = true, value =
+    "DELETE FROM release_digests " +
+    "WHERE LOWER(project_key) = LOWER(:projectKey)")
+  int deleteByProjectKey(@Param("projectKey") String projectKey);
+}
@@ -1,11 +1,14 @@
 package cz.oksystem.deployment_dashboard.repository;
 
 import cz.oksystem.deployment_dashboard.entity.Version;
+import cz.oksystem.deployment_dashboard.repository.projections.VersionRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -22,5 +25,18 @@ public interface VersionRepository extends JpaRepository<Version, Long> {
     "AND v.app.key = :appKey ")
   Optional<Version> findByAppAndName(@Param("appKey") String app,
                                      @Param("name") String versionName);
+
+  // kandidati pro vice dvojic (aplikace, verze) najednou, presne dvojice se dofiltruji v pameti
+  @Query("SELECT v FROM Version v " +
+    "WHERE v.app.id IN :appIds " +
+    "AND v.name IN :names")
+  List<Version> findByAppIdsAndNames(@Param("appIds") Collection<Long> appIds,
+                                     @Param("names") Collection<String> versionNames);
+
+  @Query("SELECT new cz.oksystem.deployment_dashboard.repository.projections.VersionRow(v.id, v.app.id, v.name, v.description) " +
+    "FROM Version v " +
+    "WHERE v.app.id IN :appIds " +
+    "ORDER BY v.id")
+  List<VersionRow> findVersionRowsByAppIds(@Param("appIds") Collection<Long> appIds);
 }
 
@@ -0,0 +1,11 @@
+package cz.oksystem.deployment_dashboard.repository.projections;
+
+import org.springframework.lang.Nullable;
+
+// odlehceny uzel hierarchie aplikaci bez lazy vazeb
+public record AppNode(Long id, @Nullable Long parentId, String key, String name) {
+
+  public boolean isProject() {
+    return this.parentId == null;
+  }
+}
@@ -0,0 +1,12 @@
+package cz.oksystem.deployment_dashboard.repository.projections;
+
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+
+// aktualni nasazeni aplikace na prostredi pro kontrolu rollbacku
+public record CurrentVersionRow(Long appId,
+                                Long deploymentId,
+                                Long versionId,
+                                @Nullable LocalDateTime date) {
+}
@@ -0,0 +1,9 @@
+package cz.oksystem.deployment_dashboard.repository.projections;
+
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+
+// jedna bunka matice verze x prostredi v detailu projektu
+public record DeploymentCellRow(Long versionId, String environmentName, @Nullable LocalDateTime date, @Nullable String jiraUrl) {
+}
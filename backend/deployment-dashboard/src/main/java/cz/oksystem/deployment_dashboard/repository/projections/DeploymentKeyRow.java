@@ -0,0 +1,4 @@
+package cz.oksystem.deployment_dashboard.repository.projections;
+
+public record DeploymentKeyRow(Long envId, Long versionId) {
+}
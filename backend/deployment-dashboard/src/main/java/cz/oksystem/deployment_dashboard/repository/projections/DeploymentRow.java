@@ -0,0 +1,16 @@
+package cz.oksystem.deployment_dashboard.repository.projections;
+
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+
+// radek historie nasazeni bez nutnosti dotahovat lazy vazby
+public record DeploymentRow(Long id,
+                            @Nullable LocalDateTime date,
+                            String appKey,
+                            String appName,
+                            String environmentName,
+                            String versionName,
+                            @Nullable String versionDescription,
+                            @Nullable String jiraUrl) {
+}
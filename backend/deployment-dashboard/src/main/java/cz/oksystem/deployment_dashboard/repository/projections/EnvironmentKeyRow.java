@@ -0,0 +1,4 @@
+package cz.oksystem.deployment_dashboard.repository.projections;
+
+public record EnvironmentKeyRow(Long id, Long appId, String name) {
+}
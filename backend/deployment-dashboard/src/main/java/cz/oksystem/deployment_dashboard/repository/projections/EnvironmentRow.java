@@ -0,0 +1,4 @@
+package cz.oksystem.deployment_dashboard.repository.projections;
+
+public record EnvironmentRow(Long appId, String name) {
+}
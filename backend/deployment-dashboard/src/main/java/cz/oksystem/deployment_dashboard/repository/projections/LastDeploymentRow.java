@@ -0,0 +1,16 @@
+package cz.oksystem.deployment_dashboard.repository.projections;
+
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+
+// posledni nasazeni aplikace, nactene jednim dotazem pro vsechny aplikace
+public record LastDeploymentRow(Long appId,
+                                @Nullable Long projectId,
+                                Long deploymentId,
+                                @Nullable LocalDateTime date,
+                                String versionName,
+                                String environmentName,
+                                @Nullable String jiraUrl,
+                                @Nullable Long ticketId) {
+}
@@ -0,0 +1,5 @@
+package cz.oksystem.deployment_dashboard.repository.projections;
+
+// dvojice jira ticket -> klic nasazene aplikace
+public record TicketComponentRow(Long ticketId, String appKey) {
+}
@@ -0,0 +1,6 @@
+package cz.oksystem.deployment_dashboard.repository.projections;
+
+import org.springframework.lang.Nullable;
+
+public record VersionRow(Long id, Long appId, String name, @Nullable String description) {
+}
@@ -0,0 +1,97 @@
+package cz.oksystem.deployment_dashboard.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// preklad vlastnich protokolu (ok-jira://ABC-123) na odkazy podle spring.application.custom-protocols;
+// predpony se sestavi jednou pri nacteni konfigurace, prelozene odkazy se cachuji podle hodnoty
+// (jeden ticket sdili mnoho nasazeni), serializace tak pri opakovanem ticketu nealokuje
+@Component
+@ConfigurationProperties(prefix = "spring.application")
+public class CustomProtocolResolver {
+  private static final String SEPARATOR = "://";
+
+  private final int maxCached;
+  private final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+  private Map<String, String> customProtocols = Map.of();
+  private volatile Prefix[] prefixes = new Prefix[0];
+
+  public CustomProtocolResolver(@Value("${deploydash.custom-protocols.max-cached:10000}") int maxCached) {
+    this.maxCached = maxCached;
+  }
+
+  public Map<String, String> getCustomProtocols() {
+    return customProtocols;
+  }
+
+  public void setCustomProtocols(Map<String, String> customProtocols) {
+    this.customProtocols = Map.copyOf(customProtocols);
+    this.prefixes = customProtocols.entrySet().stream()
+      .map(protocol -> new Prefix(protocol.getKey() + SEPARATOR, protocol.getValue()))
+      .toArray(Prefix[]::new);
+    this.resolved.clear();
+  }
+
+  // hodnota bez znameho protokolu (i prazdna) se vraci beze zmeny
+  public String resolve(String value) {
+    Prefix prefix = this.match(value);
+
+    if (prefix == null) {
+      return value;
+    }
+    String url = resolved.get(value);
+
+    if (url == null) {
+      url = new StringBuilder(prefix.replacement().length() + value.length() - prefix.value().length())
+        .append(prefix.replacement())
+        .append(value, prefix.value().length(), value.length())
+        .toString();
+
+      // zaplnena cache se zahodi cela, tickety starych nasazeni se uz vetsinou nectou
+      if (resolved.size() >= maxCached) {
+        resolved.clear();
+      }
+      resolved.put(value, url);
+    }
+    return url;
+  }
+
+  // opak resolve - odkaz s predponou nektereho protokolu (napr. z exportu) vrati na puvodni hodnotu,
+  // pri prekryvu predpon vyhrava nejdelsi; ostatni hodnoty se vraci beze zmeny
+  public String unresolve(String url) {
+    Prefix matched = null;
+
+    for (Prefix prefix : prefixes) {
+      if (url.startsWith(prefix.replacement())
+        && (matched == null || prefix.replacement().length() > matched.replacement().length())) {
+        matched = prefix;
+      }
+    }
+    if (matched == null) {
+      return url;
+    }
+    return matched.value() + url.substring(matched.replacement().length());
+  }
+
+  public void write(String value, JsonGenerator jsonGenerator) throws IOException {
+    jsonGenerator.writeString(this.resolve(value));
+  }
+
+  private Prefix match(String value) {
+    for (Prefix prefix : prefixes) {
+      if (value.startsWith(prefix.value())) {
+        return prefix;
+      }
+    }
+    return null;
+  }
+
+  private record Prefix(String value, String replacement) {}
+}
@@ -3,41 +3,56 @@ package cz.oksystem.deployment_dashboard.serializers;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.stereotype.Component;
+import org.springframework.data.util.Pair;
 
 import java.io.IOException;
-import java.util.Map;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
-@Component
-@ConfigurationProperties(prefix = "spring.application")
+// odkazy s vlastnim protokolem se prekladaji az pri zapisu JSON (CustomProtocolResolver),
+// entity i DTO drzi puvodni hodnotu; instance vytvari Jackson pres Spring (SpringHandlerInstantiator)
 public class CustomProtocolsSerializer extends JsonSerializer<Optional<String>> {
-  private Map<String, String> customProtocols;
+  private final CustomProtocolResolver protocolResolver;
 
-
-  public Map<String, String> getCustomProtocols() {
-    return customProtocols;
-  }
-
-  public void setCustomProtocols(Map<String, String> customProtocols) {
-    this.customProtocols = customProtocols;
+  public CustomProtocolsSerializer(CustomProtocolResolver protocolResolver) {
+    this.protocolResolver = protocolResolver;
   }
 
   @Override
   public void serialize(Optional<String> s, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
     if (s.isPresent()) {
-      String str = s.get();
+      protocolResolver.write(s.get(), jsonGenerator);
+    }
+  }
+
+  public static class OfString extends JsonSerializer<String> {
+    private final CustomProtocolResolver protocolResolver;
 
-      int protocolEndIndex = str.indexOf("://");
+    public OfString(CustomProtocolResolver protocolResolver) {
+      this.protocolResolver = protocolResolver;
+    }
+
+    @Override
+    public void serialize(String s, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+      protocolResolver.write(s, jsonGenerator);
+    }
+  }
+
+  // dvojice (datum nasazeni, odkaz) v detailu verze, tvar jako vychozi serializace Pair
+  public static class DateAndUrl extends JsonSerializer<Pair<LocalDateTime, String>> {
+    private final CustomProtocolResolver protocolResolver;
 
-      if (protocolEndIndex != -1) {
-        String protocolName = str.substring(0, str.indexOf("://"));
-        String replacement = customProtocols.get(protocolName);
+    public DateAndUrl(CustomProtocolResolver protocolResolver) {
+      this.protocolResolver = protocolResolver;
+    }
 
-        str = str.replace(protocolName + "://", replacement);
-      }
-      jsonGenerator.writeString(str);
+    @Override
+    public void serialize(Pair<LocalDateTime, String> pair, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+      jsonGenerator.writeStartObject();
+      serializerProvider.defaultSerializeField("first", pair.getFirst(), jsonGenerator);
+      jsonGenerator.writeFieldName("second");
+      protocolResolver.write(pair.getSecond(), jsonGenerator);
+      jsonGenerator.writeEndObject();
     }
   }
 }
@@ -0,0 +1,101 @@
+package cz.oksystem.deployment_dashboard.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import cz.oksystem.deployment_dashboard.dto.DeploymentDto;
+import cz.oksystem.deployment_dashboard.dto.DeploymentExportFormat;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+// zapisuje historii nasazeni radek po radku, v pameti drzi vzdy jen jeden radek
+@Component
+public class DeploymentExportWriter {
+  // po prvnim radku flushujeme hned (rychly prvni bajt), pak po davkach
+  private static final int FLUSH_EVERY_ROWS = 500;
+
+  private static final String CSV_HEADER = "id,deployedAt,appKey,appName,environmentName,versionName,versionDescription,jiraUrl";
+
+  private final ObjectWriter objectWriter;
+  private final CustomProtocolResolver protocolResolver;
+
+  public DeploymentExportWriter(ObjectMapper objectMapper, CustomProtocolResolver protocolResolver) {
+    this.objectWriter = objectMapper.writerFor(DeploymentDto.class)
+      .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    this.protocolResolver = protocolResolver;
+  }
+
+  public void write(Iterator<DeploymentDto> deployments, DeploymentExportFormat format, OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    long rowCount = 0;
+
+    if (format == DeploymentExportFormat.CSV) {
+      writer.write(CSV_HEADER);
+      writer.write('\n');
+    }
+
+    while (deployments.hasNext()) {
+      DeploymentDto deployment = deployments.next();
+
+      switch (format) {
+        case NDJSON -> objectWriter.writeValue(writer, deployment);
+        case CSV -> this.writeCsvRow(writer, deployment);
+      }
+      writer.write('\n');
+
+      if (++rowCount % FLUSH_EVERY_ROWS == 1) {
+        writer.flush();
+      }
+    }
+    writer.flush();
+  }
+
+  private void writeCsvRow(Writer writer, DeploymentDto deployment) throws IOException {
+    writer.write(String.valueOf(deployment.getId()));
+    writer.write(',');
+    writer.write(deployment.getDeployedAt() == null ? "" : deployment.getDeployedAt().toString());
+    writer.write(',');
+    this.writeCsvValue(writer, deployment.getAppKey());
+    writer.write(',');
+    this.writeCsvValue(writer, deployment.getAppName());
+    writer.write(',');
+    this.writeCsvValue(writer, deployment.getEnvironmentName());
+    writer.write(',');
+    this.writeCsvValue(writer, deployment.getVersionName());
+    writer.write(',');
+    this.writeCsvValue(writer, deployment.getVersionDescription());
+    writer.write(',');
+    this.writeCsvValue(writer, deployment.getJiraUrl() == null ? null : protocolResolver.resolve(deployment.getJiraUrl()));
+  }
+
+  // RFC 4180 - hodnoty s oddelovacem, uvozovkou nebo koncem radku davame do uvozovek
+  private void writeCsvValue(Writer writer, String value) throws IOException {
+    if (value == null || value.isEmpty()) {
+      return;
+    }
+
+    boolean needsQuoting = false;
+    for (int i = 0; i < value.length() && !needsQuoting; i++) {
+      char c = value.charAt(i);
+      needsQuoting = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+
+    if (!needsQuoting) {
+      writer.write(value);
+      return;
+    }
+
+    writer.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        writer.write('"');
+      }
+      writer.write(c);
+    }
+    writer.write('"');
+  }
+}
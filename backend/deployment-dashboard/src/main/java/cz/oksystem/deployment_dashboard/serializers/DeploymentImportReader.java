@@ -0,0 +1,223 @@
+package cz.oksystem.deployment_dashboard.serializers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.oksystem.deployment_dashboard.dto.DeploymentExportFormat;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+
+// cte import historie nasazeni radek po radku, stejne nazvy sloupcu/poli jako export
+// (appKey, environmentName, versionName, jiraUrl, deployedAt), ostatni sloupce se ignoruji;
+// export zapisuje jiraUrl prelozene, odkaz se proto vraci na vlastni protokol (ok-jira://ABC-123)
+@Component
+public class DeploymentImportReader {
+  private static final List<String> REQUIRED_COLUMNS = List.of("appKey", "environmentName", "versionName", "deployedAt");
+
+  private final ObjectMapper objectMapper;
+  private final CustomProtocolResolver protocolResolver;
+
+  public DeploymentImportReader(ObjectMapper objectMapper, CustomProtocolResolver protocolResolver) {
+    this.objectMapper = objectMapper;
+    this.protocolResolver = protocolResolver;
+  }
+
+  // error != null - radek nelze zpracovat, ostatni pole mohou chybet
+  public record Row(long row, String appKey, String environmentName, String versionName, String jiraUrl,
+                    LocalDateTime deployedAt, String error) {
+
+    static Row rejected(long row, String error) {
+      return new Row(row, null, null, null, null, null, error);
+    }
+  }
+
+  // cte az pri iteraci, IOException je zabalena do UncheckedIOException
+  public Iterator<Row> read(InputStream in, DeploymentExportFormat format) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+    return switch (format) {
+      case NDJSON -> this.ndjsonRows(reader);
+      case CSV -> this.csvRows(reader);
+    };
+  }
+
+  private Iterator<Row> ndjsonRows(BufferedReader reader) {
+    long[] row = {0};
+
+    return new RowIterator(() -> {
+      String line;
+
+      do {
+        line = reader.readLine();
+        if (line == null) {
+          return Optional.empty();
+        }
+      } while (line.isBlank());
+
+      row[0]++;
+      try {
+        JsonNode node = objectMapper.readTree(line);
+
+        return Optional.of(this.toRow(row[0], name -> text(node, name)));
+      } catch (JsonProcessingException ex) {
+        return Optional.of(Row.rejected(row[0], "Neplatný JSON: " + ex.getOriginalMessage()));
+      }
+    });
+  }
+
+  private Iterator<Row> csvRows(BufferedReader reader) throws IOException {
+    List<String> header = readCsvRecord(reader);
+
+    if (header == null) {
+      return Collections.emptyIterator();
+    }
+    Map<String, Integer> columns = new HashMap<>();
+    for (int i = 0; i < header.size(); i++) {
+      columns.put(header.get(i).trim(), i);
+    }
+
+    for (String column : REQUIRED_COLUMNS) {
+      if (!columns.containsKey(column)) {
+        throw new HttpMessageConversionException(String.format("V hlavičce CSV chybí sloupec '%s'.", column));
+      }
+    }
+
+    long[] row = {0};
+    return new RowIterator(() -> {
+      List<String> record;
+
+      do {
+        record = readCsvRecord(reader);
+        if (record == null) {
+          return Optional.empty();
+        }
+      } while (record.size() == 1 && record.getFirst().isBlank());
+
+      List<String> values = record;
+      return Optional.of(this.toRow(++row[0], name -> {
+        Integer index = columns.get(name);
+        String value = index == null || index >= values.size() ? null : values.get(index);
+
+        return value == null || value.isEmpty() ? null : value;
+      }));
+    });
+  }
+
+  private Row toRow(long row, Function<String, String> field) {
+    for (String column : REQUIRED_COLUMNS) {
+      if (field.apply(column) == null) {
+        return Row.rejected(row, String.format("Pole '%s' je prázdné.", column));
+      }
+    }
+
+    LocalDateTime deployedAt;
+    try {
+      deployedAt = LocalDateTime.parse(field.apply("deployedAt"));
+    } catch (DateTimeParseException ex) {
+      return Row.rejected(row, String.format("Neplatné datum nasazení '%s'.", field.apply("deployedAt")));
+    }
+
+    String jiraUrl = field.apply("jiraUrl");
+
+    return new Row(row, field.apply("appKey"), field.apply("environmentName"), field.apply("versionName"),
+      jiraUrl == null ? null : protocolResolver.unresolve(jiraUrl), deployedAt, null);
+  }
+
+  private static String text(JsonNode node, String name) {
+    JsonNode value = node.get(name);
+
+    return value == null || value.isNull() || value.asText().isEmpty() ? null : value.asText();
+  }
+
+  // RFC 4180 - zaznam muze v uvozovkach obsahovat oddelovace i konce radku, null na konci vstupu
+  static List<String> readCsvRecord(Reader reader) throws IOException {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    boolean empty = true;
+    int c;
+
+    while ((c = reader.read()) != -1) {
+      empty = false;
+
+      if (quoted) {
+        if (c == '"') {
+          reader.mark(1);
+          int next = reader.read();
+          if (next == '"') {
+            field.append('"');
+          } else {
+            quoted = false;
+            if (next != -1) {
+              reader.reset();
+            }
+          }
+        } else {
+          field.append((char) c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\n') {
+        break;
+      } else if (c != '\r') {
+        field.append((char) c);
+      }
+    }
+
+    if (empty) {
+      return null;
+    }
+    fields.add(field.toString());
+
+    return fields;
+  }
+
+  @FunctionalInterface
+  private interface RowSource {
+    Optional<Row> next() throws IOException;
+  }
+
+  private static final class RowIterator implements Iterator<Row> {
+    private final RowSource source;
+    private Row next;
+    private boolean done;
+
+    private RowIterator(RowSource source) {
+      this.source = source;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !done) {
+        try {
+          next = source.next().orElse(null);
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+        done = next == null;
+      }
+      return next != null;
+    }
+
+    @Override
+    public Row next() {
+      if (!this.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Row row = next;
+      next = null;
+
+      return row;
+    }
+  }
+}
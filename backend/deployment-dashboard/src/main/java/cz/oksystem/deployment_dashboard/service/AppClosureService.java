@@ -0,0 +1,81 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import cz.oksystem.deployment_dashboard.entity.App;
+import cz.oksystem.deployment_dashboard.repository.AppClosureRepository;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+
+// udrzuje uzaverovou tabulku app_closure a denormalizovany root_project_id ve stejne transakci
+// jako zmeny vazby parent, dotazy na hierarchii (cyklus, korenovy projekt, komponenty) jsou pak
+// jeden indexovany lookup
+@Service
+public class AppClosureService {
+  private final AppClosureRepository appClosureRepository;
+
+  public AppClosureService(AppClosureRepository appClosureRepository) {
+    this.appClosureRepository = appClosureRepository;
+  }
+
+  // nova aplikace nema komponenty, staci ji pripojit pod predky rodice
+  @Transactional
+  public void added(App app) {
+    appClosureRepository.insertSelf(app.getId());
+    app.getParent().ifPresent(parent -> appClosureRepository.linkSubtree(app.getId(), parent.getId()));
+
+    app.setRootProjectId(this.getRootProject(app).getId());
+  }
+
+  // presun aplikace i s komponentami pod noveho rodice (null - aplikace se stava projektem),
+  // verze a nasazeni podstromu prejdou pod novy korenovy projekt; hromadny update obchazi
+  // persistence context, uz nactene verze a nasazeni podstromu si drzi puvodni hodnotu
+  @Transactional
+  public void moved(App app, @Nullable App newParent) {
+    appClosureRepository.unlinkSubtree(app.getId());
+
+    if (newParent != null) {
+      appClosureRepository.linkSubtree(app.getId(), newParent.getId());
+    }
+
+    Long rootProjectId = this.getRootProject(app).getId();
+
+    if (!rootProjectId.equals(app.getRootProjectId())) {
+      appClosureRepository.updateAppRootProjectIds(app.getId(), rootProjectId);
+      appClosureRepository.updateVersionRootProjectIds(app.getId(), rootProjectId);
+      appClosureRepository.updateDeploymentRootProjectIds(app.getId(), rootProjectId);
+      app.setRootProjectId(rootProjectId);
+    }
+  }
+
+  // s aplikaci se mazou i jeji komponenty
+  @Transactional
+  public void deleted(App app) {
+    appClosureRepository.deleteSubtree(app.getId());
+  }
+
+  @Transactional
+  public void rebuild() {
+    appClosureRepository.deleteAllRows();
+    appClosureRepository.insertFromParents();
+  }
+
+  // aplikace je predkem sama sebe
+  @Transactional(readOnly = true)
+  public boolean isAncestorOrSelf(Long ancestorId, Long descendantId) {
+    return appClosureRepository.existsByIdAncestorIdAndIdDescendantId(ancestorId, descendantId);
+  }
+
+  // korenovy projekt, pro projekt vraci sam sebe; chybejici radek je poskozena tabulka (oprava pres rebuild)
+  @Transactional(readOnly = true)
+  public App getRootProject(App app) {
+    if (!app.isComponent()) {
+      return app;
+    }
+    return appClosureRepository.findRootProject(app.getId()).orElseThrow(
+      () -> new IllegalStateException(
+        String.format("App '%s' has no app_closure row.", app.getKey())
+      )
+    );
+  }
+}
@@ -0,0 +1,109 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import cz.oksystem.deployment_dashboard.repository.projections.AppNode;
+
+import java.util.*;
+
+// hierarchie aplikaci sestavena v pameti z jednoho nacteni AppNode,
+// nahrazuje prochazeni lazy vazeb App.getComponents()/App.getParent()
+public class AppHierarchy {
+  private final List<AppNode> nodes;
+  private final Map<Long, AppNode> idToNode = new HashMap<>();
+  private final Map<String, AppNode> keyToNode = new HashMap<>();
+  private final Map<Long, List<AppNode>> parentIdToChildren = new HashMap<>();
+  private final Map<Long, Long> appIdToProjectId = new HashMap<>();
+
+
+  public AppHierarchy(List<AppNode> nodes) {
+    this.nodes = List.copyOf(nodes);
+
+    for (AppNode node : this.nodes) {
+      idToNode.put(node.id(), node);
+      // klice jsou case-insensitive (VARCHAR_IGNORECASE)
+      keyToNode.put(node.key().toLowerCase(), node);
+
+      if (node.parentId() != null) {
+        parentIdToChildren.computeIfAbsent(node.parentId(), parentId -> new ArrayList<>()).add(node);
+      }
+    }
+    for (AppNode node : this.nodes) {
+      this.resolveProjectId(node);
+    }
+  }
+
+  // Getters
+  public List<AppNode> getNodes() {
+    return this.nodes;
+  }
+
+  public List<AppNode> getProjects() {
+    return this.nodes.stream().filter(AppNode::isProject).toList();
+  }
+
+  public Optional<AppNode> get(Long appId) {
+    return Optional.ofNullable(idToNode.get(appId));
+  }
+
+  public Optional<AppNode> get(String appKey) {
+    return appKey == null
+      ? Optional.empty()
+      : Optional.ofNullable(keyToNode.get(appKey.toLowerCase()));
+  }
+
+  // id korenoveho projektu, null pokud aplikace lezi v cyklu
+  public Long getProjectId(Long appId) {
+    return appIdToProjectId.get(appId);
+  }
+
+  // aplikace vcetne vsech (i neprimych) komponent, sama aplikace je prvni
+  public List<AppNode> getSubtree(Long appId) {
+    List<AppNode> subtree = new ArrayList<>();
+    AppNode root = idToNode.get(appId);
+
+    if (root == null) {
+      return subtree;
+    }
+
+    Set<Long> visited = new HashSet<>();
+    Deque<AppNode> queue = new ArrayDeque<>();
+    queue.add(root);
+
+    while (!queue.isEmpty()) {
+      AppNode node = queue.poll();
+      if (visited.add(node.id())) {
+        subtree.add(node);
+        queue.addAll(parentIdToChildren.getOrDefault(node.id(), List.of()));
+      }
+    }
+    return subtree;
+  }
+
+  private void resolveProjectId(AppNode node) {
+    List<Long> path = new ArrayList<>();
+    Set<Long> visited = new HashSet<>();
+    Long current = node.id();
+    Long projectId = null;
+
+    while (current != null && visited.add(current)) {
+      projectId = appIdToProjectId.get(current);
+      if (projectId != null) {
+        break;
+      }
+      path.add(current);
+
+      AppNode currentNode = idToNode.get(current);
+      if (currentNode == null || currentNode.parentId() == null) {
+        projectId = current;
+        break;
+      }
+      current = currentNode.parentId();
+    }
+
+    // cyklus v hierarchii (validace by ho nemela pustit) - aplikace nepatri zadnemu projektu
+    if (projectId != null) {
+      for (Long appId : path) {
+        appIdToProjectId.put(appId, projectId);
+      }
+    }
+  }
+}
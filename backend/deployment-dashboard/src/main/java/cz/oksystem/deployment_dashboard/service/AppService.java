@@ -3,12 +3,15 @@ package cz.oksystem.deployment_dashboard.service;
 import cz.oksystem.deployment_dashboard.entity.App;
 import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
 import cz.oksystem.deployment_dashboard.repository.AppRepository;
+import cz.oksystem.deployment_dashboard.repository.projections.AppNode;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 // TODO - přidat podporu pro unarchive (podle vývoje API)
@@ -16,9 +19,13 @@ import java.util.Optional;
 public class AppService {
 
   private final AppRepository appRepository;
+  private final AppClosureService appClosureService;
+  private final LookupCaches lookupCaches;
 
-  public AppService(AppRepository appRepository) {
+  public AppService(AppRepository appRepository, AppClosureService appClosureService, LookupCaches lookupCaches) {
     this.appRepository = appRepository;
+    this.appClosureService = appClosureService;
+    this.lookupCaches = lookupCaches;
   }
 
   @Transactional(readOnly = true)
@@ -26,11 +33,31 @@ public class AppService {
     return appRepository.getAllWhereParentIsNull();
   }
 
+  @Transactional(readOnly = true)
+  public List<AppNode> getAllAppNodes() {
+    return appRepository.getAllAppNodes();
+  }
+
+  // podstrom aplikace jednim dotazem nad app_closure
+  @Transactional(readOnly = true)
+  public AppHierarchy getSubtree(Long appId) {
+    return new AppHierarchy(appRepository.findSubtreeNodes(appId));
+  }
+
+  // cely strom projektu, do ktereho aplikace patri
+  @Transactional(readOnly = true)
+  public AppHierarchy getTree(Long appId) {
+    return new AppHierarchy(appRepository.findTreeNodes(appId));
+  }
+
   @Transactional
   public App save(App newApp) {
     this.validate(newApp, true);
 
-    return appRepository.save(newApp);
+    App savedApp = appRepository.save(newApp);
+    appClosureService.added(savedApp);
+
+    return savedApp;
   }
 
   @Transactional
@@ -63,22 +90,37 @@ public class AppService {
       if (!this.exists(parentApp)) {
         throw new CustomExceptions.NotManagedException(App.CZECH_NAME, parentApp.getKey());
       }
-      if (app.hasCycle()) {
-        throw new CustomExceptions.RecursiveAppParentingException();
-      }
     });
   }
 
+  // novy rodic nesmi lezet v podstromu aplikace (ani jim byt aplikace sama)
+  @Transactional
+  void validateParent(App app, @Nullable App newParent) {
+    if (newParent != null && appClosureService.isAncestorOrSelf(app.getId(), newParent.getId())) {
+      throw new CustomExceptions.RecursiveAppParentingException();
+    }
+  }
+
   @Transactional
   public App update(String appKeyToUpdate, App updateWith) {
     App appToUpdate = this.get(appKeyToUpdate).orElseThrow(
       () -> new CustomExceptions.NotManagedException(App.CZECH_NAME, appKeyToUpdate)
     );
 
-    appToUpdate.setParent(updateWith.getParent().orElse(null));
+    // klic se muze zmenit, prostredi a verze v cache jsou vedene pod puvodnim klicem
+    lookupCaches.evictApps(List.of(appToUpdate.getKey(), updateWith.getKey()));
 
+    App newParent = updateWith.getParent().orElse(null);
 
     this.validate(updateWith, !appToUpdate.getKey().equals(updateWith.getKey()));
+    this.validateParent(appToUpdate, newParent);
+
+    if (!Objects.equals(
+      appToUpdate.getParent().map(App::getId).orElse(null),
+      newParent == null ? null : newParent.getId())) {
+      appToUpdate.setParent(newParent);
+      appClosureService.moved(appToUpdate, newParent);
+    }
 
     appToUpdate.setKey(updateWith.getKey());
     appToUpdate.setName(updateWith.getName());
@@ -101,9 +143,21 @@ public class AppService {
       );
     }
 
+    // s aplikaci se mazou i jeji komponenty
+    lookupCaches.evictApps(
+      this.getSubtree(appToDelete.getId()).getNodes().stream().map(AppNode::key).toList()
+    );
+
+    appClosureService.deleted(appToDelete);
     appRepository.delete(appToDelete);
   }
 
+  // korenovy projekt z app_closure misto prochazeni vazeb parent
+  @Transactional(readOnly = true)
+  public App getRootProject(App app) {
+    return appClosureService.getRootProject(app);
+  }
+
   @Transactional(readOnly = true)
   public boolean exists(String key) {
     return appRepository.existsByKey(key);
@@ -114,6 +168,12 @@ public class AppService {
     return this.exists(app.getKey());
   }
 
+  // reference bez dotazu do DB (pokud uz aplikace neni v persistence contextu)
+  @Transactional(readOnly = true)
+  public App getReference(Long id) {
+    return appRepository.getReferenceById(id);
+  }
+
   @Transactional(readOnly = true)
   public Optional<App> get(String key) {
     return this.get(key, false);
@@ -121,8 +181,15 @@ public class AppService {
 
   @Transactional(readOnly = true)
   public Optional<App> get(String key, boolean alsoArchived) {
-    return alsoArchived
-      ? appRepository.findByKeyAndArchivedTimestampIsNull(key)
-      : appRepository.findByKey(key);
+    if (alsoArchived) {
+      return appRepository.findByKeyAndArchivedTimestampIsNull(key);
+    }
+
+    return lookupCaches.apps().resolve(
+      LookupCaches.appKey(key),
+      appRepository::getReferenceById,
+      () -> appRepository.findByKey(key),
+      App::getId
+    );
   }
 }
@@ -0,0 +1,118 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import cz.oksystem.deployment_dashboard.entity.Deployment;
+import cz.oksystem.deployment_dashboard.repository.CurrentDeploymentRepository;
+import cz.oksystem.deployment_dashboard.repository.projections.CurrentVersionRow;
+import cz.oksystem.deployment_dashboard.repository.projections.LastDeploymentRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// udrzuje tabulku current_deployments (posledni nasazeni pro aplikaci a prostredi)
+// ve stejne transakci jako zmeny historie nasazeni
+@Service
+public class CurrentDeploymentService {
+  private static final String UPSERT_SQL =
+    "MERGE INTO current_deployments (app_id, env_id, deployment_id) " +
+    "KEY (app_id, env_id) " +
+    "VALUES (?, ?, ?)";
+
+  // poradi aktualnich nasazeni aplikace (date DESC NULLS LAST, id DESC), stejne jako CurrentDeploymentRepository.RANKED_DEPLOYMENTS
+  private static final Comparator<CurrentVersionRow> RECENCY = Comparator
+    .comparing((CurrentVersionRow row) -> row.date(), Comparator.nullsFirst(Comparator.naturalOrder()))
+    .thenComparing(CurrentVersionRow::deploymentId);
+
+  private final CurrentDeploymentRepository currentDeploymentRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean rebuildOnStartup;
+
+  public CurrentDeploymentService(CurrentDeploymentRepository currentDeploymentRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${deploydash.current-deployments.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+    this.currentDeploymentRepository = currentDeploymentRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.rebuildOnStartup = rebuildOnStartup;
+  }
+
+  // kazde ulozene nasazeni ma datum "ted", je tedy vzdy tim nejnovejsim
+  @Transactional
+  public void markCurrent(Deployment deployment) {
+    currentDeploymentRepository.upsert(
+      deployment.getVersion().getApp().getId(),
+      deployment.getEnvironment().getId(),
+      deployment.getId()
+    );
+  }
+
+  // vice nasazeni jednim JDBC batchem, nasazeni musi byt v DB drive nez radky, ktere na ne odkazuji
+  @Transactional
+  public void markCurrent(Collection<Deployment> deployments) {
+    if (deployments.isEmpty()) {
+      return;
+    }
+    currentDeploymentRepository.flush();
+
+    jdbcTemplate.batchUpdate(UPSERT_SQL, deployments, deployments.size(), (ps, deployment) -> {
+      ps.setLong(1, deployment.getVersion().getApp().getId());
+      ps.setLong(2, deployment.getEnvironment().getId());
+      ps.setLong(3, deployment.getId());
+    });
+  }
+
+  // po smazani nasazeni/verze dopocitame stav aplikace z historie
+  @Transactional
+  public void refresh(Long appId) {
+    currentDeploymentRepository.deleteByAppId(appId);
+    currentDeploymentRepository.insertFromHistoryForApp(appId);
+  }
+
+  @Transactional
+  public void rebuild() {
+    currentDeploymentRepository.deleteAllRows();
+    currentDeploymentRepository.insertFromHistory();
+  }
+
+  // nejnovejsi nasazeni (napric prostredimi) pro vice aplikaci jednim dotazem, appId -> nasazeni
+  @Transactional(readOnly = true)
+  public Map<Long, CurrentVersionRow> getLatestForApps(Collection<Long> appIds) {
+    Map<Long, CurrentVersionRow> latest = new HashMap<>();
+
+    if (appIds.isEmpty()) {
+      return latest;
+    }
+    for (CurrentVersionRow current : currentDeploymentRepository.findCurrentVersionRowsByAppIds(appIds)) {
+      latest.merge(current.appId(), current, (a, b) -> RECENCY.compare(a, b) >= 0 ? a : b);
+    }
+    return latest;
+  }
+
+  @Transactional(readOnly = true)
+  public List<LastDeploymentRow> getCurrentDeploymentRows() {
+    return currentDeploymentRepository.getCurrentDeploymentRows();
+  }
+
+  @Transactional(readOnly = true)
+  public List<LastDeploymentRow> getCurrentDeploymentRowsByProjects(Collection<Long> projectIds) {
+    if (projectIds.isEmpty()) {
+      return List.of();
+    }
+    return currentDeploymentRepository.getCurrentDeploymentRowsByProjectIds(projectIds);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void rebuildOnStartup() {
+    if (rebuildOnStartup) {
+      this.rebuild();
+    }
+  }
+}
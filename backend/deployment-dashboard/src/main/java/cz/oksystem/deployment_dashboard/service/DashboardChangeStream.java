@@ -0,0 +1,222 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.oksystem.deployment_dashboard.dto.DashboardChangeDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// stream zmen dashboardu pro prohlizece (SSE) - kazda commitnuta zmena se serializuje jednou
+// a rozesle vsem odberatelum, kazdy odberatel ma vlastni omezenou frontu; pomaleho odberatele,
+// jehoz fronta pretece, odpojime a prohlizec se znovu pripoji s Last-Event-ID
+@Component
+public class DashboardChangeStream {
+  private final DataRevision dataRevision;
+  private final ObjectMapper objectMapper;
+  private final int queueCapacity;
+  private final int replayCapacity;
+  private final long timeoutMillis;
+
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+  // posledni udalosti pro obnoveni streamu, chraneno zamkem this
+  private final ArrayDeque<Frame> replayBuffer = new ArrayDeque<>();
+  private long evictedRevision;
+
+  // odesilani muze blokovat na pomalem klientovi, proto virtualni vlakna
+  private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+  private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor();
+
+  public DashboardChangeStream(DataRevision dataRevision,
+                               ObjectMapper objectMapper,
+                               @Value("${deploydash.events.queue-capacity:256}") int queueCapacity,
+                               @Value("${deploydash.events.replay-capacity:1000}") int replayCapacity,
+                               @Value("${deploydash.events.timeout:30m}") Duration timeout,
+                               @Value("${deploydash.events.heartbeat:30s}") Duration heartbeat) {
+    this.dataRevision = dataRevision;
+    this.objectMapper = objectMapper;
+    this.queueCapacity = queueCapacity;
+    this.replayCapacity = replayCapacity;
+    this.timeoutMillis = timeout.toMillis();
+
+    // komentar udrzuje spojeni pres proxy a odhali odpojene klienty
+    this.heartbeats.scheduleAtFixedRate(
+      () -> subscribers.forEach(subscriber -> subscriber.offer(Frame.HEARTBEAT)),
+      heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS
+    );
+  }
+
+  // projectKey == null odebira zmeny vsech projektu, lastEventId je token revize posledni prijate udalosti
+  public synchronized SseEmitter subscribe(String projectKey, String lastEventId) {
+    Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis),
+      projectKey == null ? null : projectKey.toLowerCase());
+
+    subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+    subscriber.emitter.onTimeout(subscriber::close);
+    subscriber.emitter.onError(ex -> subscriber.close());
+
+    OptionalLong since = dataRevision.parseToken(lastEventId);
+    List<Frame> missed = since.isPresent() && since.getAsLong() >= evictedRevision
+      ? replayBuffer.stream().filter(frame -> frame.revision() > since.getAsLong()).toList()
+      : null;
+
+    if (missed != null && missed.size() < queueCapacity) {
+      missed.forEach(subscriber::offer);
+    } else if (lastEventId != null) {
+      // udalosti od klientova tokenu uz nemame (nebo jde o token z jineho behu), klient musi nacist vse znovu
+      subscriber.offer(Frame.control("reset", dataRevision.token(dataRevision.current())));
+    } else {
+      subscriber.offer(Frame.control("revision", dataRevision.token(dataRevision.current())));
+    }
+    subscribers.add(subscriber);
+
+    return subscriber.emitter;
+  }
+
+  // az po DashboardReadModel, klient reagujici na udalost uz dostane nova data
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  public synchronized void onDashboardChanged(DashboardChangedEvent event) {
+    long revision = dataRevision.committed(event);
+    String token = dataRevision.token(revision);
+
+    Frame frame = new Frame(revision, token, "change", this.toJson(new DashboardChangeDto(
+      token,
+      event.type().name(),
+      event.projectKey(),
+      event.appKey(),
+      event.envName(),
+      event.versions()
+    )), event.projectKey() == null ? null : event.projectKey().toLowerCase());
+
+    replayBuffer.addLast(frame);
+    if (replayBuffer.size() > replayCapacity) {
+      evictedRevision = replayBuffer.removeFirst().revision();
+    }
+    subscribers.forEach(subscriber -> subscriber.offer(frame));
+  }
+
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    heartbeats.shutdownNow();
+    subscribers.forEach(Subscriber::close);
+    senders.shutdown();
+  }
+
+  private String toJson(DashboardChangeDto change) {
+    try {
+      return objectMapper.writeValueAsString(change);
+    } catch (JsonProcessingException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  // projectKey == null - udalost pro vsechny odberatele (zmena katalogu, rizeni streamu)
+  private record Frame(long revision, String id, String name, String data, String projectKey) {
+    static final Frame HEARTBEAT = new Frame(0, null, null, null, null);
+
+    static Frame control(String name, String token) {
+      return new Frame(0, token, name, token, null);
+    }
+
+    SseEmitter.SseEventBuilder toEvent() {
+      if (name == null) {
+        return SseEmitter.event().comment("heartbeat");
+      }
+      return SseEmitter.event().id(id).name(name).data(data);
+    }
+  }
+
+  private final class Subscriber {
+    private final SseEmitter emitter;
+    private final String projectKey;
+
+    // chraneno zamkem this
+    private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+    private boolean closed;
+
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    private Subscriber(SseEmitter emitter, String projectKey) {
+      this.emitter = emitter;
+      this.projectKey = projectKey;
+    }
+
+    // nikdy neblokuje publikujici vlakno
+    void offer(Frame frame) {
+      if (projectKey != null && frame.projectKey() != null && !projectKey.equals(frame.projectKey())) {
+        return;
+      }
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        if (queue.size() >= queueCapacity) {
+          this.closeLocked();
+          return;
+        }
+        queue.addLast(frame);
+      }
+      if (sending.compareAndSet(false, true)) {
+        senders.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      try {
+        while (true) {
+          Frame frame;
+
+          synchronized (this) {
+            frame = closed ? null : queue.pollFirst();
+            if (frame == null) {
+              sending.set(false);
+              return;
+            }
+          }
+          emitter.send(frame.toEvent());
+        }
+      } catch (IOException | IllegalStateException ex) {
+        sending.set(false);
+        this.close();
+      }
+    }
+
+    synchronized void close() {
+      this.closeLocked();
+    }
+
+    private void closeLocked() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      queue.clear();
+      subscribers.remove(this);
+      emitter.complete();
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import java.util.Map;
+import java.util.Set;
+
+// zmena dat dashboardu publikovana zapisovymi metodami ServiceOrchestrator,
+// projectIds == null znamena zmenu katalogu (aplikace), po ktere je nutne vse nacist znovu
+public record DashboardChangedEvent(Type type,
+                                    Set<Long> projectIds,
+                                    String projectKey,
+                                    String appKey,
+                                    String envName,
+                                    Map<String, String> versions) {
+
+  public enum Type {
+    APP_ADDED,
+    APP_UPDATED,
+    APP_DELETED,
+    ENVIRONMENT_ADDED,
+    ENVIRONMENT_UPDATED,
+    ENVIRONMENT_DELETED,
+    VERSION_ADDED,
+    VERSION_UPDATED,
+    VERSION_DELETED,
+    RELEASED,
+    DEPLOYMENT_DELETED,
+    DEPLOYMENTS_IMPORTED
+  }
+
+  public static DashboardChangedEvent catalogueChanged(Type type, String projectKey, String appKey) {
+    return new DashboardChangedEvent(type, null, projectKey, appKey, null, Map.of());
+  }
+
+  // versions: klic aplikace -> nazev verze
+  public static DashboardChangedEvent projectChanged(Type type, Long projectId, String projectKey, String appKey,
+                                                     String envName, Map<String, String> versions) {
+    return new DashboardChangedEvent(type, Set.of(projectId), projectKey, appKey, envName, versions);
+  }
+
+  public boolean isCatalogueChange() {
+    return this.projectIds == null;
+  }
+}
@@ -0,0 +1,161 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import cz.oksystem.deployment_dashboard.dto.ProjectDetailDto;
+import cz.oksystem.deployment_dashboard.dto.ProjectOverviewDto;
+import cz.oksystem.deployment_dashboard.repository.projections.AppNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+// read model dashboardu v pameti - overview a detaily vsech projektu,
+// nacteny pri startu a po kazdem commitu zapisu prepocitany jen pro dotcene projekty
+@Component
+public class DashboardReadModel {
+  private final ProjectViewService projectViewService;
+  private final boolean enabled;
+
+  // nemenny snapshot, ctenari ho nikdy nevidi rozpracovany
+  private volatile Snapshot snapshot;
+
+  public DashboardReadModel(ProjectViewService projectViewService,
+                            @Value("${deploydash.read-model.enabled:true}") boolean enabled) {
+    this.projectViewService = projectViewService;
+    this.enabled = enabled;
+  }
+
+  public Optional<List<ProjectOverviewDto>> getProjectOverviews() {
+    return this.servableSnapshot().map(current -> List.copyOf(current.overviews().values()));
+  }
+
+  public Optional<List<ProjectDetailDto>> getProjectDetails() {
+    return this.servableSnapshot().map(current -> List.copyOf(current.details().values()));
+  }
+
+  // jen pro projekty, detail komponenty se sestavuje z DB
+  public Optional<ProjectDetailDto> getProjectDetail(String projectKey) {
+    return this.servableSnapshot().flatMap(current ->
+      Optional.ofNullable(current.projectKeyToId().get(projectKey.toLowerCase()))
+        .map(projectId -> current.details().get(projectId))
+    );
+  }
+
+  // id projektu podle klice pro revize dat, mapovani klicu se meni jen se zmenou katalogu
+  public Optional<Long> getProjectId(String projectKey) {
+    Snapshot current = this.snapshot;
+
+    if (!enabled || current == null || projectKey == null) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(current.projectKeyToId().get(projectKey.toLowerCase()));
+  }
+
+  // uvnitr otevrene transakce muzou existovat dosud necommitnute zmeny, ktere snapshot nezna
+  private Optional<Snapshot> servableSnapshot() {
+    if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(this.snapshot);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public synchronized void load() {
+    if (!enabled) {
+      return;
+    }
+    AppHierarchy hierarchy = projectViewService.getHierarchy();
+    List<AppNode> projects = hierarchy.getProjects();
+
+    this.snapshot = Snapshot.of(
+      projects,
+      projectViewService.getProjectOverviews(hierarchy, projects),
+      projectViewService.getProjectDetails(hierarchy, projects)
+    );
+  }
+
+  // bezi po commitu, cteni proto potrebuje vlastni transakci; pred DashboardChangeStream,
+  // ktery zvysi revizi dat a rozesle zmenu
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  public synchronized void onDashboardChanged(DashboardChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    if (this.snapshot == null || event.isCatalogueChange()) {
+      this.load();
+      return;
+    }
+
+    AppHierarchy hierarchy = projectViewService.getHierarchy();
+    List<AppNode> changedProjects = event.projectIds().stream()
+      .map(hierarchy::get)
+      .flatMap(Optional::stream)
+      .filter(AppNode::isProject)
+      .toList();
+
+    this.snapshot = this.snapshot.with(
+      event.projectIds(),
+      changedProjects,
+      projectViewService.getProjectOverviews(hierarchy, changedProjects),
+      projectViewService.getProjectDetails(hierarchy, changedProjects)
+    );
+  }
+
+  // overviews a details jsou ve stejnem poradi jako projekty
+  private record Snapshot(LinkedHashMap<Long, ProjectOverviewDto> overviews,
+                          LinkedHashMap<Long, ProjectDetailDto> details,
+                          Map<String, Long> projectKeyToId) {
+
+    static Snapshot of(List<AppNode> projects, List<ProjectOverviewDto> overviews, List<ProjectDetailDto> details) {
+      LinkedHashMap<Long, ProjectOverviewDto> overviewMap = new LinkedHashMap<>();
+      LinkedHashMap<Long, ProjectDetailDto> detailMap = new LinkedHashMap<>();
+      Map<String, Long> keyToId = new HashMap<>();
+
+      for (int i = 0; i < projects.size(); i++) {
+        AppNode project = projects.get(i);
+
+        overviewMap.put(project.id(), overviews.get(i));
+        detailMap.put(project.id(), details.get(i));
+        keyToId.put(project.key().toLowerCase(), project.id());
+      }
+      return new Snapshot(overviewMap, detailMap, keyToId);
+    }
+
+    // kopie snapshotu s nahrazenymi projekty, zmizele projekty se odeberou
+    Snapshot with(Set<Long> changedProjectIds, List<AppNode> reloadedProjects,
+                  List<ProjectOverviewDto> overviews, List<ProjectDetailDto> details) {
+      LinkedHashMap<Long, ProjectOverviewDto> overviewMap = new LinkedHashMap<>(this.overviews);
+      LinkedHashMap<Long, ProjectDetailDto> detailMap = new LinkedHashMap<>(this.details);
+      Map<String, Long> keyToId = new HashMap<>(this.projectKeyToId);
+
+      Set<Long> removedProjectIds = new HashSet<>(changedProjectIds);
+
+      // put na existujici klic zachova poradi projektu
+      for (int i = 0; i < reloadedProjects.size(); i++) {
+        AppNode project = reloadedProjects.get(i);
+
+        overviewMap.put(project.id(), overviews.get(i));
+        detailMap.put(project.id(), details.get(i));
+        keyToId.put(project.key().toLowerCase(), project.id());
+        removedProjectIds.remove(project.id());
+      }
+      for (Long projectId : removedProjectIds) {
+        overviewMap.remove(projectId);
+        detailMap.remove(projectId);
+        keyToId.values().remove(projectId);
+      }
+      return new Snapshot(overviewMap, detailMap, keyToId);
+    }
+  }
+}
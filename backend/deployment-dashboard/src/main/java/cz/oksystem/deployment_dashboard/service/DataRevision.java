@@ -0,0 +1,86 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// monotonni revize dat dashboardu (globalni a za projekt), pouziva se jako ETag ctecich endpointu
+@Component
+public class DataRevision {
+  // po restartu zacina citac znovu od nuly, epocha zabrani kolizi se starymi ETagy
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+  private final AtomicLong revision = new AtomicLong();
+
+  // zmena katalogu se tyka vsech projektu
+  private volatile long catalogueRevision;
+  private final Map<Long, Long> projectRevisions = new ConcurrentHashMap<>();
+
+  public long current() {
+    return revision.get();
+  }
+
+  public long current(Long projectId) {
+    if (projectId == null) {
+      return this.current();
+    }
+    return Math.max(projectRevisions.getOrDefault(projectId, 0L), catalogueRevision);
+  }
+
+  public String eTag() {
+    return this.eTag(this.current());
+  }
+
+  public String eTag(Long projectId) {
+    return this.eTag(this.current(projectId));
+  }
+
+  private String eTag(long revision) {
+    return "\"" + this.token(revision) + "\"";
+  }
+
+  // token revize pro obnoveni streamu zmen
+  public String token(long revision) {
+    return epoch + "-" + revision;
+  }
+
+  // revize z tokenu, prazdne pro token z jineho behu aplikace
+  public OptionalLong parseToken(String token) {
+    if (token == null || !token.startsWith(epoch + "-")) {
+      return OptionalLong.empty();
+    }
+    try {
+      return OptionalLong.of(Long.parseLong(token.substring(epoch.length() + 1)));
+    } catch (NumberFormatException ex) {
+      return OptionalLong.empty();
+    }
+  }
+
+  // zvysujeme uz pri publikaci zmeny (zmeny viditelne v ramci transakce)
+  @EventListener
+  public void onChangePublished(DashboardChangedEvent event) {
+    this.bump(event);
+  }
+
+  // a znovu po commitu (vola DashboardChangeStream az po prepocitani read modelu) - klient,
+  // ktery mezitim dostal stara data s novou revizi, tak dostane data znovu
+  public long committed(DashboardChangedEvent event) {
+    return this.bump(event);
+  }
+
+  private synchronized long bump(DashboardChangedEvent event) {
+    long newRevision = revision.incrementAndGet();
+
+    if (event.isCatalogueChange()) {
+      catalogueRevision = newRevision;
+      projectRevisions.clear();
+      return newRevision;
+    }
+    event.projectIds().forEach(projectId -> projectRevisions.put(projectId, newRevision));
+
+    return newRevision;
+  }
+}
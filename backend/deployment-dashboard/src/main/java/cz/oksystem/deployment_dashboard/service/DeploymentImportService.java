@@ -0,0 +1,278 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import cz.oksystem.deployment_dashboard.dto.DeploymentExportFormat;
+import cz.oksystem.deployment_dashboard.dto.DeploymentImportResultDto;
+import cz.oksystem.deployment_dashboard.entity.App;
+import cz.oksystem.deployment_dashboard.entity.Deployment;
+import cz.oksystem.deployment_dashboard.entity.Environment;
+import cz.oksystem.deployment_dashboard.entity.Version;
+import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
+import cz.oksystem.deployment_dashboard.repository.projections.AppNode;
+import cz.oksystem.deployment_dashboard.repository.projections.EnvironmentKeyRow;
+import cz.oksystem.deployment_dashboard.serializers.DeploymentImportReader;
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+// hromadny import historickych nasazeni - vstup se cte proudove a zpracovava po davkach,
+// kazda davka ve vlastni transakci; chybne radky se odmitnou, zbytek davky se ulozi
+@Service
+public class DeploymentImportService {
+  private static final int CHUNK_SIZE = 1000;
+  private static final int MAX_REPORTED_REJECTS = 1000;
+
+  private final AppService appService;
+  private final EnvironmentService environmentService;
+  private final VersionService versionService;
+  private final DeploymentService deploymentService;
+  private final CurrentDeploymentService currentDeploymentService;
+  private final DeploymentImportReader importReader;
+  private final TransactionTemplate transactionTemplate;
+  private final EntityManager entityManager;
+
+  public DeploymentImportService(AppService appService, EnvironmentService environmentService,
+                                 VersionService versionService, DeploymentService deploymentService,
+                                 CurrentDeploymentService currentDeploymentService,
+                                 DeploymentImportReader importReader,
+                                 PlatformTransactionManager transactionManager,
+                                 EntityManager entityManager) {
+    this.appService = appService;
+    this.environmentService = environmentService;
+    this.versionService = versionService;
+    this.deploymentService = deploymentService;
+    this.currentDeploymentService = currentDeploymentService;
+    this.importReader = importReader;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.entityManager = entityManager;
+  }
+
+  public DeploymentImportResultDto importDeployments(InputStream in, DeploymentExportFormat format) throws IOException {
+    Import state = new Import(
+      new AppHierarchy(appService.getAllAppNodes()),
+      environmentService.getAllEnvironmentKeyRows()
+    );
+    Iterator<DeploymentImportReader.Row> rows = importReader.read(in, format);
+    List<DeploymentImportReader.Row> chunk = new ArrayList<>(CHUNK_SIZE);
+
+    while (rows.hasNext()) {
+      chunk.add(rows.next());
+
+      if (chunk.size() == CHUNK_SIZE) {
+        this.importChunk(state, chunk);
+        chunk.clear();
+      }
+    }
+    this.importChunk(state, chunk);
+
+    // aktualni stav dopocitame jednou za dotcene aplikace, ne po kazdem radku
+    if (!state.affectedAppIds.isEmpty()) {
+      transactionTemplate.executeWithoutResult(
+        status -> state.affectedAppIds.forEach(currentDeploymentService::refresh)
+      );
+    }
+
+    return new DeploymentImportResultDto(state.imported, state.rejected, state.rejects);
+  }
+
+  private void importChunk(Import state, List<DeploymentImportReader.Row> chunk) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    List<ResolvedRow> resolved = new ArrayList<>(chunk.size());
+
+    for (DeploymentImportReader.Row row : chunk) {
+      if (row.error() != null) {
+        state.reject(row.row(), row.error());
+        continue;
+      }
+      state.resolve(row).ifPresent(resolved::add);
+    }
+    if (resolved.isEmpty()) {
+      return;
+    }
+
+    try {
+      ChunkResult result = transactionTemplate.execute(status -> this.insertChunk(state, resolved));
+
+      state.commit(Objects.requireNonNull(result));
+    } catch (DataAccessException ex) {
+      String reason = "Davku se nepodařilo uložit: " + ex.getMostSpecificCause().getMessage();
+      resolved.forEach(row -> state.reject(row.source().row(), reason));
+    } finally {
+      // persistence context (OSIV) by jinak rostl s kazdou davkou
+      entityManager.clear();
+    }
+  }
+
+  // zalozi chybejici verze a vlozi nasazeni, vse pres reference bez nacitani entit
+  private ChunkResult insertChunk(Import state, List<ResolvedRow> rows) {
+    ChunkResult result = new ChunkResult();
+
+    // verze, ktere jeste nezname, dohledame jednim dotazem
+    Set<Long> appIds = new HashSet<>();
+    Set<String> versionNames = new HashSet<>();
+    rows.stream()
+      .filter(row -> !state.versionIds.containsKey(row.versionKey()))
+      .forEach(row -> {
+        appIds.add(row.appId());
+        versionNames.add(row.source().versionName());
+      });
+    for (Version version : versionService.getAll(appIds, versionNames)) {
+      result.versionIds.put(VersionKey.of(version.getApp().getId(), version.getName()), version.getId());
+    }
+
+    List<Version> newVersions = new ArrayList<>();
+    for (ResolvedRow row : rows) {
+      VersionKey key = row.versionKey();
+
+      if (!state.versionIds.containsKey(key) && !result.versionIds.containsKey(key)) {
+        Version version = new Version(appService.getReference(row.appId()), row.source().versionName());
+        version.setRootProjectId(row.projectId());
+        newVersions.add(version);
+        result.versionIds.put(key, null);
+      }
+    }
+    // id prideluje pooled sekvence uz pri persist, bez dalsich dotazu
+    for (Version version : versionService.saveAll(newVersions)) {
+      result.versionIds.put(VersionKey.of(version.getApp().getId(), version.getName()), version.getId());
+    }
+
+    // existujici nasazeni (unikatni env + verze) pro verze, ktere jsme jeste nevideli cele
+    Set<Long> versionIds = new HashSet<>();
+    rows.forEach(row -> versionIds.add(result.versionId(state, row)));
+    versionIds.removeAll(state.checkedVersionIds);
+    deploymentService.getDeploymentKeys(versionIds).forEach(
+      key -> result.deploymentKeys.add(new DeploymentKey(key.envId(), key.versionId()))
+    );
+    result.checkedVersionIds.addAll(versionIds);
+
+    List<Deployment> deployments = new ArrayList<>();
+    for (ResolvedRow row : rows) {
+      Long versionId = result.versionId(state, row);
+      DeploymentKey key = new DeploymentKey(row.envId(), versionId);
+
+      if (state.deploymentKeys.contains(key) || !result.deploymentKeys.add(key)) {
+        result.rejects.add(new DeploymentImportResultDto.RejectedRow(row.source().row(), String.format(
+          "Aplikace '%s' ve verzi '%s' již byla na prostředí '%s' nasazena.",
+          row.source().appKey(), row.source().versionName(), row.source().environmentName()
+        )));
+        continue;
+      }
+      Deployment deployment = new Deployment(
+        environmentService.getReference(row.envId()),
+        versionService.getReference(versionId),
+        row.source().jiraUrl(),
+        row.source().deployedAt()
+      );
+      // projekt zname z hierarchie, reference verze se tak nemusi nacitat
+      deployment.setRootProjectId(row.projectId());
+      deployments.add(deployment);
+      result.affectedAppIds.add(row.appId());
+    }
+    // flush uvnitr davky, aby se chyba DB projevila zde a ne az pri commitu
+    deploymentService.insertAll(deployments);
+
+    result.imported = deployments.size();
+
+    return result;
+  }
+
+  // verze aplikace podle nazvu bez ohledu na velikost pismen
+  private record VersionKey(Long appId, String name) {
+    static VersionKey of(Long appId, String name) {
+      return new VersionKey(appId, name.toLowerCase());
+    }
+  }
+
+  private record DeploymentKey(Long envId, Long versionId) {}
+
+  private record ResolvedRow(DeploymentImportReader.Row source, Long appId, Long projectId, Long envId) {
+    VersionKey versionKey() {
+      return VersionKey.of(appId, source.versionName());
+    }
+  }
+
+  // vysledek jedne davky, do stavu importu se promitne az po commitu
+  private static final class ChunkResult {
+    private final Map<VersionKey, Long> versionIds = new HashMap<>();
+    private final Set<Long> checkedVersionIds = new HashSet<>();
+    private final Set<DeploymentKey> deploymentKeys = new HashSet<>();
+    private final Set<Long> affectedAppIds = new HashSet<>();
+    private final List<DeploymentImportResultDto.RejectedRow> rejects = new ArrayList<>();
+    private long imported;
+
+    Long versionId(Import state, ResolvedRow row) {
+      Long versionId = versionIds.get(row.versionKey());
+
+      return versionId != null ? versionId : state.versionIds.get(row.versionKey());
+    }
+  }
+
+  // stav celeho importu - ciselniky nactene jednou a vysledky commitnutych davek
+  private static final class Import {
+    private final AppHierarchy hierarchy;
+    // (id projektu, nazev prostredi) -> id prostredi
+    private final Map<Long, Map<String, Long>> environmentIds = new HashMap<>();
+
+    private final Map<VersionKey, Long> versionIds = new HashMap<>();
+    private final Set<Long> checkedVersionIds = new HashSet<>();
+    private final Set<DeploymentKey> deploymentKeys = new HashSet<>();
+    private final Set<Long> affectedAppIds = new HashSet<>();
+
+    private final List<DeploymentImportResultDto.RejectedRow> rejects = new ArrayList<>();
+    private long imported;
+    private long rejected;
+
+    Import(AppHierarchy hierarchy, List<EnvironmentKeyRow> environments) {
+      this.hierarchy = hierarchy;
+      environments.forEach(env ->
+        environmentIds.computeIfAbsent(env.appId(), appId -> new HashMap<>()).put(env.name(), env.id())
+      );
+    }
+
+    // prostredi patri pod korenovy projekt aplikace
+    Optional<ResolvedRow> resolve(DeploymentImportReader.Row row) {
+      Optional<AppNode> app = hierarchy.get(row.appKey());
+
+      if (app.isEmpty()) {
+        this.reject(row.row(), new CustomExceptions.NotManagedException(App.CZECH_NAME, row.appKey()).getMessage());
+        return Optional.empty();
+      }
+      Long projectId = hierarchy.getProjectId(app.get().id());
+      Long envId = projectId == null
+        ? null
+        : environmentIds.getOrDefault(projectId, Map.of()).get(row.environmentName());
+
+      if (envId == null) {
+        String projectKey = projectId == null ? row.appKey() : hierarchy.get(projectId).map(AppNode::key).orElse(row.appKey());
+
+        this.reject(row.row(), new CustomExceptions.NotManagedException(
+          App.CZECH_NAME, Environment.CZECH_NAME, projectKey, row.environmentName()).getMessage());
+        return Optional.empty();
+      }
+      return Optional.of(new ResolvedRow(row, app.get().id(), projectId, envId));
+    }
+
+    void commit(ChunkResult result) {
+      result.versionIds.forEach((key, id) -> { if (id != null) versionIds.put(key, id); });
+      checkedVersionIds.addAll(result.checkedVersionIds);
+      deploymentKeys.addAll(result.deploymentKeys);
+      affectedAppIds.addAll(result.affectedAppIds);
+      result.rejects.forEach(reject -> this.reject(reject.row(), reject.reason()));
+      imported += result.imported;
+    }
+
+    void reject(long row, String reason) {
+      rejected++;
+      if (rejects.size() < MAX_REPORTED_REJECTS) {
+        rejects.add(new DeploymentImportResultDto.RejectedRow(row, reason));
+      }
+    }
+  }
+}
@@ -1,20 +1,48 @@
 package cz.oksystem.deployment_dashboard.service;
 
+import cz.oksystem.deployment_dashboard.dto.DeploymentFilterDto;
 import cz.oksystem.deployment_dashboard.entity.Deployment;
+import cz.oksystem.deployment_dashboard.entity.Environment;
+import cz.oksystem.deployment_dashboard.entity.JiraTicket;
 import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
 import cz.oksystem.deployment_dashboard.repository.DeploymentRepository;
+import cz.oksystem.deployment_dashboard.repository.projections.CurrentVersionRow;
+import cz.oksystem.deployment_dashboard.repository.projections.DeploymentCellRow;
+import cz.oksystem.deployment_dashboard.repository.projections.DeploymentKeyRow;
+import cz.oksystem.deployment_dashboard.repository.projections.DeploymentRow;
+import cz.oksystem.deployment_dashboard.repository.projections.LastDeploymentRow;
+import cz.oksystem.deployment_dashboard.repository.projections.TicketComponentRow;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Objects;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class DeploymentService {
+  public static final int MAX_PAGE_SIZE = 500;
+  private static final int EXPORT_FETCH_SIZE = 1000;
+
   private final DeploymentRepository deploymentRepository;
+  private final CurrentDeploymentService currentDeploymentService;
+  private final JiraTicketService jiraTicketService;
 
-  public DeploymentService(DeploymentRepository deploymentRepository) { this.deploymentRepository = deploymentRepository; }
+  public DeploymentService(DeploymentRepository deploymentRepository, CurrentDeploymentService currentDeploymentService, JiraTicketService jiraTicketService) {
+    this.deploymentRepository = deploymentRepository;
+    this.currentDeploymentService = currentDeploymentService;
+    this.jiraTicketService = jiraTicketService;
+  }
 
   @Transactional
   public Deployment save(Deployment deployment) {
@@ -26,12 +54,32 @@ public class DeploymentService {
 
       ret = fetchedDeployment.get();
     } else {
+      this.assignTickets(List.of(deployment));
       ret = deploymentRepository.save(deployment);
     }
+    currentDeploymentService.markCurrent(ret);
 
     return ret;
   }
 
+  // nova nasazeni se vlozi (JDBC batch), u existujicich (prenasazeni) se aktualizuje datum
+  @Transactional
+  public List<Deployment> saveAll(Collection<Deployment> deployments) {
+    List<Deployment> newDeployments = deployments.stream()
+      .filter(deployment -> deployment.getId() == null)
+      .toList();
+
+    deployments.stream()
+      .filter(deployment -> deployment.getId() != null)
+      .forEach(deployment -> deployment.setDate(LocalDateTime.now()));
+
+    this.assignTickets(newDeployments);
+    deploymentRepository.saveAll(newDeployments);
+    currentDeploymentService.markCurrent(deployments);
+
+    return List.copyOf(deployments);
+  }
+
   @Transactional(readOnly = true)
   public Optional<Deployment> get(Deployment deployment) {
     // prostředí patří pod projekt, musíme proto hledat appku přes verze
@@ -47,16 +95,140 @@ public class DeploymentService {
     return deploymentRepository.findByAppAndEnvironmentAndVersion(appKey, envKey, versionName);
   }
 
-  public Optional<Deployment> getLastDeploymentForApp(String appKey) {
-    return deploymentRepository.getLastDeploymentForApp(appKey);
+  // reference bez dotazu do DB, nasazeni se nacte az pri pristupu k jeho polozkam
+  @Transactional(readOnly = true)
+  public Deployment getReference(Long id) {
+    return deploymentRepository.getReferenceById(id);
+  }
+
+  @Transactional(readOnly = true)
+  public Map<Long, CurrentVersionRow> getLastDeploymentsForApps(Collection<Long> appIds) {
+    return currentDeploymentService.getLatestForApps(appIds);
+  }
+
+  @Transactional(readOnly = true)
+  public List<DeploymentKeyRow> getDeploymentKeys(Collection<Long> versionIds) {
+    if (versionIds.isEmpty()) {
+      return List.of();
+    }
+    return deploymentRepository.findDeploymentKeysByVersionIds(versionIds);
+  }
+
+  // historicka nasazeni (import) - jen vlozeni, aktualni stav aplikaci dopocita volajici
+  @Transactional
+  public List<Deployment> insertAll(Collection<Deployment> deployments) {
+    this.assignTickets(deployments);
+    return deploymentRepository.saveAllAndFlush(deployments);
   }
 
-  public List<Deployment> getAllDeployments() {
-    return deploymentRepository.findAll();
+  // existujici nasazeni verzi na prostredi, versionId -> nasazeni
+  @Transactional(readOnly = true)
+  public Map<Long, Deployment> getAll(Environment env, Collection<Long> versionIds) {
+    if (versionIds.isEmpty()) {
+      return Map.of();
+    }
+    return deploymentRepository.findByEnvironmentAndVersionIds(env.getId(), versionIds).stream()
+      .collect(Collectors.toMap(deployment -> deployment.getVersion().getId(), Function.identity()));
   }
 
+  // cela historie, nejnovejsi nasazeni prvni
+  @Transactional(readOnly = true)
+  public List<DeploymentRow> getAllDeploymentRows() {
+    return deploymentRepository.findAllDeploymentRows();
+  }
+
+  // vraci az limit + 1 radku, posledni radek slouzi jen k rozpoznani, zda existuje dalsi stranka
+  @Transactional(readOnly = true)
+  public List<DeploymentRow> getDeploymentPage(DeploymentFilterDto filter, @Nullable String cursor, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new CustomExceptions.InvalidPageRequestException(
+        String.format("Velikost stránky musí být v rozmezí 1 až %d.", MAX_PAGE_SIZE)
+      );
+    }
+
+    if (cursor == null || cursor.isBlank()) {
+      return deploymentRepository.findDeploymentPage(filter, null, null, limit + 1);
+    }
+
+    // kurzor ma tvar base64url("<date>|<id>"), u nasazeni bez data je <date> prazdne
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separatorIndex = decoded.lastIndexOf('|');
+      String date = decoded.substring(0, separatorIndex);
+
+      return deploymentRepository.findDeploymentPage(
+        filter,
+        date.isEmpty() ? null : LocalDateTime.parse(date),
+        Long.parseLong(decoded.substring(separatorIndex + 1)),
+        limit + 1
+      );
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+      throw new CustomExceptions.InvalidPageRequestException("Neplatný kurzor stránkování.");
+    }
+  }
+
+  // stream je nutne uzavrit a spotrebovat uvnitr transakce volajiciho
+  @Transactional(readOnly = true)
+  public Stream<DeploymentRow> streamDeploymentRows(DeploymentFilterDto filter) {
+    return deploymentRepository.streamDeployments(filter, EXPORT_FETCH_SIZE);
+  }
+
+  public String getPageCursor(DeploymentRow lastRow) {
+    String cursor = (lastRow.date() == null ? "" : lastRow.date().toString()) + "|" + lastRow.id();
+
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // pres index ticket_id, ne porovnanim retezcu jira_url
+  @Transactional(readOnly = true)
   public List<Deployment> getDeployedAppsByJiraUuid(Optional<String> jiraUrl) {
-    return deploymentRepository.findByJiraUrl(jiraUrl);
+    return jiraUrl.flatMap(jiraTicketService::get)
+      .map(ticket -> deploymentRepository.findByTicketId(ticket.getId()))
+      .orElse(List.of());
+  }
+
+  // radky pro kazdou dvojici (aplikace, prostredi), nejnovejsi za aplikaci si vybere volajici
+  @Transactional(readOnly = true)
+  public List<LastDeploymentRow> getLastDeploymentsForAllApps() {
+    return currentDeploymentService.getCurrentDeploymentRows();
+  }
+
+  @Transactional(readOnly = true)
+  public List<LastDeploymentRow> getLastDeploymentsForProjects(Collection<Long> projectIds) {
+    return currentDeploymentService.getCurrentDeploymentRowsByProjects(projectIds);
+  }
+
+  @Transactional(readOnly = true)
+  public List<TicketComponentRow> getDeployedAppKeysByTicketIds(Collection<Long> ticketIds) {
+    if (ticketIds.isEmpty()) {
+      return List.of();
+    }
+    return deploymentRepository.findAppKeysByTicketIds(ticketIds);
+  }
+
+  @Transactional(readOnly = true)
+  public List<DeploymentCellRow> getDeploymentCells(Collection<Long> appIds) {
+    if (appIds.isEmpty()) {
+      return List.of();
+    }
+    return deploymentRepository.findDeploymentCellsByAppIds(appIds);
+  }
+
+  // tickety vsech nasazeni jednim dotazem (chybejici se zalozi), nasazeni bez jiraUrl ticket nemaji
+  private void assignTickets(Collection<Deployment> deployments) {
+    List<String> jiraUrls = deployments.stream()
+      .map(deployment -> deployment.getJiraUrl().orElse(null))
+      .filter(Objects::nonNull)
+      .toList();
+
+    if (jiraUrls.isEmpty()) {
+      return;
+    }
+    Map<JiraTicket.Key, JiraTicket> tickets = jiraTicketService.resolve(jiraUrls);
+
+    deployments.forEach(deployment -> deployment.getJiraUrl().ifPresent(
+      jiraUrl -> deployment.setTicket(tickets.get(JiraTicket.Key.of(jiraUrl)))
+    ));
   }
 
   @Transactional
@@ -72,6 +244,9 @@ public class DeploymentService {
 
   @Transactional
   public void delete(Deployment deployment) {
+    Long appId = deployment.getVersion().getApp().getId();
+
     deploymentRepository.delete(deployment);
+    currentDeploymentService.refresh(appId);
   }
 }
@@ -4,10 +4,13 @@ import cz.oksystem.deployment_dashboard.entity.App;
 import cz.oksystem.deployment_dashboard.entity.Environment;
 import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
 import cz.oksystem.deployment_dashboard.repository.EnvironmentRepository;
+import cz.oksystem.deployment_dashboard.repository.projections.EnvironmentKeyRow;
+import cz.oksystem.deployment_dashboard.repository.projections.EnvironmentRow;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -15,9 +18,11 @@ import java.util.Optional;
 @Service
 public class EnvironmentService {
   private final EnvironmentRepository environmentRepository;
+  private final LookupCaches lookupCaches;
 
-  public EnvironmentService(EnvironmentRepository environmentRepository) {
+  public EnvironmentService(EnvironmentRepository environmentRepository, LookupCaches lookupCaches) {
     this.environmentRepository = environmentRepository;
+    this.lookupCaches = lookupCaches;
   }
 
   @Transactional
@@ -66,6 +71,9 @@ public class EnvironmentService {
 
     this.validate(updateWith);
 
+    lookupCaches.environments().evict(LookupCaches.environmentKey(appKey, envKeyToUpdate));
+    lookupCaches.environments().evict(LookupCaches.environmentKey(appKey, updateWith.getName()));
+
     envToUpdate.setName(updateWith.getName());
   }
 
@@ -83,6 +91,8 @@ public class EnvironmentService {
       );
     }
 
+    lookupCaches.environments().evict(LookupCaches.environmentKey(appKey, envKeyToDelete));
+
     environmentRepository.delete(envToDelete);
   }
 
@@ -93,6 +103,30 @@ public class EnvironmentService {
 
   @Transactional(readOnly = true)
   public Optional<Environment> get(String appKey, String name) {
-    return environmentRepository.findByAppKeyAndName(appKey, name);
+    return lookupCaches.environments().resolve(
+      LookupCaches.environmentKey(appKey, name),
+      environmentRepository::getReferenceById,
+      () -> environmentRepository.findByAppKeyAndName(appKey, name),
+      Environment::getId
+    );
+  }
+
+  @Transactional(readOnly = true)
+  public List<EnvironmentKeyRow> getAllEnvironmentKeyRows() {
+    return environmentRepository.findAllEnvironmentKeyRows();
+  }
+
+  // reference bez dotazu do DB
+  @Transactional(readOnly = true)
+  public Environment getReference(Long id) {
+    return environmentRepository.getReferenceById(id);
+  }
+
+  @Transactional(readOnly = true)
+  public List<EnvironmentRow> getEnvironmentRows(Collection<Long> appIds) {
+    if (appIds.isEmpty()) {
+      return List.of();
+    }
+    return environmentRepository.findEnvironmentRowsByAppIds(appIds);
   }
 }
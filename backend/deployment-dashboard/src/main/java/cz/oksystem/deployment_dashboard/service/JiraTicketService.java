@@ -0,0 +1,65 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import cz.oksystem.deployment_dashboard.entity.JiraTicket;
+import cz.oksystem.deployment_dashboard.repository.JiraTicketRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// preklad hodnot jiraUrl na radky jira_tickets, chybejici tickety se zalozi v transakci volajiciho;
+// samostatna transakce by pri plnem poolu spojeni zablokovala soubezne releasy, soubezne prvni
+// pouziti stejneho ticketu tak jeden z releasu shodi na unikatnim klici (CI ho zopakuje)
+@Service
+public class JiraTicketService {
+  private final JiraTicketRepository jiraTicketRepository;
+
+  public JiraTicketService(JiraTicketRepository jiraTicketRepository) {
+    this.jiraTicketRepository = jiraTicketRepository;
+  }
+
+  @Transactional(readOnly = true)
+  public Optional<JiraTicket> get(String url) {
+    JiraTicket.Key key = JiraTicket.Key.of(url);
+
+    return Optional.ofNullable(this.find(Set.of(key)).get(key));
+  }
+
+  // klic ticketu -> ticket pro vsechny zadane hodnoty jiraUrl; jeden dotaz, pokud tickety existuji
+  @Transactional
+  public Map<JiraTicket.Key, JiraTicket> resolve(Collection<String> urls) {
+    Set<JiraTicket.Key> keys = urls.stream().map(JiraTicket.Key::of).collect(Collectors.toSet());
+
+    if (keys.isEmpty()) {
+      return Map.of();
+    }
+    Map<JiraTicket.Key, JiraTicket> tickets = this.find(keys);
+
+    List<JiraTicket> missing = keys.stream()
+      .filter(key -> !tickets.containsKey(key))
+      .map(JiraTicket::new)
+      .toList();
+
+    // id prideluje pooled sekvence uz pri persist, vlozi se az s nasazenimi (JDBC batch)
+    jiraTicketRepository.saveAll(missing).forEach(ticket -> tickets.put(ticket.getTicketKey(), ticket));
+
+    return tickets;
+  }
+
+  private Map<JiraTicket.Key, JiraTicket> find(Set<JiraTicket.Key> keys) {
+    Set<String> ticketKeys = keys.stream().map(JiraTicket.Key::key).collect(Collectors.toSet());
+    Map<JiraTicket.Key, JiraTicket> tickets = new HashMap<>();
+
+    jiraTicketRepository.findAllByKeys(ticketKeys).stream()
+      .filter(ticket -> keys.contains(ticket.getTicketKey()))
+      .forEach(ticket -> tickets.put(ticket.getTicketKey(), ticket));
+
+    return tickets;
+  }
+}
@@ -0,0 +1,138 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// omezena LRU cache klic -> id entity s expiraci; zasah vraci referenci (getReferenceById)
+// bez dotazu do DB, entita se nacte az pri pristupu k jejim polozkam; existence entity se na zasah
+// neoveruje, cache proto plati jen pro jedinou instanci (zmeny jine instance by neevikovaly),
+// pri vice instancich (deploydash.single-instance=false) se obchazi
+public class LookupCache<K> {
+  private final boolean enabled;
+  private final int maxSize;
+  private final long ttlNanos;
+  private final Counter hits;
+  private final Counter misses;
+
+  private final LinkedHashMap<K, Entry> entries;
+
+  public LookupCache(String name, int maxSize, Duration ttl, MeterRegistry meterRegistry, boolean enabled) {
+    this.enabled = enabled;
+    this.maxSize = maxSize;
+    this.ttlNanos = ttl.toNanos();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry> eldest) {
+        return size() > LookupCache.this.maxSize;
+      }
+    };
+
+    this.hits = Counter.builder("deploydash.lookup.cache")
+      .tag("cache", name)
+      .tag("result", "hit")
+      .register(meterRegistry);
+    this.misses = Counter.builder("deploydash.lookup.cache")
+      .tag("cache", name)
+      .tag("result", "miss")
+      .register(meterRegistry);
+    Gauge.builder("deploydash.lookup.cache.size", this, LookupCache::size)
+      .tag("cache", name)
+      .register(meterRegistry);
+  }
+
+  // id z cache se uz neoveruje, do cache se proto dostane az po commitu (odrolovana zmena klice
+  // ani odrolovane zalozeni entity v cache nezustane)
+  public <E> Optional<E> resolve(K key,
+                                 Function<Long, E> getReference,
+                                 Supplier<Optional<E>> findByKey,
+                                 Function<E, Long> idOf) {
+    if (key == null || !enabled) {
+      return findByKey.get();
+    }
+
+    Long cachedId = this.get(key);
+    if (cachedId != null) {
+      hits.increment();
+      return Optional.of(getReference.apply(cachedId));
+    }
+    misses.increment();
+
+    // nenalezene klice necachujeme, entita muze vzniknout
+    Optional<E> fetched = findByKey.get();
+    fetched.ifPresent(entity -> {
+      Long id = idOf.apply(entity);
+      this.afterCommit(() -> this.put(key, id));
+    });
+
+    return fetched;
+  }
+
+  // hned (dalsi dotazy v transakci) i po commitu, aby smazanou nebo prejmenovanou entitu
+  // nevratil do cache soubezny dotaz, ktery ji jeste videl
+  public void evict(K key) {
+    this.remove(key);
+    this.afterCommit(() -> this.remove(key));
+  }
+
+  public void evictIf(Predicate<K> predicate) {
+    this.removeIf(predicate);
+    this.afterCommit(() -> this.removeIf(predicate));
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private synchronized void remove(K key) {
+    entries.remove(key);
+  }
+
+  private synchronized void removeIf(Predicate<K> predicate) {
+    entries.keySet().removeIf(predicate);
+  }
+
+  private synchronized Long get(K key) {
+    Entry entry = entries.get(key);
+
+    if (entry == null) {
+      return null;
+    }
+    if (System.nanoTime() - entry.createdAt() > ttlNanos) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.id();
+  }
+
+  private synchronized void put(K key, Long id) {
+    if (id != null) {
+      entries.put(key, new Entry(id, System.nanoTime()));
+    }
+  }
+
+  private void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private record Entry(Long id, long createdAt) {}
+}
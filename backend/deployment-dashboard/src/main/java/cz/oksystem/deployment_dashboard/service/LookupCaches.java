@@ -0,0 +1,58 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// cache prekladu klicu na id pro aplikace, prostredi a verze, jen pro jedinou instanci (viz LookupCache)
+@Component
+public class LookupCaches {
+  private final LookupCache<String> apps;
+  private final LookupCache<AppScopedKey> environments;
+  private final LookupCache<AppScopedKey> versions;
+
+  public LookupCaches(MeterRegistry meterRegistry,
+                      @Value("${deploydash.lookup-cache.max-size:10000}") int maxSize,
+                      @Value("${deploydash.lookup-cache.ttl:10m}") Duration ttl,
+                      @Value("${deploydash.single-instance:true}") boolean singleInstance) {
+    this.apps = new LookupCache<>("apps", maxSize, ttl, meterRegistry, singleInstance);
+    this.environments = new LookupCache<>("environments", maxSize, ttl, meterRegistry, singleInstance);
+    this.versions = new LookupCache<>("versions", maxSize, ttl, meterRegistry, singleInstance);
+  }
+
+  // Getters
+  public LookupCache<String> apps() { return this.apps; }
+
+  public LookupCache<AppScopedKey> environments() { return this.environments; }
+
+  public LookupCache<AppScopedKey> versions() { return this.versions; }
+
+  // klice aplikaci a nazvy verzi jsou v DB case-insensitive
+  public static String appKey(String key) {
+    return key == null ? null : key.toLowerCase();
+  }
+
+  public static AppScopedKey environmentKey(String appKey, String envName) {
+    return appKey == null || envName == null ? null : new AppScopedKey(appKey(appKey), envName);
+  }
+
+  public static AppScopedKey versionKey(String appKey, String versionName) {
+    return appKey == null || versionName == null ? null : new AppScopedKey(appKey(appKey), versionName.toLowerCase());
+  }
+
+  // pri zmene nebo smazani aplikace zahodime i jeji prostredi a verze
+  public void evictApps(Collection<String> appKeys) {
+    Set<String> normalizedKeys = appKeys.stream().map(LookupCaches::appKey).collect(Collectors.toSet());
+
+    normalizedKeys.forEach(apps::evict);
+    environments.evictIf(key -> normalizedKeys.contains(key.appKey()));
+    versions.evictIf(key -> normalizedKeys.contains(key.appKey()));
+  }
+
+  public record AppScopedKey(String appKey, String name) {}
+}
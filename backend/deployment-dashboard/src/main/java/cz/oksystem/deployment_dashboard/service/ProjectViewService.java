@@ -0,0 +1,199 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import cz.oksystem.deployment_dashboard.dto.ProjectDetailDto;
+import cz.oksystem.deployment_dashboard.dto.ProjectOverviewDto;
+import cz.oksystem.deployment_dashboard.dto.VersionDto;
+import cz.oksystem.deployment_dashboard.entity.App;
+import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
+import cz.oksystem.deployment_dashboard.repository.projections.*;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// sestavuje overview a detaily projektu z hromadne nactenych projekci,
+// pocet dotazu nezavisi na poctu projektu a komponent
+@Service
+public class ProjectViewService {
+  private final AppService appService;
+  private final EnvironmentService environmentService;
+  private final VersionService versionService;
+  private final DeploymentService deploymentService;
+
+  private static final Comparator<LastDeploymentRow> LAST_DEPLOYMENT_ORDER = Comparator
+    .comparing(LastDeploymentRow::date, Comparator.nullsFirst(Comparator.naturalOrder()))
+    .thenComparing(LastDeploymentRow::deploymentId);
+
+
+  public ProjectViewService(AppService appService, EnvironmentService environmentService, VersionService versionService, DeploymentService deploymentService) {
+    this.appService = appService;
+    this.environmentService = environmentService;
+    this.versionService = versionService;
+    this.deploymentService = deploymentService;
+  }
+
+  @Transactional(readOnly = true)
+  public AppHierarchy getHierarchy() {
+    return new AppHierarchy(appService.getAllAppNodes());
+  }
+
+  @Transactional(readOnly = true)
+  public List<ProjectOverviewDto> getAllProjectOverviews() {
+    AppHierarchy hierarchy = this.getHierarchy();
+
+    return this.buildProjectOverviewDtos(hierarchy, hierarchy.getProjects(), deploymentService.getLastDeploymentsForAllApps());
+  }
+
+  @Transactional(readOnly = true)
+  public List<ProjectOverviewDto> getProjectOverviews(AppHierarchy hierarchy, List<AppNode> projects) {
+    Set<Long> projectIds = new HashSet<>();
+    projects.forEach(project -> projectIds.add(project.id()));
+
+    return this.buildProjectOverviewDtos(hierarchy, projects, deploymentService.getLastDeploymentsForProjects(projectIds));
+  }
+
+  @Transactional(readOnly = true)
+  public ProjectDetailDto getAppDetailDto(String key) {
+    App fetchedApp = appService.get(key).orElseThrow(
+      () -> new CustomExceptions.NotManagedException(App.CZECH_NAME, key)
+    );
+
+    // jen strom projektu aplikace, ne cela hierarchie
+    AppHierarchy hierarchy = appService.getTree(fetchedApp.getId());
+
+    return this.getProjectDetails(hierarchy, hierarchy.get(fetchedApp.getId()).stream().toList()).getFirst();
+  }
+
+  @Transactional(readOnly = true)
+  public List<ProjectDetailDto> getAllAppDetailDtos() {
+    AppHierarchy hierarchy = this.getHierarchy();
+
+    return this.getProjectDetails(hierarchy, hierarchy.getProjects());
+  }
+
+  // overview se sklada z pevneho poctu dotazu (hierarchie, posledni nasazeni, komponenty dle ticketu)
+  private List<ProjectOverviewDto> buildProjectOverviewDtos(AppHierarchy hierarchy, List<AppNode> projects, List<LastDeploymentRow> lastDeployments) {
+    // nejnovejsi nasazeni za projekt vcetne jeho komponent, projekt nese radek (root_project_id)
+    Map<Long, LastDeploymentRow> projectIdToLastDeployment = new HashMap<>();
+
+    for (LastDeploymentRow row : lastDeployments) {
+      Long projectId = row.projectId() != null ? row.projectId() : hierarchy.getProjectId(row.appId());
+
+      if (projectId != null) {
+        projectIdToLastDeployment.merge(projectId, row, (current, candidate) ->
+          LAST_DEPLOYMENT_ORDER.compare(candidate, current) > 0 ? candidate : current);
+      }
+    }
+
+    // komponenty podle ticketu pres index ticket_id
+    Set<Long> ticketIds = projectIdToLastDeployment.values().stream()
+      .map(LastDeploymentRow::ticketId)
+      .filter(Objects::nonNull)
+      .collect(Collectors.toSet());
+
+    Map<Long, List<String>> ticketIdToAppKeys = deploymentService.getDeployedAppKeysByTicketIds(ticketIds)
+      .stream()
+      .collect(Collectors.groupingBy(
+        TicketComponentRow::ticketId,
+        Collectors.mapping(TicketComponentRow::appKey, Collectors.toList())
+      ));
+
+    List<ProjectOverviewDto> projectOverviews = new ArrayList<>();
+
+    for (AppNode project : projects) {
+      ProjectOverviewDto projectOverview = new ProjectOverviewDto(project.key(), project.name());
+      LastDeploymentRow lastDeployment = projectIdToLastDeployment.get(project.id());
+
+      if (lastDeployment != null) {
+        projectOverview.setLastDeployedAt(lastDeployment.date());
+        projectOverview.setLastDeployedVersionName(lastDeployment.versionName());
+        projectOverview.setLastDeployedToEnvName(lastDeployment.environmentName());
+
+        if (lastDeployment.jiraUrl() != null) {
+          projectOverview.setLastDeploymentJiraUrl(lastDeployment.jiraUrl());
+          projectOverview.setVersionedComponentsNames(
+            lastDeployment.ticketId() == null ? List.of() : ticketIdToAppKeys.getOrDefault(lastDeployment.ticketId(), List.of())
+          );
+        }
+      }
+      projectOverviews.add(projectOverview);
+    }
+    return projectOverviews;
+  }
+
+  // detaily pro vice aplikaci najednou - verze, nasazeni a prostredi se nacitaji hromadne
+  // podle id aplikaci, pocet dotazu tedy nezavisi na velikosti stromu
+  @Transactional(readOnly = true)
+  public List<ProjectDetailDto> getProjectDetails(AppHierarchy hierarchy, List<AppNode> detailRoots) {
+    Map<Long, List<AppNode>> rootIdToApps = new LinkedHashMap<>();
+    Set<Long> appIds = new HashSet<>();
+    Set<Long> projectIds = new HashSet<>();
+
+    for (AppNode root : detailRoots) {
+      List<AppNode> apps = hierarchy.getSubtree(root.id());
+
+      rootIdToApps.put(root.id(), apps);
+      apps.forEach(app -> appIds.add(app.id()));
+
+      Long projectId = hierarchy.getProjectId(root.id());
+      if (projectId != null) {
+        projectIds.add(projectId);
+      }
+    }
+
+    // prostredi patri pod projekt
+    Map<Long, List<String>> projectIdToEnvNames = environmentService.getEnvironmentRows(projectIds)
+      .stream()
+      .collect(Collectors.groupingBy(
+        EnvironmentRow::appId,
+        Collectors.mapping(EnvironmentRow::name, Collectors.toList())
+      ));
+
+    // inicializujeme mapu versionId -> envName -> <deployedDate, jiraUrl>
+    Map<Long, Map<String, Pair<LocalDateTime, String>>> versionIdToEnvironmentMap = new HashMap<>();
+
+    for (DeploymentCellRow cell : deploymentService.getDeploymentCells(appIds)) {
+      // odkaz se prevede az pri serializaci (CustomProtocolsSerializer.DateAndUrl)
+      String jiraUrl = cell.jiraUrl() == null ? "" : cell.jiraUrl();
+
+      versionIdToEnvironmentMap
+        .computeIfAbsent(cell.versionId(), versionId -> new HashMap<>())
+        .put(cell.environmentName(), Pair.of(cell.date(), jiraUrl));
+    }
+
+    // verze jsou serazene podle id, nejnovejsi dame na zacatek
+    Map<Long, List<VersionDto>> appIdToVersionDtos = new HashMap<>();
+
+    for (VersionRow version : versionService.getVersionRows(appIds)) {
+      VersionDto versionDto = new VersionDto(version.id(), version.name(), version.description() == null ? "" : version.description());
+      versionDto.setEnvironmentToDateAndJiraUrlMap(versionIdToEnvironmentMap.getOrDefault(version.id(), new HashMap<>()));
+
+      appIdToVersionDtos.computeIfAbsent(version.appId(), appId -> new ArrayList<>()).addFirst(versionDto);
+    }
+
+    List<ProjectDetailDto> detailDtos = new ArrayList<>();
+
+    rootIdToApps.forEach((rootId, apps) -> {
+      AppNode root = apps.getFirst();
+      ProjectDetailDto detailDto = new ProjectDetailDto(root.key(), root.name());
+
+      Map<String, List<VersionDto>> componentToVersionDtoMap = new HashMap<>();
+      apps.forEach(app -> componentToVersionDtoMap.put(app.key(), appIdToVersionDtos.getOrDefault(app.id(), new ArrayList<>())));
+
+      detailDto.setEnvironmentNames(projectIdToEnvNames.getOrDefault(hierarchy.getProjectId(rootId), List.of()));
+      detailDto.setComponentKeysAndNamesMap(apps.stream().collect(
+        Collectors.toMap(
+          AppNode::key,
+          AppNode::name
+        )
+      ));
+      detailDto.setAppKeyToVersionDtosMap(componentToVersionDtoMap);
+
+      detailDtos.add(detailDto);
+    });
+    return detailDtos;
+  }
+}
@@ -0,0 +1,180 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import cz.oksystem.deployment_dashboard.repository.ReleaseDigestRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// opakovane releasy (retry z CI) - pro kazdy (projekt, prostredi, mnozina aplikaci) se pamatuje otisk
+// posledniho commitnuteho releasu (ticket, verze, force); shodny pozadavek se odbavi puvodni odpovedi
+// bez zapisu, jiny release stejnych aplikaci otisk prepise (rollback po retry se tak nepropasne);
+// tabulka release_digests prezije restart a sdili se mezi instancemi; omezeny LRU index v pameti
+// nevidi releasy jinych instanci (odpovedel by podle zastaraleho otisku), pouziva se proto jen
+// pro jedinou instanci (deploydash.single-instance), jinak se opakovani overuje jen v tabulce
+@Service
+public class ReleaseDigests {
+  private final ReleaseDigestRepository releaseDigestRepository;
+  private final boolean enabled;
+  private final boolean singleInstance;
+  private final int maxSize;
+  private final Duration ttl;
+  private final Counter duplicates;
+
+  // klic releasu -> posledni otisk, chraneno zamkem this
+  private final LinkedHashMap<String, Entry> recent;
+  private volatile LocalDateTime lastPurge = LocalDateTime.MIN;
+
+  public ReleaseDigests(ReleaseDigestRepository releaseDigestRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${deploydash.release-idempotency.enabled:true}") boolean enabled,
+                        @Value("${deploydash.release-idempotency.max-size:10000}") int maxSize,
+                        @Value("${deploydash.release-idempotency.ttl:10m}") Duration ttl,
+                        @Value("${deploydash.single-instance:true}") boolean singleInstance) {
+    this.releaseDigestRepository = releaseDigestRepository;
+    this.enabled = enabled;
+    this.singleInstance = singleInstance;
+    this.maxSize = maxSize;
+    this.ttl = ttl;
+    this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > ReleaseDigests.this.maxSize;
+      }
+    };
+
+    this.duplicates = Counter.builder("deploydash.release.duplicates")
+      .description("Repeated releases answered without writing")
+      .register(meterRegistry);
+  }
+
+  // klice aplikaci a nazvy verzi jsou case-insensitive, nazev prostredi ne (envs.name),
+  // poradi aplikaci na otisk nema vliv
+  public Digest digest(String projectKey, String envKey, Map<String, String> versionedApps, String jiraTicket, boolean force) {
+    Map<String, String> sorted = new TreeMap<>();
+    if (versionedApps != null) {
+      versionedApps.forEach((appKey, versionName) -> sorted.put(appKey.toLowerCase(), versionName.toLowerCase()));
+    }
+
+    StringBuilder release = new StringBuilder()
+      .append(projectKey.toLowerCase()).append('\n')
+      .append(envKey).append('\n');
+    sorted.keySet().forEach(appKey -> release.append(appKey).append('\n'));
+
+    StringBuilder payload = new StringBuilder(release)
+      .append(jiraTicket == null ? "" : jiraTicket).append('\n')
+      .append(force).append('\n');
+    sorted.values().forEach(versionName -> payload.append(versionName).append('\n'));
+
+    return new Digest(sha256(release.toString()), sha256(payload.toString()));
+  }
+
+  // jen index v pameti, bez DB; pri vice instancich vzdy false
+  public boolean isRecent(Digest digest) {
+    if (enabled && singleInstance && this.inMemory(digest)) {
+      duplicates.increment();
+      return true;
+    }
+    return false;
+  }
+
+  // index v pameti, pak tabulka (release z jine instance nebo pred restartem)
+  public boolean isProcessed(Digest digest) {
+    if (!enabled) {
+      return false;
+    }
+    if (this.isRecent(digest)) {
+      return true;
+    }
+    if (releaseDigestRepository.existsSince(digest.releaseKey(), digest.payload(), LocalDateTime.now().minus(ttl))) {
+      duplicates.increment();
+      return true;
+    }
+    return false;
+  }
+
+  // v transakci releasu - do indexu v pameti az po commitu, odrolovany release se nepamatuje
+  @Transactional
+  public void remember(Digest digest, String projectKey) {
+    if (!enabled) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+
+    releaseDigestRepository.upsert(digest.releaseKey(), digest.payload(), projectKey, now);
+    if (lastPurge.plus(ttl).isBefore(now)) {
+      lastPurge = now;
+      releaseDigestRepository.deleteCreatedBefore(now.minus(ttl));
+    }
+
+    if (!singleInstance) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          ReleaseDigests.this.put(digest, projectKey);
+        }
+      });
+    } else {
+      this.put(digest, projectKey);
+    }
+  }
+
+  // po smazani verze, nasazeni, prostredi nebo aplikace uz opakovany release neni bez zapisu
+  // (evidence, kterou by zopakoval, uz neexistuje); z pameti hned, odrolovani jen vynuti zapis
+  @Transactional
+  public void forget(String projectKey) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      recent.values().removeIf(entry -> entry.projectKey().equalsIgnoreCase(projectKey));
+    }
+    releaseDigestRepository.deleteByProjectKey(projectKey);
+  }
+
+  private synchronized boolean inMemory(Digest digest) {
+    Entry entry = recent.get(digest.releaseKey());
+
+    if (entry == null) {
+      return false;
+    }
+    if (System.nanoTime() - entry.rememberedAt() > ttl.toNanos()) {
+      recent.remove(digest.releaseKey());
+      return false;
+    }
+    return entry.payload().equals(digest.payload());
+  }
+
+  private synchronized void put(Digest digest, String projectKey) {
+    recent.put(digest.releaseKey(), new Entry(digest.payload(), projectKey, System.nanoTime()));
+  }
+
+  private static String sha256(String value) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  // releaseKey - projekt, prostredi a aplikace, payload - cely pozadavek
+  public record Digest(String releaseKey, String payload) {}
+
+  private record Entry(String payload, String projectKey, long rememberedAt) {}
+}
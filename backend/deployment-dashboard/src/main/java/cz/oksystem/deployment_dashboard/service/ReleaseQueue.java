@@ -0,0 +1,109 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import cz.oksystem.deployment_dashboard.entity.QueuedRelease;
+import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
+import cz.oksystem.deployment_dashboard.repository.QueuedReleaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// fronta asynchronni evidence nasazeni - pozadavek se ulozi do outboxu (release_queue) a jeho id
+// se zaradi do omezene fronty v pameti, kterou vybira ReleaseQueueWriter; plna fronta pozadavek
+// odmitne (503), po restartu se fronta obnovi z nezpracovanych radku outboxu
+@Service
+public class ReleaseQueue {
+  private final QueuedReleaseRepository queuedReleaseRepository;
+  private final TransactionTemplate outboxTransaction;
+  private final boolean enabled;
+  private final BlockingQueue<Long> queue;
+
+  public ReleaseQueue(QueuedReleaseRepository queuedReleaseRepository,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry,
+                      @Value("${deploydash.release-queue.enabled:false}") boolean enabled,
+                      @Value("${deploydash.release-queue.capacity:10000}") int capacity) {
+    this.queuedReleaseRepository = queuedReleaseRepository;
+    // pozadavek musi byt v outboxu commitnuty driv, nez ho potvrdime, i kdyz volajici transakci ma
+    this.outboxTransaction = new TransactionTemplate(transactionManager);
+    this.outboxTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.enabled = enabled;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+
+    Gauge.builder("deploydash.release-queue.size", queue, BlockingQueue::size)
+      .description("Queued releases waiting for the writer")
+      .register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public QueuedRelease submit(QueuedRelease release) {
+    if (!enabled) {
+      throw new CustomExceptions.ReleaseQueueUnavailableException("Asynchronní evidence nasazení není zapnutá.");
+    }
+    if (queue.remainingCapacity() == 0) {
+      throw this.queueFull();
+    }
+    QueuedRelease saved = Objects.requireNonNull(outboxTransaction.execute(status -> queuedReleaseRepository.save(release)));
+
+    if (!queue.offer(saved.getId())) {
+      // fronta se mezitim zaplnila, pozadavek v outboxu uz nesmi cekat na zpracovani
+      outboxTransaction.executeWithoutResult(status -> queuedReleaseRepository.findById(saved.getId()).ifPresent(
+        queued -> queued.processed(QueuedRelease.Status.REJECTED, this.queueFull().getMessage())
+      ));
+      throw this.queueFull();
+    }
+    return saved;
+  }
+
+  @Transactional(readOnly = true)
+  public Optional<QueuedRelease> get(String trackingId) {
+    return queuedReleaseRepository.findByTrackingId(trackingId);
+  }
+
+  // ceka nejvyse timeout na prvni pozadavek a prida k nemu dalsi cekajici, celkem nejvyse maxBatch;
+  // prazdny seznam, pokud nic neprislo
+  List<Long> take(int maxBatch, long timeout, TimeUnit unit) throws InterruptedException {
+    Long first = queue.poll(timeout, unit);
+
+    if (first == null) {
+      return List.of();
+    }
+    List<Long> ids = new ArrayList<>(maxBatch);
+    ids.add(first);
+    queue.drainTo(ids, maxBatch - 1);
+
+    return ids;
+  }
+
+  // nezpracovane pozadavky z outboxu zpet do fronty, pred spustenim zapisovace;
+  // co se do fronty nevejde, zustava v outboxu do pristiho restartu
+  void recover() {
+    List<Long> ids = outboxTransaction.execute(status -> queuedReleaseRepository.findQueuedIds());
+
+    Objects.requireNonNull(ids).forEach(queue::offer);
+  }
+
+  // pozadavky, ktere zapisovac nedokoncil, zpet na konec fronty; co se nevejde, obnovi recover() po restartu
+  void requeue(List<Long> ids) {
+    ids.forEach(queue::offer);
+  }
+
+  private CustomExceptions.ReleaseQueueUnavailableException queueFull() {
+    return new CustomExceptions.ReleaseQueueUnavailableException("Fronta nasazení je plná, zkuste to později.");
+  }
+}
@@ -0,0 +1,174 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import cz.oksystem.deployment_dashboard.entity.QueuedRelease;
+import cz.oksystem.deployment_dashboard.repository.QueuedReleaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// jediny zapisovac fronty nasazeni - vybira cekajici pozadavky po davkach a kazdou davku zaeviduje
+// v jedne transakci vcetne stavu v outboxu; propustnost tak urcuje pocet commitu davek, ne pozadavku
+@Component
+public class ReleaseQueueWriter {
+  private static final Logger log = LoggerFactory.getLogger(ReleaseQueueWriter.class);
+
+  private static final long POLL_MILLIS = 500;
+  private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+  private final ReleaseQueue releaseQueue;
+  private final ServiceOrchestrator serviceOrchestrator;
+  private final QueuedReleaseRepository queuedReleaseRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int maxBatch;
+  private final Duration retention;
+  private final Counter failedReleases;
+  private final Counter requeuedBatches;
+
+  private volatile boolean running;
+  private Thread thread;
+  private LocalDateTime lastPurge = LocalDateTime.MIN;
+
+  public ReleaseQueueWriter(ReleaseQueue releaseQueue,
+                            ServiceOrchestrator serviceOrchestrator,
+                            QueuedReleaseRepository queuedReleaseRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${deploydash.release-queue.max-batch:100}") int maxBatch,
+                            @Value("${deploydash.release-queue.retention:7d}") Duration retention) {
+    this.releaseQueue = releaseQueue;
+    this.serviceOrchestrator = serviceOrchestrator;
+    this.queuedReleaseRepository = queuedReleaseRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.maxBatch = maxBatch;
+    this.retention = retention;
+
+    this.failedReleases = Counter.builder("deploydash.release-queue.failures")
+      .description("Queued releases the writer could not record")
+      .tag("outcome", "failed")
+      .register(meterRegistry);
+    this.requeuedBatches = Counter.builder("deploydash.release-queue.failures")
+      .description("Queued releases the writer could not record")
+      .tag("outcome", "requeued")
+      .register(meterRegistry);
+  }
+
+  // az po startu, kdy jsou schema a read model pripravene
+  @EventListener(ApplicationReadyEvent.class)
+  void start() {
+    if (!releaseQueue.isEnabled()) {
+      return;
+    }
+    releaseQueue.recover();
+
+    running = true;
+    thread = Thread.ofPlatform().name("release-queue-writer").daemon().start(this::run);
+  }
+
+  // bez preruseni vlakna - preruseni by mohlo zavrit soubor H2 uprostred zapisu
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    if (thread != null) {
+      thread.join(Duration.ofSeconds(30));
+    }
+  }
+
+  private void run() {
+    while (running) {
+      List<Long> ids = List.of();
+      try {
+        ids = releaseQueue.take(maxBatch, POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+        if (!ids.isEmpty()) {
+          this.process(ids);
+        }
+        this.purgeIfDue();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException ex) {
+        // zapisovac nesmi skoncit - nedokoncena davka (selhal i zapis stavu FAILED, typicky nedostupna DB)
+        // se vrati do fronty a zkusi se znovu po pauze, uz zpracovane pozadavky load() preskoci
+        log.error("Zápis dávky {} nasazení z fronty selhal, dávka se zopakuje.", ids.size(), ex);
+        requeuedBatches.increment(ids.size());
+        releaseQueue.requeue(ids);
+
+        if (!this.pause()) {
+          return;
+        }
+      }
+    }
+  }
+
+  private boolean pause() {
+    try {
+      Thread.sleep(POLL_MILLIS);
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  void process(List<Long> ids) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> serviceOrchestrator.releaseQueued(this.load(ids)));
+    } catch (RuntimeException ex) {
+      // chyba DB shodi celou davku - releasy se zopakuji po jednom, chyba tak postihne jen ten svuj
+      if (ids.size() == 1) {
+        this.fail(ids.getFirst(), ex);
+        return;
+      }
+      ids.forEach(id -> this.process(List.of(id)));
+    }
+  }
+
+  // nactene pozadavky v poradi fronty, uz zpracovane (napr. po obnove) se preskoci
+  private List<QueuedRelease> load(List<Long> ids) {
+    Map<Long, QueuedRelease> releases = new HashMap<>();
+    queuedReleaseRepository.findAllById(ids).forEach(release -> releases.put(release.getId(), release));
+
+    return ids.stream()
+      .map(releases::get)
+      .filter(Objects::nonNull)
+      .filter(release -> release.getStatus() == QueuedRelease.Status.QUEUED)
+      .toList();
+  }
+
+  private void fail(Long id, RuntimeException ex) {
+    log.warn("Nasazení {} z fronty se nepodařilo zaevidovat.", id, ex);
+    failedReleases.increment();
+
+    transactionTemplate.executeWithoutResult(status -> queuedReleaseRepository.findById(id).ifPresent(
+      release -> release.processed(QueuedRelease.Status.FAILED, ex.getMessage())
+    ));
+  }
+
+  private void purgeIfDue() {
+    LocalDateTime now = LocalDateTime.now();
+
+    if (lastPurge.plus(PURGE_INTERVAL).isAfter(now)) {
+      return;
+    }
+    lastPurge = now;
+    transactionTemplate.executeWithoutResult(
+      status -> queuedReleaseRepository.deleteProcessedBefore(now.minus(retention))
+    );
+  }
+}
@@ -4,16 +4,23 @@ import cz.oksystem.deployment_dashboard.dto.*;
 import cz.oksystem.deployment_dashboard.entity.App;
 import cz.oksystem.deployment_dashboard.entity.Deployment;
 import cz.oksystem.deployment_dashboard.entity.Environment;
+import cz.oksystem.deployment_dashboard.entity.QueuedRelease;
 import cz.oksystem.deployment_dashboard.entity.Version;
 import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
-import cz.oksystem.deployment_dashboard.serializers.CustomProtocolsSerializer;
-import org.springframework.data.util.Pair;
+import cz.oksystem.deployment_dashboard.metrics.ProjectKey;
+import cz.oksystem.deployment_dashboard.repository.projections.CurrentVersionRow;
+import cz.oksystem.deployment_dashboard.repository.projections.DeploymentRow;
+import cz.oksystem.deployment_dashboard.serializers.DeploymentExportWriter;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // TODO projít services a všechny cross-checky přesunout sem
 @Service
@@ -22,29 +29,56 @@ public class ServiceOrchestrator {
   private final EnvironmentService environmentService;
   private final VersionService versionService;
   private final DeploymentService deploymentService;
-  private final CustomProtocolsSerializer protocolsSerializer;
+  private final ProjectViewService projectViewService;
+  private final DashboardReadModel readModel;
+  private final DataRevision dataRevision;
+  private final DeploymentExportWriter exportWriter;
+  private final DeploymentImportService importService;
+  private final ReleaseQueue releaseQueue;
+  private final ReleaseDigests releaseDigests;
+  private final ApplicationEventPublisher eventPublisher;
 
 
-  public ServiceOrchestrator(AppService appService, EnvironmentService environmentService, VersionService versionService, DeploymentService deploymentService, CustomProtocolsSerializer protocolsSerializer) {
+  public ServiceOrchestrator(AppService appService, EnvironmentService environmentService, VersionService versionService, DeploymentService deploymentService, ProjectViewService projectViewService, DashboardReadModel readModel, DataRevision dataRevision, DeploymentExportWriter exportWriter, DeploymentImportService importService, ReleaseQueue releaseQueue, ReleaseDigests releaseDigests, ApplicationEventPublisher eventPublisher) {
     this.appService = appService;
     this.environmentService = environmentService;
     this.versionService = versionService;
     this.deploymentService = deploymentService;
-    this.protocolsSerializer = protocolsSerializer;
+    this.projectViewService = projectViewService;
+    this.readModel = readModel;
+    this.dataRevision = dataRevision;
+    this.exportWriter = exportWriter;
+    this.importService = importService;
+    this.releaseQueue = releaseQueue;
+    this.releaseDigests = releaseDigests;
+    this.eventPublisher = eventPublisher;
   }
 
 
+  @Transactional
   public void addApp(AppDto appDto) {
     appService.save(this.appFromDto(appDto));
+    this.publishCatalogueChanged(DashboardChangedEvent.Type.APP_ADDED, appDto.getKey());
   }
 
+  @Transactional
   public void updateApp(String appKey, AppDto appDto) {
     appService.update(appKey, this.appFromDto(appDto));
+    this.publishCatalogueChanged(DashboardChangedEvent.Type.APP_UPDATED, appDto.getKey());
   }
 
   @Transactional
   public void deleteApp(String appKey, boolean force) {
+    // po smazani uz korenovy projekt nedohledame
+    String projectKey = appService.get(appKey).map(app -> appService.getRootProject(app).getKey()).orElse(null);
+
     appService.delete(appKey, force);
+    if (projectKey != null) {
+      releaseDigests.forget(projectKey);
+    }
+    eventPublisher.publishEvent(
+      DashboardChangedEvent.catalogueChanged(DashboardChangedEvent.Type.APP_DELETED, projectKey, appKey)
+    );
   }
 
   public List<Environment> getAppEnvironments(String appKey) {
@@ -52,7 +86,8 @@ public class ServiceOrchestrator {
       () -> new CustomExceptions.NotManagedException(App.CZECH_NAME, appKey)
     );
 
-    return fetchedApp.getEnvironments();
+    // prostredi patri korenovemu projektu
+    return appService.getRootProject(fetchedApp).getEnvironments();
   }
 
   public List<Version> getAppVersions(String appKey) {
@@ -63,21 +98,101 @@ public class ServiceOrchestrator {
     return fetchedApp.getVersions();
   }
 
+  @Transactional
   public void addEnvironment(EnvironmentDto envDto) {
-    environmentService.save(this.environmentFromDto(envDto));
+    Environment env = environmentService.save(this.environmentFromDto(envDto));
+    this.publishProjectChanged(DashboardChangedEvent.Type.ENVIRONMENT_ADDED, env.getApp(), env.getName(), Map.of());
   }
 
-  public void updateEnvironment(String appKey, String envKey, EnvironmentDto envDto) {
+  @Transactional
+  public void updateEnvironment(@ProjectKey String appKey, String envKey, EnvironmentDto envDto) {
     environmentService.update(appKey, envKey, this.environmentFromDto(envDto));
+    this.publishProjectChanged(DashboardChangedEvent.Type.ENVIRONMENT_UPDATED, appKey, envDto.getName(), Map.of());
   }
 
   @Transactional
-  public void deleteEnvironment(String appKey, String envKey, boolean force) {
+  public void deleteEnvironment(@ProjectKey String appKey, String envKey, boolean force) {
     environmentService.delete(appKey, envKey, force);
+    this.forgetReleases(appKey);
+    this.publishProjectChanged(DashboardChangedEvent.Type.ENVIRONMENT_DELETED, appKey, envKey, Map.of());
+  }
+
+  @Transactional
+  public void release(@ProjectKey String projectKey, String envKey, Map<String, String> versionedApps, String jiraTicket, boolean force) {
+    this.releaseOnce(projectKey, envKey, versionedApps, jiraTicket, force);
+  }
+
+  // opakovany pozadavek (retry z CI) na nedavno zaevidovany release s ticketem - jen index v pameti
+  // a cache klicu, bez transakce; release() opakovani pozna i pres tabulku otisku.
+  // projekt a prostredi se overi i tady, retry na smazane prostredi tak neodpovi uspechem
+  public boolean isReleaseRepeated(String projectKey, String envKey, Map<String, String> versionedApps, String jiraTicket, boolean force) {
+    if (jiraTicket == null) {
+      return false;
+    }
+    if (appService.get(projectKey).isEmpty()) {
+      throw new CustomExceptions.NotManagedException(App.CZECH_NAME, projectKey);
+    }
+    if (environmentService.get(projectKey, envKey).isEmpty()) {
+      throw new CustomExceptions.NotManagedException(App.CZECH_NAME, Environment.CZECH_NAME, projectKey, envKey);
+    }
+    return releaseDigests.isRecent(releaseDigests.digest(projectKey, envKey, versionedApps, jiraTicket, force));
   }
 
+  // asynchronni evidence - projekt a prostredi se overi hned (z cache klicu), release se zaradi
+  // do fronty a zaeviduje ho ReleaseQueueWriter; vysledek vraci getReleaseStatus
+  public ReleaseStatusDto queueRelease(@ProjectKey String projectKey, String envKey, Map<String, String> versionedApps, String jiraTicket, boolean force) {
+    if (appService.get(projectKey).isEmpty()) {
+      throw new CustomExceptions.NotManagedException(App.CZECH_NAME, projectKey);
+    }
+    if (environmentService.get(projectKey, envKey).isEmpty()) {
+      throw new CustomExceptions.NotManagedException(App.CZECH_NAME, Environment.CZECH_NAME, projectKey, envKey);
+    }
+    return this.releaseStatusDto(releaseQueue.submit(new QueuedRelease(projectKey, envKey, versionedApps, jiraTicket, force)));
+  }
+
+  public ReleaseStatusDto getReleaseStatus(String trackingId) {
+    return releaseQueue.get(trackingId).map(this::releaseStatusDto).orElseThrow(
+      () -> new CustomExceptions.NotManagedException(QueuedRelease.CZECH_NAME, trackingId)
+    );
+  }
+
+  // davka releasu z fronty v jedne transakci - release odmitnuty kontrolou evidence se oznaci
+  // a ostatni pokracuji (kontroly probihaji pred zapisem), chyba DB shodi celou davku
   @Transactional
-  public void release(String projectKey, String envKey, Map<String, String> versionedApps, String jiraTicket, boolean force) {
+  public void releaseQueued(List<QueuedRelease> releases) {
+    for (QueuedRelease release : releases) {
+      try {
+        boolean released = this.releaseOnce(release.getProjectKey(), release.getEnvName(), release.getVersionedApps(),
+          release.getJiraUrl().orElse(null), release.isForce());
+        release.processed(QueuedRelease.Status.DONE, released ? null : "Nasazení již bylo zaevidováno.");
+      } catch (CustomExceptions.NotManagedException
+               | CustomExceptions.NoSuchAppComponentException
+               | CustomExceptions.VersionRedeployException
+               | CustomExceptions.VersionRollbackException ex) {
+        release.processed(QueuedRelease.Status.REJECTED, ex.getMessage());
+      }
+    }
+  }
+
+  // opakovany release se stejnym ticketem a verzemi se preskoci bez zapisu (vraci false);
+  // release bez ticketu nejde od omylem zopakovaneho odlisit, plati pro nej puvodni kontroly evidence
+  private boolean releaseOnce(String projectKey, String envKey, Map<String, String> versionedApps, String jiraTicket, boolean force) {
+    if (jiraTicket == null) {
+      this.doRelease(projectKey, envKey, versionedApps, null, force);
+      return true;
+    }
+    ReleaseDigests.Digest digest = releaseDigests.digest(projectKey, envKey, versionedApps, jiraTicket, force);
+
+    if (releaseDigests.isProcessed(digest)) {
+      return false;
+    }
+    App project = this.doRelease(projectKey, envKey, versionedApps, jiraTicket, force);
+    releaseDigests.remember(digest, project.getKey());
+
+    return true;
+  }
+
+  private App doRelease(String projectKey, String envKey, Map<String, String> versionedApps, String jiraTicket, boolean force) {
     App project = appService.get(projectKey).orElseThrow(
       () -> new CustomExceptions.NotManagedException(App.CZECH_NAME, projectKey)
     );
@@ -86,45 +201,143 @@ public class ServiceOrchestrator {
       () -> new CustomExceptions.NotManagedException(App.CZECH_NAME, Environment.CZECH_NAME, projectKey, envKey)
     );
 
-    List<App> projectComponents = project.getComponents();
-
     if (versionedApps != null && !versionedApps.isEmpty()) {
-      versionedApps.forEach((appKey, versionName) -> {
-        App fetchedApp = appService.get(appKey).orElseThrow(
-          () -> new CustomExceptions.NotManagedException(App.CZECH_NAME, appKey)
-        );
-
-        if (!projectComponents.contains(fetchedApp)
-          && fetchedApp != project) {
-          throw new CustomExceptions.NoSuchAppComponentException(appKey, appKey);
+      this.releaseVersions(project, envToDeployTo, versionedApps, jiraTicket, force);
+    }
+    this.publishProjectChanged(
+      DashboardChangedEvent.Type.RELEASED, project, envKey, versionedApps == null ? Map.of() : Map.copyOf(versionedApps)
+    );
+    return project;
+  }
+
+  // cely release hromadne - hierarchie, verze, posledni a existujici nasazeni se nactou
+  // par dotazy s IN (...), nove verze a nasazeni se vlozi JDBC batchem;
+  // kontroly probihaji v poradi versionedApps, stejne jako pri zpracovani po jedne aplikaci
+  private void releaseVersions(App project, Environment envToDeployTo, Map<String, String> versionedApps,
+                               String jiraTicket, boolean force) {
+    AppHierarchy projectTree = appService.getSubtree(project.getId());
+
+    // klic aplikace -> id pro aplikace projektu, prislusnost se overi az ve smycce (poradi chyb)
+    Map<String, Long> appIds = new LinkedHashMap<>();
+    versionedApps.keySet().forEach(
+      appKey -> projectTree.get(appKey).ifPresent(node -> appIds.put(appKey, node.id()))
+    );
+
+    // existujici verze, nazvy verzi jsou case-insensitive
+    Map<VersionKey, Version> versions = new HashMap<>();
+    versionService.getAll(appIds.values(), versionedApps.values()).forEach(
+      version -> versions.put(VersionKey.of(version.getApp().getId(), version.getName()), version)
+    );
+
+    Map<Long, CurrentVersionRow> latestDeployments = deploymentService.getLastDeploymentsForApps(appIds.values());
+
+    Map<Long, Deployment> existingDeployments = deploymentService.getAll(
+      envToDeployTo,
+      versions.values().stream().map(Version::getId).toList()
+    );
+
+    List<Version> newVersions = new ArrayList<>();
+    Map<Long, Deployment> deployments = new LinkedHashMap<>();
+
+    versionedApps.forEach((appKey, versionName) -> {
+      Long appId = appIds.get(appKey);
+
+      if (appId == null) {
+        // mimo projekt, dotaz do DB jen kvuli spravne chybe
+        if (!appService.exists(appKey)) {
+          throw new CustomExceptions.NotManagedException(App.CZECH_NAME, appKey);
         }
+        throw new CustomExceptions.NoSuchAppComponentException(appKey, appKey);
+      }
 
-        Version appVersion = versionService.get(appKey, versionName).orElseGet(
-          () -> versionService.save(new Version(fetchedApp, versionName))
-        );
+      Version appVersion = versions.computeIfAbsent(VersionKey.of(appId, versionName), key -> {
+        Version newVersion = new Version(appService.getReference(appId), versionName);
+        // korenovy projekt zname, reference aplikace se tak nemusi nacitat
+        newVersion.setRootProjectId(project.getRootProjectId());
+        newVersions.add(newVersion);
+        return newVersion;
+      });
 
-        Deployment newDeployment = new Deployment(envToDeployTo, appVersion, jiraTicket, LocalDateTime.now());
+      Deployment newDeployment = new Deployment(envToDeployTo, appVersion, jiraTicket, LocalDateTime.now());
 
-        Optional<Deployment> latestDeployment = deploymentService.getLastDeploymentForApp(appKey);
+      // nove zakladana verze je vzdy nejnovejsi
+      // kontrola, zda neni nasazena novejsi verze, nebo zda prave nasazovana verze neni prenasazovana
+      if (appVersion.getId() != null) {
+        CurrentVersionRow latestDeployment = latestDeployments.get(appId);
 
-        // TODO přepsat pomocí nějakého comparatoru
-        // kontrola, zda neni nasazena novejsi verze, nebo zda prave nasazovana verze neni prenasazovana
         if (!force
-          && latestDeployment.isPresent()
-          && latestDeployment.get().getVersion().getId() > appVersion.getId()) {
-          throw new CustomExceptions.VersionRollbackException(latestDeployment.get(), newDeployment);
+          && latestDeployment != null
+          && latestDeployment.versionId() > appVersion.getId()) {
+          throw new CustomExceptions.VersionRollbackException(
+            deploymentService.getReference(latestDeployment.deploymentId()), newDeployment
+          );
         }
-        deploymentService.get(newDeployment).ifPresent(
-          deployment -> { if (!force) {
-              throw new CustomExceptions.VersionRedeployException(deployment);
-            }
+
+        Deployment existingDeployment = existingDeployments.get(appVersion.getId());
+
+        if (existingDeployment != null) {
+          if (!force) {
+            throw new CustomExceptions.VersionRedeployException(existingDeployment);
           }
-        );
-        deploymentService.save(newDeployment);
-      });
+          newDeployment = existingDeployment;
+        }
+      }
+      deployments.put(appId, newDeployment);
+    });
+
+    versionService.saveAll(newVersions);
+    deploymentService.saveAll(deployments.values());
+  }
+
+  // verze aplikace podle nazvu bez ohledu na velikost pismen
+  private record VersionKey(Long appId, String name) {
+    static VersionKey of(Long appId, String name) {
+      return new VersionKey(appId, name.toLowerCase());
     }
   }
 
+  private void publishCatalogueChanged(DashboardChangedEvent.Type type, String appKey) {
+    String projectKey = appService.get(appKey).map(app -> appService.getRootProject(app).getKey()).orElse(null);
+
+    eventPublisher.publishEvent(DashboardChangedEvent.catalogueChanged(type, projectKey, appKey));
+  }
+
+  private void publishProjectChanged(DashboardChangedEvent.Type type, String appKey, String envName,
+                                     Map<String, String> versions) {
+    appService.get(appKey).ifPresentOrElse(
+      app -> this.publishProjectChanged(type, app, envName, versions),
+      () -> eventPublisher.publishEvent(DashboardChangedEvent.catalogueChanged(type, null, appKey))
+    );
+  }
+
+  // otisky releasu se vedou pro korenovy projekt
+  private void forgetReleases(String appKey) {
+    appService.get(appKey).ifPresent(app -> releaseDigests.forget(appService.getRootProject(app).getKey()));
+  }
+
+  // posluchaci read modelu a streamu zmen dostanou udalost az po commitu transakce
+  private void publishProjectChanged(DashboardChangedEvent.Type type, App app, String envName,
+                                     Map<String, String> versions) {
+    App project = appService.getRootProject(app);
+
+    eventPublisher.publishEvent(DashboardChangedEvent.projectChanged(
+      type, project.getId(), project.getKey(), app.getKey(), envName, versions
+    ));
+  }
+
+
+  private ReleaseStatusDto releaseStatusDto(QueuedRelease release) {
+    return new ReleaseStatusDto(
+      release.getTrackingId(),
+      release.getStatus().name(),
+      release.getMessage().orElse(null),
+      release.getProjectKey(),
+      release.getEnvName(),
+      release.getAcceptedAt(),
+      release.getProcessedAt().orElse(null)
+    );
+  }
+
 
   public App appFromDto(AppDto appDto) {
     App newApp = new App(appDto.getKey(), appDto.getName());
@@ -150,116 +363,83 @@ public class ServiceOrchestrator {
     return new Environment(envDto.getName(), fetchedApp);
   }
 
-  public List<ProjectOverviewDto> getAllProjectOverviews() {
-    List<ProjectOverviewDto> projectOverviews = new ArrayList<>();
-
-    List<App> projects = appService.getAllProjects();
-
-    for (App project : projects) {
-      String projectKey = project.getKey();
-      String projectName = project.getName();
-      List<Deployment> lastDeployments = new ArrayList<>();
-
-      deploymentService.getLastDeploymentForApp(projectKey).ifPresent(lastDeployments::add);
-
-      project.getComponents().forEach(component -> deploymentService.getLastDeploymentForApp(component.getKey()).ifPresent(lastDeployments::add));
-
-      ProjectOverviewDto projectOverview = new ProjectOverviewDto(projectKey, projectName);
-
-      lastDeployments.sort(Comparator.comparing(
-        deployment -> deployment.getDate().orElse(null),
-        Comparator.nullsLast(Comparator.reverseOrder())
-      ));
-
+  // ETag aktualni revize dat, zjistuje se pred ctenim dat a bez pristupu do DB
+  public String getDataRevisionETag() {
+    return dataRevision.eTag();
+  }
 
-      if (!lastDeployments.isEmpty()) {
-        Deployment lastDeployment = lastDeployments.getFirst();
+  // revize projektu; pro komponenty a neznamy klic globalni revize
+  public String getProjectRevisionETag(String appKey) {
+    return readModel.getProjectId(appKey)
+      .map(dataRevision::eTag)
+      .orElseGet(dataRevision::eTag);
+  }
 
-        lastDeployment.getDate().ifPresent(projectOverview::setLastDeployedAt);
-        projectOverview.setLastDeployedVersionName(lastDeployment.getVersion().getName());
-        projectOverview.setLastDeployedToEnvName(lastDeployment.getEnvironment().getName());
-        lastDeployment.getJiraUrl().ifPresent(jiraUrl -> projectOverview.setLastDeploymentJiraUrl(jiraUrl.replace("ok-jira://", protocolsSerializer.getCustomProtocols().get("ok-jira"))));
-        projectOverview.setVersionedComponentsNames(deploymentService.getDeployedAppsByJiraUuid(lastDeployment.getJiraUrl())
-          .stream()
-          .map(deployment -> deployment.getVersion().getApp().getKey()).toList());
-      }
-      projectOverviews.add(projectOverview);
-    }
-    return projectOverviews;
+  public List<ProjectOverviewDto> getAllProjectOverviews() {
+    return readModel.getProjectOverviews().orElseGet(projectViewService::getAllProjectOverviews);
   }
 
+  @Transactional(readOnly = true)
   public List<DeploymentDto> getAllDeployments() {
-    List<Deployment> deployments = deploymentService.getAllDeployments();
-
-    return deployments.stream().map(deployment -> new DeploymentDto(
-        deployment.getId(),
-        deployment.getDate().get(),
-        deployment.getVersion().getApp().getKey(),
-        deployment.getVersion().getApp().getName(),
-        deployment.getEnvironment().getName(),
-        deployment.getVersion().getName(),
-        deployment.getVersion().getDescription().orElse(""),
-        deployment.getJiraUrl().map(jiraUrl -> jiraUrl.replace("ok-jira://", protocolsSerializer.getCustomProtocols().get("ok-jira"))).orElse("")))
-      .collect(Collectors.toList()).reversed();
-  }
-
-  public ProjectDetailDto getAppDetailDto(String key) {
-    App fetchedApp = appService.get(key).orElseThrow(
-      () -> new CustomExceptions.NotManagedException(App.CZECH_NAME, key)
-    );
-
-    ProjectDetailDto detailDto = new ProjectDetailDto(fetchedApp.getKey(), fetchedApp.getName());
+    return deploymentService.getAllDeploymentRows().stream()
+      .map(this::deploymentDtoFromRow)
+      .toList();
+  }
 
-    List<App> apps = new ArrayList<>(fetchedApp.getComponents());
-    apps.addFirst(fetchedApp);
+  @Transactional(readOnly = true)
+  public DeploymentPageDto getDeploymentPage(DeploymentFilterDto filter, String cursor, int limit) {
+    List<DeploymentRow> rows = deploymentService.getDeploymentPage(filter, cursor, limit);
 
-    Map<String, List<VersionDto>> componentToVersionDtoMap = new HashMap<>();
+    String nextCursor = null;
 
-    // prochazime aplikace
-    for (App app : apps) {
-      // inicializujeme list VersionDtos
-      List<VersionDto> versionDtos = new ArrayList<>();
+    // dotaz vraci o radek navic, podle nej pozname, ze existuje dalsi stranka
+    if (rows.size() > limit) {
+      rows = rows.subList(0, limit);
+      nextCursor = deploymentService.getPageCursor(rows.getLast());
+    }
 
-      // prochazime verze
-      for (Version version : app.getVersions()) {
-        // inicializujeme nove DTO pro verzi
-        VersionDto versionDto = new VersionDto(version.getId(), version.getName(), version.getDescription().orElse(""));
+    return new DeploymentPageDto(rows.stream().map(this::deploymentDtoFromRow).toList(), nextCursor);
+  }
 
-        // inicializujeme mapu envName -> <deployedDate, jiraUrl>
-        Map<String, Pair<LocalDateTime, String>> environmentToDateAndJiraUrlMap = new HashMap<>();
+  // export bezi mimo request vlakno (StreamingResponseBody), transakce proto zacina az zde
+  @Transactional(readOnly = true)
+  public void exportDeployments(DeploymentFilterDto filter, DeploymentExportFormat format, OutputStream out) throws IOException {
+    try (Stream<DeploymentRow> rows = deploymentService.streamDeploymentRows(filter)) {
+      exportWriter.write(rows.map(this::deploymentDtoFromRow).iterator(), format, out);
+    }
+  }
 
-        // pro envs projektu pridame <deployedDate, jiraUrl> do mapy ve VersionDto
-        for (Deployment deployment : version.getDeployments()) {
-          String jiraUrl = deployment.getJiraUrl().orElse("");
-          jiraUrl = jiraUrl.replace("ok-jira://", protocolsSerializer.getCustomProtocols().get("ok-jira"));
+  // import bezi po davkach ve vlastnich transakcich, read model se po nem nacte cely znovu
+  public DeploymentImportResultDto importDeployments(InputStream in, DeploymentExportFormat format) throws IOException {
+    DeploymentImportResultDto result = importService.importDeployments(in, format);
 
-          environmentToDateAndJiraUrlMap.put(deployment.getEnvironment().getName(), Pair.of(deployment.getDate().orElse(null), jiraUrl));
-        }
-        versionDto.setEnvironmentToDateAndJiraUrlMap(environmentToDateAndJiraUrlMap);
-        versionDtos.addFirst(versionDto);
-      }
-      componentToVersionDtoMap.put(app.getKey(), versionDtos);
+    if (result.getImported() > 0) {
+      eventPublisher.publishEvent(
+        DashboardChangedEvent.catalogueChanged(DashboardChangedEvent.Type.DEPLOYMENTS_IMPORTED, null, null)
+      );
     }
+    return result;
+  }
 
-    detailDto.setEnvironmentNames(fetchedApp.getEnvironments().stream().map(Environment::getName).toList());
-    detailDto.setComponentKeysAndNamesMap(apps.stream().collect(
-      Collectors.toMap(
-        App::getKey,
-        App::getName
-      )
-    ));
-    detailDto.setAppKeyToVersionDtosMap(componentToVersionDtoMap);
+  private DeploymentDto deploymentDtoFromRow(DeploymentRow row) {
+    return new DeploymentDto(
+      row.id(),
+      row.date(),
+      row.appKey(),
+      row.appName(),
+      row.environmentName(),
+      row.versionName(),
+      row.versionDescription() == null ? "" : row.versionDescription(),
+      row.jiraUrl() == null ? "" : row.jiraUrl());
+  }
 
-    return detailDto;
+  // detail komponenty se meri pod klicem komponenty
+  public ProjectDetailDto getAppDetailDto(@ProjectKey String key) {
+    return readModel.getProjectDetail(key).orElseGet(() -> projectViewService.getAppDetailDto(key));
   }
 
   public List<ProjectDetailDto> getAllAppDetailDtos() {
-    List<ProjectDetailDto> detailDtos = new ArrayList<>();
-
-    for (App app : this.appService.getAllProjects()) {
-      detailDtos.add(this.getAppDetailDto(app.getKey()));
-    }
-    return detailDtos;
+    return readModel.getProjectDetails().orElseGet(projectViewService::getAllAppDetailDtos);
   }
 
   @Transactional
@@ -273,20 +453,32 @@ public class ServiceOrchestrator {
     }
 
     versionService.save(new Version(fetchedApp, versionDto.getName(), versionDto.getDescription()));
+    this.publishProjectChanged(
+      DashboardChangedEvent.Type.VERSION_ADDED, fetchedApp, null, Map.of(fetchedApp.getKey(), versionDto.getName())
+    );
   }
 
   @Transactional
   public void deleteVersion(String appKey, String versionName, boolean force) {
     versionService.delete(appKey, versionName, force);
+    this.forgetReleases(appKey);
+    this.publishProjectChanged(DashboardChangedEvent.Type.VERSION_DELETED, appKey, null, Map.of(appKey, versionName));
   }
 
   @Transactional
   public void updateVersion(String appKey, String versionName, VersionDto versionDto) {
     versionService.update(appKey, versionName, versionDto);
+    this.publishProjectChanged(
+      DashboardChangedEvent.Type.VERSION_UPDATED, appKey, null, Map.of(appKey, versionDto.getName())
+    );
   }
 
   @Transactional
   public void deleteDeployment(String appKey, String envKey, String versionName) {
     deploymentService.delete(appKey, envKey, versionName);
+    this.forgetReleases(appKey);
+    this.publishProjectChanged(
+      DashboardChangedEvent.Type.DEPLOYMENT_DELETED, appKey, envKey, Map.of(appKey, versionName)
+    );
   }
 }
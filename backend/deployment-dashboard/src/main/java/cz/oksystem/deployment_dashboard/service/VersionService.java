@@ -5,17 +5,25 @@ import cz.oksystem.deployment_dashboard.entity.App;
 import cz.oksystem.deployment_dashboard.entity.Version;
 import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
 import cz.oksystem.deployment_dashboard.repository.VersionRepository;
+import cz.oksystem.deployment_dashboard.repository.projections.VersionRow;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Service
 public class VersionService {
   private final VersionRepository versionRepository;
+  private final CurrentDeploymentService currentDeploymentService;
+  private final LookupCaches lookupCaches;
 
-  public VersionService(VersionRepository versionRepository) {
+  public VersionService(VersionRepository versionRepository, CurrentDeploymentService currentDeploymentService,
+                        LookupCaches lookupCaches) {
     this.versionRepository = versionRepository;
+    this.currentDeploymentService = currentDeploymentService;
+    this.lookupCaches = lookupCaches;
   }
 
   @Transactional
@@ -31,7 +39,41 @@ public class VersionService {
 
   @Transactional(readOnly = true)
   public Optional<Version> get(String appKey, String versionName) {
-    return versionRepository.findByAppAndName(appKey, versionName);
+    return lookupCaches.versions().resolve(
+      LookupCaches.versionKey(appKey, versionName),
+      versionRepository::getReferenceById,
+      () -> versionRepository.findByAppAndName(appKey, versionName),
+      Version::getId
+    );
+  }
+
+  // existujici verze pro vice aplikaci a nazvu najednou
+  @Transactional(readOnly = true)
+  public List<Version> getAll(Collection<Long> appIds, Collection<String> versionNames) {
+    if (appIds.isEmpty() || versionNames.isEmpty()) {
+      return List.of();
+    }
+    return versionRepository.findByAppIdsAndNames(appIds, versionNames);
+  }
+
+  // reference bez dotazu do DB
+  @Transactional(readOnly = true)
+  public Version getReference(Long id) {
+    return versionRepository.getReferenceById(id);
+  }
+
+  // bez kontroly duplicit, volajici si existenci overil hromadne
+  @Transactional
+  public List<Version> saveAll(Collection<Version> newVersions) {
+    return versionRepository.saveAll(newVersions);
+  }
+
+  @Transactional(readOnly = true)
+  public List<VersionRow> getVersionRows(Collection<Long> appIds) {
+    if (appIds.isEmpty()) {
+      return List.of();
+    }
+    return versionRepository.findVersionRowsByAppIds(appIds);
   }
 
   @Transactional(readOnly = true)
@@ -47,13 +89,22 @@ public class VersionService {
       )
     );
 
-    if (!force && verToDelete.hasDeployment()) {
+    boolean hadDeployment = verToDelete.hasDeployment();
+
+    if (!force && hadDeployment) {
       throw new CustomExceptions.DeletionNotAllowedException(
         Version.CZECH_NAME, versionName
       );
     }
 
+    lookupCaches.versions().evict(LookupCaches.versionKey(appKey, versionName));
+
     versionRepository.delete(verToDelete);
+
+    // s verzi zmizela i jeji nasazeni, aktualni stav aplikace je treba dopocitat
+    if (hadDeployment) {
+      currentDeploymentService.refresh(verToDelete.getApp().getId());
+    }
   }
 
   @Transactional
@@ -64,6 +115,9 @@ public class VersionService {
       )
     );
 
+    lookupCaches.versions().evict(LookupCaches.versionKey(appKey, versionName));
+    lookupCaches.versions().evict(LookupCaches.versionKey(appKey, versionDto.getName()));
+
     verToUpdate.setName(versionDto.getName());
     verToUpdate.setDescription(versionDto.getDescription());
   }
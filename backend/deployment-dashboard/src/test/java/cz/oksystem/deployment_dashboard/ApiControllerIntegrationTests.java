@@ -2,14 +2,41 @@ package cz.oksystem.deployment_dashboard;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import cz.oksystem.deployment_dashboard.dto.AppDto;
+import cz.oksystem.deployment_dashboard.dto.DeploymentDto;
 import cz.oksystem.deployment_dashboard.dto.EnvironmentDto;
+import cz.oksystem.deployment_dashboard.dto.VersionDto;
 import cz.oksystem.deployment_dashboard.entity.App;
+import cz.oksystem.deployment_dashboard.entity.Deployment;
 import cz.oksystem.deployment_dashboard.entity.Environment;
+import cz.oksystem.deployment_dashboard.entity.QueuedRelease;
 import cz.oksystem.deployment_dashboard.entity.Version;
+import cz.oksystem.deployment_dashboard.exceptions.CustomExceptions;
+import cz.oksystem.deployment_dashboard.fixtures.Dataset;
+import cz.oksystem.deployment_dashboard.fixtures.DatasetGenerator;
+import cz.oksystem.deployment_dashboard.fixtures.DatasetSpec;
+import cz.oksystem.deployment_dashboard.metrics.OrchestratorMetrics;
+import cz.oksystem.deployment_dashboard.metrics.QueryCounter;
+import cz.oksystem.deployment_dashboard.metrics.RequestQueryMetrics;
+import cz.oksystem.deployment_dashboard.metrics.ServerTiming;
+import cz.oksystem.deployment_dashboard.metrics.ServerTimingFilter;
+import cz.oksystem.deployment_dashboard.repository.AppClosureRepository;
+import cz.oksystem.deployment_dashboard.repository.QueuedReleaseRepository;
+import cz.oksystem.deployment_dashboard.repository.ReleaseDigestRepository;
+import cz.oksystem.deployment_dashboard.repository.projections.AppNode;
+import cz.oksystem.deployment_dashboard.service.AppClosureService;
 import cz.oksystem.deployment_dashboard.service.AppService;
+import cz.oksystem.deployment_dashboard.service.CurrentDeploymentService;
+import cz.oksystem.deployment_dashboard.service.DashboardChangeStream;
+import cz.oksystem.deployment_dashboard.service.DashboardChangedEvent;
+import cz.oksystem.deployment_dashboard.service.DashboardReadModel;
 import cz.oksystem.deployment_dashboard.service.DeploymentService;
 import cz.oksystem.deployment_dashboard.service.EnvironmentService;
+import cz.oksystem.deployment_dashboard.service.LookupCache;
+import cz.oksystem.deployment_dashboard.service.ReleaseDigests;
+import cz.oksystem.deployment_dashboard.service.ServiceOrchestrator;
 import cz.oksystem.deployment_dashboard.service.VersionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,20 +46,40 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -53,6 +100,12 @@ class ApiControllerIntegrationTests {
   @Autowired
   private AppService appService;
 
+  @Autowired
+  private AppClosureService appClosureService;
+
+  @Autowired
+  private AppClosureRepository appClosureRepository;
+
   @Autowired
   private EnvironmentService envService;
 
@@ -62,6 +115,33 @@ class ApiControllerIntegrationTests {
   @Autowired
   private DeploymentService depService;
 
+  @Autowired
+  private CurrentDeploymentService currentDeploymentService;
+
+  @Autowired
+  private DashboardChangeStream changeStream;
+
+  @Autowired
+  private ServiceOrchestrator serviceOrchestrator;
+
+  @Autowired
+  private QueuedReleaseRepository queuedReleaseRepository;
+
+  @Autowired
+  private ReleaseDigestRepository releaseDigestRepository;
+
+  @Autowired
+  private DashboardReadModel readModel;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
   @Autowired
   private EntityManager em;
 
@@ -82,6 +162,7 @@ class ApiControllerIntegrationTests {
   void setup(WebApplicationContext context, @Value("${server.servlet.context-path}") String contextPath) {
     this.mockMvc = MockMvcBuilders.webAppContextSetup(context)
       .defaultRequest(get("/").contextPath(contextPath))
+      .addFilters(QueryBudget.filter())
       .build();
   }
 
@@ -406,6 +487,46 @@ class ApiControllerIntegrationTests {
     Assertions.assertEquals(Optional.empty(), app.getArchivedTimestamp());
   }
 
+  // verify that cached key lookups follow the renamed app
+  @Test
+  void updateAppKeyInvalidatesLookups() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    envService.save(new Environment("test", app));
+    Assertions.assertTrue(appService.get("dd").isPresent());
+    Assertions.assertTrue(envService.get("dd", "test").isPresent());
+
+    mockMvc.perform(
+        put("/deploydash/api/apps/dd")
+          .characterEncoding("utf-8")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(objectMapper.writeValueAsString(new AppDto("kl", "kontrolní linka"))))
+      .andExpect(status().isOk());
+
+    Assertions.assertTrue(appService.get("dd").isEmpty());
+    Assertions.assertTrue(envService.get("dd", "test").isEmpty());
+    Assertions.assertEquals(app, appService.get("KL").orElseThrow());
+    Assertions.assertTrue(envService.get("kl", "test").isPresent());
+  }
+
+  // verify that a cache hit is served as a reference on a single instance and bypassed when instances share the database
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void lookupCacheIsBypassedForMultipleInstances() {
+    LookupCache<String> singleInstance = new LookupCache<>("single", 10, Duration.ofMinutes(10), new SimpleMeterRegistry(), true);
+    LookupCache<String> multipleInstances = new LookupCache<>("multiple", 10, Duration.ofMinutes(10), new SimpleMeterRegistry(), false);
+
+    for (LookupCache<String> cache : List.of(singleInstance, multipleInstances)) {
+      Assertions.assertEquals(Optional.of("loaded"),
+        cache.resolve("dd", id -> "reference " + id, () -> Optional.of("loaded"), loaded -> 1L));
+    }
+
+    Assertions.assertEquals(Optional.of("reference 1"),
+      singleInstance.resolve("dd", id -> "reference " + id, () -> Optional.of("loaded"), loaded -> 1L));
+    Assertions.assertEquals(Optional.of("loaded"),
+      multipleInstances.resolve("dd", id -> "reference " + id, () -> Optional.of("loaded"), loaded -> 1L));
+    Assertions.assertEquals(0, multipleInstances.size());
+  }
+
   // verify that changing the app key to an existing one gets rejected
   @Test
   void updateDuplicateAppFails() throws Exception {
@@ -781,6 +902,7 @@ class ApiControllerIntegrationTests {
           .accept(MediaType.APPLICATION_JSON))
       .andDo(print())
       .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].id").doesNotExist())
       .andReturn();
 
     String response = result.getResponse().getContentAsString();
@@ -1003,6 +1125,103 @@ class ApiControllerIntegrationTests {
       .andExpect(jsonPath("$.forceDeploymentEvidenceUrl").value("http://localhost/deploydash/api/force/apps/dd/envs/test/versions?dd=1-0"));
   }
 
+  @Test
+  void repeatedReleaseIsAnsweredWithoutWriting() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    envService.save(new Environment("test", app));
+
+    mockMvc.perform(
+        get("/deploydash/api/force/apps/dd/envs/test/versions?dd=1-0&ticket=ok-jira://DD-1"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    String eTag = mockMvc.perform(
+        get("/deploydash/api/apps-overview"))
+      .andExpect(status().isOk())
+      .andReturn().getResponse().getHeader("ETag");
+
+    // app keys and version names are case-insensitive, no change is published
+    mockMvc.perform(
+        get("/deploydash/api/force/apps/dd/envs/test/versions?DD=1-0&ticket=ok-jira://DD-1"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.message").value("Nasazení úspěšně zaevidováno."));
+
+    mockMvc.perform(
+        get("/deploydash/api/apps-overview")
+          .header("If-None-Match", eTag))
+      .andExpect(status().isNotModified());
+
+    Assertions.assertEquals(1, verService.get("dd", "1-0").orElseThrow().getDeployments().size());
+  }
+
+  // verify that a repeated release is still checked against the environment and current evidence
+  @Test
+  void repeatedReleaseIsValidated() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    envService.save(new Environment("test", app));
+    envService.save(new Environment("TEST", app));
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0&ticket=ok-jira://DD-1"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    // environment names are case-sensitive, this is another release
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd/envs/TEST/versions?dd=1-0&ticket=ok-jira://DD-1"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    Assertions.assertEquals(2, verService.get("dd", "1-0").orElseThrow().getDeployments().size());
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd/envs/prod/versions?dd=1-0&ticket=ok-jira://DD-1"))
+      .andExpect(status().isBadRequest());
+
+    // the deleted version is recorded again
+    mockMvc.perform(
+        delete("/deploydash/api/apps/dd/versions/1-0?force=true"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0&ticket=ok-jira://DD-1"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    Assertions.assertTrue(verService.get("dd", "1-0").orElseThrow().hasDeployment());
+  }
+
+  // verify that with several instances a retry is checked against the shared table, not an outdated in-memory digest
+  @Test
+  void releaseDigestsUseTableForMultipleInstances() {
+    ReleaseDigests digests = new ReleaseDigests(
+      releaseDigestRepository, new SimpleMeterRegistry(), true, 10, Duration.ofMinutes(10), false);
+    ReleaseDigests otherInstance = new ReleaseDigests(
+      releaseDigestRepository, new SimpleMeterRegistry(), true, 10, Duration.ofMinutes(10), false);
+    ReleaseDigests.Digest first = digests.digest("dd", "test", Map.of("dd", "1-0"), "ok-jira://DD-1", false);
+    ReleaseDigests.Digest second = digests.digest("dd", "test", Map.of("dd", "2-0"), "ok-jira://DD-1", false);
+
+    digests.remember(first, "dd");
+    Assertions.assertFalse(digests.isRecent(first));
+    Assertions.assertTrue(digests.isProcessed(first));
+
+    // another instance releases other versions of the same apps
+    otherInstance.remember(second, "dd");
+    Assertions.assertFalse(digests.isProcessed(first));
+    Assertions.assertTrue(digests.isProcessed(second));
+  }
+
   @Test
   void versionRollbackFails() throws Exception {
     App app = appService.save(new App("dd", "deployment dashboard"));
@@ -1035,6 +1254,32 @@ class ApiControllerIntegrationTests {
       .andExpect(jsonPath("$.forceDeploymentEvidenceUrl").value("http://localhost/deploydash/api/force/apps/dd/envs/test/versions?dd=1-0"));
   }
 
+  // verify that every app is checked in the request order, a rollback is reported before a later foreign app
+  @Test
+  void releaseChecksAppsInOrder() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    appService.save(new App("kl", "kontrolní linka"));
+    envService.save(new Environment("test", app));
+
+    serviceOrchestrator.release("dd", "test", Map.of("dd", "1-0"), null, false);
+    serviceOrchestrator.release("dd", "test", Map.of("dd", "2-0"), null, false);
+
+    em.flush();
+    em.clear();
+
+    Map<String, String> rollbackFirst = new LinkedHashMap<>();
+    rollbackFirst.put("dd", "1-0");
+    rollbackFirst.put("kl", "1-0");
+    Assertions.assertThrows(CustomExceptions.VersionRollbackException.class,
+      () -> serviceOrchestrator.release("dd", "test", rollbackFirst, null, false));
+
+    Map<String, String> foreignFirst = new LinkedHashMap<>();
+    foreignFirst.put("kl", "1-0");
+    foreignFirst.put("dd", "1-0");
+    Assertions.assertThrows(CustomExceptions.NoSuchAppComponentException.class,
+      () -> serviceOrchestrator.release("dd", "test", foreignFirst, null, false));
+  }
+
   @Test
   void deployNonexistendEnvFails() throws Exception {
     appService.save(new App("dd", "deployment dashboard"));
@@ -1176,4 +1421,957 @@ class ApiControllerIntegrationTests {
     Assertions.assertFalse(env.getDeployments().isEmpty());
     Assertions.assertEquals(componentVersion.getDeployments().getFirst(), env.getDeployments().getFirst());
   }
+
+  // verify that the recursive subtree and tree loaders walk the whole hierarchy
+  @Test
+  void loadAppHierarchySucceeds() {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    App fe = appService.save(new App("dd-fe", "front end", app));
+    appService.save(new App("dd-fe-lib", "front end library", fe));
+    appService.save(new App("dd-be", "back end", app));
+    appService.save(new App("kl", "kontrolní linka"));
+
+    Assertions.assertEquals(
+      List.of("dd", "dd-be", "dd-fe", "dd-fe-lib"),
+      appService.getSubtree(app.getId()).getNodes().stream().map(node -> node.key()).sorted().toList());
+    Assertions.assertEquals(
+      List.of("dd-fe", "dd-fe-lib"),
+      appService.getSubtree(fe.getId()).getNodes().stream().map(node -> node.key()).toList());
+    Assertions.assertEquals(
+      app.getId(),
+      appService.getTree(fe.getId()).getProjectId(fe.getId()));
+  }
+
+  // verify that the closure table matches the parent links after saves, re-parenting and deletes
+  @Test
+  void appClosureMatchesParentLinks() {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    App fe = appService.save(new App("dd-fe", "front end", app));
+    appService.save(new App("dd-fe-lib", "front end library", fe));
+    appService.save(new App("dd-be", "back end", app));
+    App kl = appService.save(new App("kl", "kontrolní linka"));
+    appService.save(new App("kl-db", "databáze", kl));
+
+    appService.update("dd-fe", new App("dd-fe", "front end", kl));
+    appService.delete("kl-db", false);
+
+    em.flush();
+    em.clear();
+
+    for (AppNode node : appService.getAllAppNodes()) {
+      App fetchedApp = appService.get(node.key()).orElseThrow();
+      List<String> components = new ArrayList<>(fetchedApp.getComponents().stream().map(App::getKey).toList());
+      components.add(fetchedApp.getKey());
+
+      Assertions.assertEquals(
+        components.stream().sorted().toList(),
+        appService.getSubtree(fetchedApp.getId()).getNodes().stream().map(AppNode::key).sorted().toList());
+      App rootProject = fetchedApp;
+      while (rootProject.getParent().isPresent()) {
+        rootProject = rootProject.getParent().get();
+      }
+      Assertions.assertEquals(rootProject.getKey(), appService.getRootProject(fetchedApp).getKey());
+    }
+    Assertions.assertEquals("kl", appService.getRootProject(appService.get("dd-fe-lib").orElseThrow()).getKey());
+
+    // incrementally maintained rows equal a rebuild from the parent links
+    List<String> maintained = this.closureRows();
+    appClosureService.rebuild();
+    em.clear();
+
+    Assertions.assertEquals(maintained, this.closureRows());
+  }
+
+  // verify that a component without closure rows is reported instead of walking the parent links
+  @Test
+  void missingClosureRowFails() {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    appService.save(new App("dd-fe", "front end", app));
+
+    em.flush();
+    jdbcTemplate.update("DELETE FROM app_closure WHERE descendant_id = (SELECT app_id FROM apps WHERE app_key = 'dd-fe')");
+    em.clear();
+
+    App fe = appService.get("dd-fe").orElseThrow();
+    Assertions.assertThrows(IllegalStateException.class, () -> appService.getRootProject(fe));
+
+    appClosureService.rebuild();
+    Assertions.assertEquals("dd", appService.getRootProject(fe).getKey());
+  }
+
+  private List<String> closureRows() {
+    return appClosureRepository.findAll().stream()
+      .map(row -> row.getId().getAncestorId() + ">" + row.getId().getDescendantId() + ":" + row.getDepth())
+      .sorted()
+      .toList();
+  }
+
+  // verify that the generated dataset is consistent with the closure table and current deployments
+  @Test
+  void generatedDatasetIsConsistent() throws Exception {
+    long deploymentsBefore = this.count("deployments");
+    long versionsBefore = this.count("versions");
+    Dataset dataset = new DatasetGenerator(jdbcTemplate).generate(DatasetSpec.small(42));
+
+    Assertions.assertEquals(deploymentsBefore + dataset.deployments(), this.count("deployments"));
+    Assertions.assertEquals(versionsBefore + dataset.versions(), this.count("versions"));
+
+    List<String> closure = this.closureRows();
+    List<String> current = this.currentDeploymentRows();
+    appClosureService.rebuild();
+    currentDeploymentService.rebuild();
+    em.clear();
+
+    Assertions.assertEquals(closure, this.closureRows());
+    Assertions.assertEquals(current, this.currentDeploymentRows());
+
+    String projectKey = dataset.projectKeys().getFirst();
+    mockMvc.perform(
+        get("/deploydash/api/apps/" + projectKey))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.key").value(projectKey))
+      .andExpect(jsonPath("$.environmentNames", containsInAnyOrder(dataset.projectKeyToEnvironmentNames().get(projectKey).toArray())));
+  }
+
+  private long count(String table) {
+    return Objects.requireNonNull(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+  }
+
+  private List<String> currentDeploymentRows() {
+    return currentDeploymentService.getCurrentDeploymentRows().stream().map(Object::toString).sorted().toList();
+  }
+
+  // overview tests
+
+  @Test
+  void getProjectOverviewsSucceeds() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    appService.save(new App("dd-fe", "front end", app));
+    appService.save(new App("kl", "kontrolní linka"));
+    envService.save(new Environment("test", app));
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0&dd-fe=2-0&ticket=ok-jira://DD-1"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(
+        get("/deploydash/api/apps-overview"))
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(2))
+      .andExpect(jsonPath("$[?(@.key == 'dd')].lastDeployedToEnvName").value("test"))
+      .andExpect(jsonPath("$[?(@.key == 'dd')].lastDeploymentJiraUrl").value("http://localhost:5000/issues/?jql=text~DD-1"))
+      .andExpect(jsonPath("$[?(@.key == 'dd')].versionedComponentsNames[*]", containsInAnyOrder("dd", "dd-fe")))
+      .andExpect(jsonPath("$[?(@.key == 'kl')].lastDeployedVersionName", contains(nullValue())));
+  }
+
+  @Test
+  void getProjectOverviewsNotModifiedUntilDataChanges() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    envService.save(new Environment("test", app));
+
+    String eTag = mockMvc.perform(
+        get("/deploydash/api/apps-overview"))
+      .andExpect(status().isOk())
+      .andExpect(header().exists("ETag"))
+      .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(
+        get("/deploydash/api/apps-overview")
+          .header("If-None-Match", eTag))
+      .andExpect(status().isNotModified())
+      .andExpect(content().string(""));
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0&ticket=ok-jira://DD-1"))
+      .andExpect(status().isOk());
+
+    mockMvc.perform(
+        get("/deploydash/api/apps-overview")
+          .header("If-None-Match", eTag))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].lastDeployedVersionName").value("1-0"));
+  }
+
+  @Test
+  void deleteLatestDeploymentRestoresPreviousInOverview() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    envService.save(new Environment("test", app));
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0"))
+      .andExpect(status().isOk());
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/test/versions?dd=2-0"))
+      .andExpect(status().isOk());
+
+    mockMvc.perform(
+        delete("/deploydash/api/apps/dd/envs/test/versions/2-0/deployment"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(
+        get("/deploydash/api/apps-overview"))
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[?(@.key == 'dd')].lastDeployedVersionName").value("1-0"));
+  }
+
+  // verify that committed writes refresh the read model, which then serves reads without SQL
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void readModelServesRefreshedSnapshot() throws Exception {
+    try {
+      mockMvc.perform(
+          post("/deploydash/api/apps")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new AppDto("rm", "read model"))))
+        .andExpect(status().isCreated());
+      mockMvc.perform(
+          post("/deploydash/api/apps/rm/envs")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new EnvironmentDto("rm", "test"))))
+        .andExpect(status().isCreated());
+      mockMvc.perform(
+          get("/deploydash/api/apps/rm/envs/test/versions?rm=1-0"))
+        .andExpect(status().isOk());
+
+      mockMvc.perform(
+          get("/deploydash/api/apps-overview").with(QueryBudget.statements(0)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[?(@.key == 'rm')].lastDeployedVersionName", contains("1-0")));
+
+      mockMvc.perform(
+          get("/deploydash/api/apps/rm/envs/test/versions?rm=2-0"))
+        .andExpect(status().isOk());
+
+      // the snapshot taken before the release is not served
+      mockMvc.perform(
+          get("/deploydash/api/apps-overview").with(QueryBudget.statements(0)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[?(@.key == 'rm')].lastDeployedVersionName", contains("2-0")));
+
+      mockMvc.perform(
+          get("/deploydash/api/apps/rm").with(QueryBudget.statements(0)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.environmentNames", contains("test")))
+        .andExpect(jsonPath("$.appKeyToVersionDtosMap.rm[*].name", containsInAnyOrder("1-0", "2-0")));
+
+      // an open transaction may see uncommitted changes, the snapshot is not used there
+      new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+        Assertions.assertTrue(readModel.getProjectOverviews().isEmpty()));
+    } finally {
+      mockMvc.perform(
+        delete("/deploydash/api/apps/rm?force=true"));
+    }
+
+    Assertions.assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM apps WHERE app_key = 'rm'", Long.class));
+    mockMvc.perform(
+        get("/deploydash/api/apps-overview"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[?(@.key == 'rm')]").isEmpty());
+  }
+
+  // detail tests
+
+  @Test
+  void getAppDetailSucceeds() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    App component = appService.save(new App("dd-fe", "front end", app));
+    appService.save(new App("dd-fe-lib", "front end library", component));
+    envService.saveAll(new Environment("test", app), new Environment("prod", app));
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0&dd-fe-lib=1-1&ticket=ok-jira://DD-1"))
+      .andExpect(status().isOk());
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd/envs/prod/versions?dd=1-0"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd"))
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.key").value("dd"))
+      .andExpect(jsonPath("$.environmentNames", contains("test", "prod")))
+      .andExpect(jsonPath("$.componentKeysAndNamesMap['dd-fe-lib']").value("front end library"))
+      .andExpect(jsonPath("$.appKeyToVersionDtosMap['dd-fe']").isEmpty())
+      .andExpect(jsonPath("$.appKeyToVersionDtosMap.dd[0].name").value("1-0"))
+      .andExpect(jsonPath("$.appKeyToVersionDtosMap.dd[0].environmentToDateAndJiraUrlMap.test.second").value("http://localhost:5000/issues/?jql=text~DD-1"))
+      .andExpect(jsonPath("$.appKeyToVersionDtosMap.dd[0].environmentToDateAndJiraUrlMap.prod.second").value(""));
+  }
+
+  // deployment history tests
+
+  @Test
+  void getDeploymentPagesSucceeds() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    appService.save(new App("dd-fe", "front end", app));
+    envService.saveAll(new Environment("test", app), new Environment("prod", app));
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0&dd-fe=1-0"))
+      .andExpect(status().isOk());
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/prod/versions?dd=1-0"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    MvcResult firstPage = mockMvc.perform(
+        get("/deploydash/api/deployments/page?projectKey=dd&limit=2"))
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deployments.length()").value(2))
+      .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+      .andReturn();
+
+    String nextCursor = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("nextCursor").asText();
+
+    mockMvc.perform(
+        get("/deploydash/api/deployments/page?projectKey=dd&limit=2&cursor=" + nextCursor))
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deployments.length()").value(1))
+      .andExpect(jsonPath("$.nextCursor").isEmpty());
+
+    mockMvc.perform(
+        get("/deploydash/api/deployments/page?appKey=dd&envName=prod"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deployments.length()").value(1))
+      .andExpect(jsonPath("$.deployments[0].environmentName").value("prod"));
+  }
+
+  // verify that deployments without a date are paged after all dated ones
+  @Test
+  void getDeploymentPagesIncludesUndatedDeployments() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    appService.save(new App("dd-fe", "front end", app));
+    envService.saveAll(new Environment("test", app), new Environment("prod", app));
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0&dd-fe=1-0"))
+      .andExpect(status().isOk());
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/prod/versions?dd=1-0&dd-fe=1-0"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    jdbcTemplate.update("UPDATE deployments SET date = NULL WHERE env_id = (SELECT env_id FROM envs WHERE name = 'prod')");
+
+    MvcResult firstPage = mockMvc.perform(
+        get("/deploydash/api/deployments/page?projectKey=dd&limit=3"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deployments[*].environmentName", contains("test", "test", "prod")))
+      .andExpect(jsonPath("$.deployments[2].deployedAt").value(nullValue()))
+      .andReturn();
+
+    String nextCursor = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("nextCursor").asText();
+
+    mockMvc.perform(
+        get("/deploydash/api/deployments/page?projectKey=dd&limit=3&cursor=" + nextCursor))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deployments[*].environmentName", contains("prod")))
+      .andExpect(jsonPath("$.nextCursor").isEmpty());
+
+    // an undated deployment belongs to no period
+    mockMvc.perform(
+        get("/deploydash/api/deployments/page?projectKey=dd&from=2000-01-01T00:00:00"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deployments.length()").value(2));
+  }
+
+  // verify that deployments sharing a ticket reference one normalized ticket row
+  @Test
+  void deploymentsShareNormalizedTicket() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    appService.save(new App("dd-fe", "front end", app));
+    envService.saveAll(new Environment("test", app), new Environment("prod", app));
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0&dd-fe=1-0&ticket=ok-jira://DD-1"))
+      .andExpect(status().isOk());
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/prod/versions?dd=1-0&ticket=ok-jira://DD-2"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    List<Deployment> deployments = depService.getDeployedAppsByJiraUuid(Optional.of("ok-jira://DD-1"));
+
+    Assertions.assertEquals(2, deployments.size());
+    Assertions.assertEquals(1, deployments.stream().map(deployment -> deployment.getTicket().orElseThrow().getId()).distinct().count());
+    Assertions.assertEquals("ok-jira", deployments.getFirst().getTicket().orElseThrow().getProtocol());
+    Assertions.assertEquals("DD-1", deployments.getFirst().getTicket().orElseThrow().getKey());
+
+    mockMvc.perform(
+        get("/deploydash/api/deployments/page?ticket=ok-jira://DD-2"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deployments.length()").value(1))
+      .andExpect(jsonPath("$.deployments[0].environmentName").value("prod"))
+      .andExpect(jsonPath("$.deployments[0].jiraUrl").value("http://localhost:5000/issues/?jql=text~DD-2"));
+  }
+
+  // verify that re-parenting a component moves its versions and deployments to the new root project
+  @Test
+  void reparentComponentUpdatesRootProject() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    appService.save(new App("dd-fe", "front end", app));
+    App kl = appService.save(new App("kl", "kontrolní linka"));
+    envService.save(new Environment("test", app));
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0&dd-fe=1-0"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    Assertions.assertEquals(List.of(app.getId()), em.createQuery(
+        "SELECT DISTINCT d.rootProjectId FROM Deployment d WHERE d.version.app.key IN ('dd', 'dd-fe')", Long.class).getResultList());
+
+    appService.update("dd-fe", new App("dd-fe", "front end", appService.get("kl").orElseThrow()));
+
+    em.flush();
+    em.clear();
+
+    Assertions.assertEquals(kl.getId(), appService.get("dd-fe").orElseThrow().getRootProjectId());
+    Assertions.assertEquals(kl.getId(), em.createQuery(
+        "SELECT v.rootProjectId FROM Version v WHERE v.app.key = 'dd-fe'", Long.class).getSingleResult());
+
+    // the project filter follows the app's current project, not the project owning the environment:
+    // the earlier deployment of dd-fe to an environment of dd is now listed under kl
+    mockMvc.perform(
+        get("/deploydash/api/deployments/page?projectKey=kl"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deployments.length()").value(1))
+      .andExpect(jsonPath("$.deployments[0].appKey").value("dd-fe"))
+      .andExpect(jsonPath("$.deployments[0].environmentName").value("test"));
+    mockMvc.perform(
+        get("/deploydash/api/deployments/page?projectKey=dd"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deployments.length()").value(1))
+      .andExpect(jsonPath("$.deployments[0].appKey").value("dd"));
+    mockMvc.perform(
+        get("/deploydash/api/deployments/page?projectKey=dd&envName=test"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.deployments[*].appKey", contains("dd")));
+  }
+
+  @Test
+  void getDeploymentPageInvalidCursorFails() throws Exception {
+    mockMvc.perform(
+        get("/deploydash/api/deployments/page?cursor=invalid"))
+      .andDo(print())
+      .andExpect(status().isBadRequest())
+      .andExpect(jsonPath("$.details").value("Neplatný kurzor stránkování."));
+  }
+
+  // the export streams on another thread in its own transaction, so the deployments are committed
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void exportDeploymentsCsvSucceeds() throws Exception {
+    try {
+      this.commitExportedDeployment();
+
+      MvcResult result = mockMvc.perform(
+          get("/deploydash/api/deployments/export?format=csv&projectKey=ex"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+      mockMvc.perform(asyncDispatch(result))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Disposition", "attachment; filename=\"deployments.csv\""))
+        .andExpect(content().string(startsWith("id,deployedAt,appKey,appName,environmentName,versionName,versionDescription,jiraUrl\n")))
+        // values with a comma, a quote or a line break are quoted, quotes are doubled
+        .andExpect(content().string(endsWith(
+          ",ex,\"export, \"\"quoted\"\"\",test,1-0,\"first line\nsecond, line\",http://localhost:5000/issues/?jql=text~EX-1\n")))
+        .andExpect(content().string(matchesPattern("(?s)[^\n]*\n\\d+,\\d{4}-\\d{2}-\\d{2}T[^,]+,ex,.*")));
+    } finally {
+      this.deleteExportedDeployment();
+    }
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void exportDeploymentsNdjsonSucceeds() throws Exception {
+    try {
+      this.commitExportedDeployment();
+
+      MvcResult result = mockMvc.perform(
+          get("/deploydash/api/deployments/export?projectKey=ex"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+      String content = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Disposition", "attachment; filename=\"deployments.ndjson\""))
+        .andReturn().getResponse().getContentAsString();
+
+      List<String> lines = content.lines().toList();
+      Assertions.assertEquals(1, lines.size());
+
+      DeploymentDto deployment = objectMapper.readValue(lines.getFirst(), DeploymentDto.class);
+      Assertions.assertEquals("ex", deployment.getAppKey());
+      Assertions.assertEquals("export, \"quoted\"", deployment.getAppName());
+      Assertions.assertEquals("first line\nsecond, line", deployment.getVersionDescription());
+      Assertions.assertEquals("http://localhost:5000/issues/?jql=text~EX-1", deployment.getJiraUrl());
+      Assertions.assertNotNull(deployment.getDeployedAt());
+    } finally {
+      this.deleteExportedDeployment();
+    }
+  }
+
+  private void commitExportedDeployment() {
+    serviceOrchestrator.addApp(new AppDto("ex", "export, \"quoted\""));
+    serviceOrchestrator.addEnvironment(new EnvironmentDto("ex", "test"));
+    serviceOrchestrator.newVersion("ex", new VersionDto(null, "1-0", "first line\nsecond, line"));
+    serviceOrchestrator.release("ex", "test", Map.of("ex", "1-0"), "ok-jira://EX-1", false);
+  }
+
+  private void deleteExportedDeployment() {
+    if (appService.exists("ex")) {
+      serviceOrchestrator.deleteApp("ex", true);
+    }
+    jdbcTemplate.update("DELETE FROM jira_tickets WHERE protocol = 'ok-jira' AND ticket_key = 'EX-1'");
+  }
+
+  @Test
+  void exportDeploymentsUnknownFormatFails() throws Exception {
+    mockMvc.perform(
+        get("/deploydash/api/deployments/export?format=xml"))
+      .andDo(print())
+      .andExpect(status().isBadRequest())
+      .andExpect(jsonPath("$.details").value("Nepodporovaný formát exportu 'xml'."));
+  }
+
+  @Test
+  void importDeploymentsCsvReportsRejects() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    appService.save(new App("dd-fe", "front end", app));
+    envService.save(new Environment("test", app));
+
+    em.flush();
+    em.clear();
+
+    String csv = """
+      appKey,environmentName,versionName,jiraUrl,deployedAt
+      dd,test,1-0,ok-jira://DD-1,2024-01-01T10:00:00
+      dd-fe,test,2-0,,2024-01-02T10:00:00
+      xx,test,1-0,,2024-01-03T10:00:00
+      dd,prod,1-0,,2024-01-03T10:00:00
+      dd,test,1-0,,2024-01-04T10:00:00
+      dd,test,1-1,,yesterday
+      """;
+
+    mockMvc.perform(
+        post("/deploydash/api/deployments/import?format=csv")
+          .contentType("text/csv")
+          .content(csv))
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.imported").value(2))
+      .andExpect(jsonPath("$.rejected").value(4))
+      .andExpect(jsonPath("$.rejects[*].row", containsInAnyOrder(3, 4, 5, 6)));
+
+    em.flush();
+    em.clear();
+
+    Assertions.assertTrue(verService.get("dd", "1-0").orElseThrow().hasDeployment());
+    Assertions.assertTrue(verService.get("dd-fe", "2-0").orElseThrow().hasDeployment());
+    Assertions.assertTrue(verService.get("dd", "1-1").isEmpty());
+  }
+
+  @Test
+  void importDeploymentsNdjsonSucceeds() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    envService.save(new Environment("test", app));
+
+    em.flush();
+    em.clear();
+
+    String ndjson = """
+      {"appKey":"dd","environmentName":"test","versionName":"1-0","jiraUrl":"http://localhost:5000/issues/?jql=text~DD-1","deployedAt":"2024-01-01T10:00:00"}
+
+      {"appKey":"dd","environmentName":"test","versionName":"1-1","deployedAt":"2024-01-02T10:00:00","appName":"ignored"}
+      {"appKey":"dd","environmentName":"test","versionName":"1-2"}
+      not json
+      """;
+
+    mockMvc.perform(
+        post("/deploydash/api/deployments/import")
+          .contentType("application/x-ndjson")
+          .content(ndjson))
+      .andDo(print())
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.imported").value(2))
+      .andExpect(jsonPath("$.rejected").value(2))
+      .andExpect(jsonPath("$.rejects[*].row", containsInAnyOrder(3, 4)));
+
+    em.flush();
+    em.clear();
+
+    // the resolved link is stored as the custom protocol, the same ticket as a release with ok-jira://DD-1
+    Deployment imported = verService.get("dd", "1-0").orElseThrow().getDeployments().getFirst();
+    Assertions.assertEquals("ok-jira://DD-1", imported.getJiraUrl().orElseThrow());
+    Assertions.assertTrue(verService.get("dd", "1-1").orElseThrow().hasDeployment());
+  }
+
+  // verify that an exported history imports back under the same tickets
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void exportedDeploymentsImportBack() throws Exception {
+    try {
+      this.commitExportedDeployment();
+
+      MvcResult result = mockMvc.perform(
+          get("/deploydash/api/deployments/export?format=csv&projectKey=ex"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+      String csv = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+      serviceOrchestrator.deleteVersion("ex", "1-0", true);
+
+      mockMvc.perform(
+          post("/deploydash/api/deployments/import?format=csv")
+            .contentType("text/csv")
+            .content(csv))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.imported").value(1))
+        .andExpect(jsonPath("$.rejected").value(0));
+
+      Assertions.assertEquals(List.of("ok-jira://EX-1"), jdbcTemplate.queryForList(
+        "SELECT d.jira_url FROM deployments d JOIN versions v ON v.version_id = d.version_id " +
+          "JOIN apps a ON a.app_id = v.app_id WHERE a.app_key = 'ex'", String.class));
+      Assertions.assertEquals(1L, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM jira_tickets WHERE ticket_key LIKE '%EX-1'", Long.class));
+    } finally {
+      this.deleteExportedDeployment();
+      jdbcTemplate.update("DELETE FROM jira_tickets WHERE ticket_key LIKE '%EX-1'");
+    }
+  }
+
+  // release queue tests
+
+  // verify that a queued batch records each release and that a rejected release does not stop the rest
+  @Test
+  void queuedReleaseBatchRejectsOnlyConflicts() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    appService.save(new App("dd-fe", "front end", app));
+    envService.save(new Environment("test", app));
+
+    em.flush();
+
+    List<QueuedRelease> batch = queuedReleaseRepository.saveAll(List.of(
+      new QueuedRelease("dd", "test", Map.of("dd", "1-0"), "ok-jira://DD-1", false),
+      new QueuedRelease("dd", "test", Map.of("dd", "1-0"), null, false),
+      new QueuedRelease("dd", "test", Map.of("dd-fe", "2-0"), "ok-jira://DD-2", false),
+      new QueuedRelease("dd", "test", Map.of("dd-fe", "2-0"), "ok-jira://DD-2", false)
+    ));
+    serviceOrchestrator.releaseQueued(batch);
+
+    em.flush();
+    em.clear();
+
+    Assertions.assertEquals(QueuedRelease.Status.DONE, batch.get(0).getStatus());
+    Assertions.assertEquals(QueuedRelease.Status.REJECTED, batch.get(1).getStatus());
+    Assertions.assertTrue(batch.get(1).getMessage().orElseThrow().contains("již byla na prostředí 'test' nasazena"));
+    Assertions.assertEquals(QueuedRelease.Status.DONE, batch.get(2).getStatus());
+    // a retry of an already released request is not a conflict
+    Assertions.assertEquals(QueuedRelease.Status.DONE, batch.get(3).getStatus());
+    Assertions.assertEquals("Nasazení již bylo zaevidováno.", batch.get(3).getMessage().orElseThrow());
+
+    Assertions.assertTrue(verService.get("dd", "1-0").orElseThrow().hasDeployment());
+    Assertions.assertTrue(verService.get("dd-fe", "2-0").orElseThrow().hasDeployment());
+
+    mockMvc.perform(
+        get("/deploydash/api/releases/" + batch.get(1).getTrackingId()))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.status").value("REJECTED"))
+      .andExpect(jsonPath("$.processedAt").isNotEmpty());
+  }
+
+  // verify that a batch sees the releases recorded before it in the same transaction
+  @Test
+  void queuedReleaseBatchRejectsRollback() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    envService.save(new Environment("test", app));
+    envService.save(new Environment("prod", app));
+
+    serviceOrchestrator.release("dd", "test", Map.of("dd", "1-0"), null, false);
+    serviceOrchestrator.newVersion("dd", new VersionDto(null, "2-0", "next"));
+
+    em.flush();
+    em.clear();
+
+    // forward on test, then back on prod
+    List<QueuedRelease> batch = queuedReleaseRepository.saveAll(List.of(
+      new QueuedRelease("dd", "test", Map.of("dd", "2-0"), null, false),
+      new QueuedRelease("dd", "prod", Map.of("dd", "1-0"), null, false)
+    ));
+    serviceOrchestrator.releaseQueued(batch);
+
+    em.flush();
+    em.clear();
+
+    Assertions.assertEquals(QueuedRelease.Status.DONE, batch.get(0).getStatus());
+    Assertions.assertEquals(QueuedRelease.Status.REJECTED, batch.get(1).getStatus());
+    Assertions.assertEquals(
+      "Aplikace 'dd' je na prostředí 'test' nasazena ve verzi '2-0', která je dle evidence novější, než právě nasazovaná verze '1-0'.",
+      batch.get(1).getMessage().orElseThrow());
+    Assertions.assertEquals(1, verService.get("dd", "1-0").orElseThrow().getDeployments().size());
+  }
+
+  // verify that asynchronous releases are refused while the queue is off (the default)
+  @Test
+  void queueReleaseWhenDisabledFails() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    envService.save(new Environment("test", app));
+
+    em.flush();
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd/envs/test/versions/async?dd=1-1"))
+      .andDo(print())
+      .andExpect(status().isServiceUnavailable())
+      .andExpect(jsonPath("$.details").value("Asynchronní evidence nasazení není zapnutá."))
+      .andExpect(header().doesNotExist("Location"));
+
+    mockMvc.perform(
+        get("/deploydash/api/force/apps/dd/envs/test/versions/async?dd=1-1"))
+      .andExpect(status().isServiceUnavailable());
+  }
+
+  // change stream tests
+
+  @Test
+  void subscribeToChangesReceivesCommittedChanges() throws Exception {
+    MockHttpServletResponse response = mockMvc.perform(
+        get("/deploydash/api/events?projectKey=DD"))
+      .andExpect(request().asyncStarted())
+      .andReturn().getResponse();
+
+    awaitContent(response, "event:revision");
+
+    // the test transaction never commits, so invoke the AFTER_COMMIT listener directly
+    changeStream.onDashboardChanged(DashboardChangedEvent.projectChanged(
+      DashboardChangedEvent.Type.RELEASED, 1L, "kl", "kl", "test", Map.of("kl", "1-0")));
+    changeStream.onDashboardChanged(DashboardChangedEvent.projectChanged(
+      DashboardChangedEvent.Type.RELEASED, 2L, "dd", "dd-fe", "prod", Map.of("dd-fe", "2-0")));
+
+    awaitContent(response, "\"appKey\":\"dd-fe\"");
+    Assertions.assertFalse(response.getContentAsString().contains("\"appKey\":\"kl\""));
+  }
+
+  @Test
+  void subscribeWithUnknownRevisionResets() throws Exception {
+    MockHttpServletResponse response = mockMvc.perform(
+        get("/deploydash/api/events")
+          .header("Last-Event-ID", "unknown-1"))
+      .andExpect(request().asyncStarted())
+      .andReturn().getResponse();
+
+    awaitContent(response, "event:reset");
+  }
+
+  // metrics tests
+
+  // verify that releases are timed per project and rejected rollbacks are counted
+  @Test
+  void releaseMetricsAreRecorded() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    envService.save(new Environment("test", app));
+
+    em.flush();
+    em.clear();
+
+    double rollbacksBefore = meterRegistry.find(OrchestratorMetrics.RELEASE_CONFLICTS)
+      .tags("type", "rollback", "project", "dd").counters().stream().mapToDouble(counter -> counter.count()).sum();
+
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/test/versions?dd=2-0"))
+      .andExpect(status().isOk());
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0"))
+      .andExpect(status().isOk());
+    mockMvc.perform(get("/deploydash/api/apps/dd/envs/test/versions?dd=2-0"))
+      .andExpect(status().isBadRequest());
+
+    Assertions.assertTrue(meterRegistry.get(OrchestratorMetrics.OPERATION_TIMER)
+      .tags("operation", "release", "project", "dd", "outcome", "success").timer().count() >= 2);
+    Assertions.assertEquals(rollbacksBefore + 1, meterRegistry.get(OrchestratorMetrics.RELEASE_CONFLICTS)
+      .tags("type", "rollback", "project", "dd").counter().count());
+
+    mockMvc.perform(get("/deploydash/api/apps-overview"))
+      .andExpect(status().isOk());
+
+    Assertions.assertTrue(meterRegistry.get(RequestQueryMetrics.STATEMENTS)
+      .tags("method", "GET", "uri", "/api/apps/{key}/envs/{envKey}/versions").summary().max() > 0);
+    Assertions.assertTrue(meterRegistry.get(RequestQueryMetrics.STATEMENTS)
+      .tags("uri", "/api/apps-overview").summary().count() > 0);
+  }
+
+  // verify that the opt-in Server-Timing filter reports the SQL work of a request
+  @Test
+  void serverTimingReportsStatements(WebApplicationContext context,
+                                     @Value("${server.servlet.context-path}") String contextPath) throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    envService.save(new Environment("test", app));
+
+    em.flush();
+    em.clear();
+
+    MockMvc timedMockMvc = MockMvcBuilders.webAppContextSetup(context)
+      .addFilters(new ServerTimingFilter())
+      .defaultRequest(get("/").contextPath(contextPath))
+      .build();
+
+    timedMockMvc.perform(get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0"))
+      .andExpect(status().isOk())
+      .andExpect(header().string(ServerTiming.HEADER, startsWith("db;dur=")))
+      .andExpect(header().string(ServerTiming.HEADER, containsString("app;dur=")))
+      .andExpect(header().string(ServerTiming.HEADER, containsString("json;dur=")))
+      .andExpect(header().string(ServerTiming.HEADER, not(containsString("desc=\"0 statements"))));
+
+    // streamed responses are not buffered
+    timedMockMvc.perform(get("/deploydash/api/deployments/export"))
+      .andExpect(header().doesNotExist(ServerTiming.HEADER));
+  }
+
+  // verify that read endpoints stay within their query budgets and that the overview does not grow with the data
+  @Test
+  void readEndpointsStayWithinQueryBudgets() throws Exception {
+    App app = appService.save(new App("dd", "deployment dashboard"));
+    appService.save(new App("dd-fe", "front end", app));
+    envService.save(new Environment("test", app));
+
+    em.flush();
+    em.clear();
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd/envs/test/versions?dd=1-0&dd-fe=2-0&ticket=ok-jira://DD-1"))
+      .andExpect(status().isOk());
+
+    em.flush();
+    em.clear();
+
+    // hierarchy, current deployments, components of their tickets
+    long overviewStatements = QueryBudget.countsOf(mockMvc.perform(
+        get("/deploydash/api/apps-overview").with(QueryBudget.statements(3)))
+      .andExpect(status().isOk())
+      .andReturn()).getStatements();
+
+    new DatasetGenerator(jdbcTemplate).generate(DatasetSpec.small(42));
+    em.clear();
+
+    long largerOverviewStatements = QueryBudget.countsOf(mockMvc.perform(
+        get("/deploydash/api/apps-overview").with(QueryBudget.statements(3)))
+      .andExpect(status().isOk())
+      .andReturn()).getStatements();
+
+    Assertions.assertEquals(overviewStatements, largerOverviewStatements);
+
+    // project, subtree, environments, deployment cells, versions
+    mockMvc.perform(
+        get("/deploydash/api/apps/dd").with(QueryBudget.statements(6).entityLoads(10)))
+      .andExpect(status().isOk());
+
+    mockMvc.perform(
+        get("/deploydash/api/deployments/page?projectKey=dd&limit=50").with(QueryBudget.statements(3)))
+      .andExpect(status().isOk());
+  }
+
+  // verify that a repeated release resolves the project and environment from the lookup caches without SQL
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void repeatedReleaseRunsNoStatements() throws Exception {
+    serviceOrchestrator.addApp(new AppDto("lc", "lookup cache"));
+    serviceOrchestrator.addEnvironment(new EnvironmentDto("lc", "test"));
+
+    try {
+      // key ids are cached once the release commits
+      mockMvc.perform(
+          get("/deploydash/api/apps/lc/envs/test/versions?lc=1-0&ticket=ok-jira://LC-1"))
+        .andExpect(status().isOk());
+
+      mockMvc.perform(
+          get("/deploydash/api/apps/LC/envs/test/versions?lc=1-0&ticket=ok-jira://LC-1").with(QueryBudget.statements(0)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.message").value("Nasazení úspěšně zaevidováno."));
+
+      // a deleted environment is not served from the cache
+      serviceOrchestrator.deleteEnvironment("lc", "test", true);
+
+      mockMvc.perform(
+          get("/deploydash/api/apps/lc/envs/test/versions?lc=1-0&ticket=ok-jira://LC-1"))
+        .andExpect(status().isBadRequest());
+    } finally {
+      serviceOrchestrator.deleteApp("lc", true);
+      jdbcTemplate.update("DELETE FROM jira_tickets WHERE protocol = 'ok-jira' AND ticket_key = 'LC-1'");
+    }
+  }
+
+  // verify that a streamed request does not leave query counting active on the request thread
+  @Test
+  void asyncRequestEndsQueryCounting(WebApplicationContext context,
+                                     @Value("${server.servlet.context-path}") String contextPath) throws Exception {
+    // without QueryBudget.filter(), which would begin and end the counting itself
+    MockMvc plainMockMvc = MockMvcBuilders.webAppContextSetup(context)
+      .defaultRequest(get("/").contextPath(contextPath))
+      .build();
+
+    MvcResult export = plainMockMvc.perform(get("/deploydash/api/deployments/export"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    Assertions.assertFalse(QueryCounter.isActive());
+
+    plainMockMvc.perform(asyncDispatch(export))
+      .andExpect(status().isOk());
+
+    plainMockMvc.perform(get("/deploydash/api/events"))
+      .andExpect(request().asyncStarted());
+
+    Assertions.assertFalse(QueryCounter.isActive());
+
+    // the next request on the same thread is counted on its own
+    plainMockMvc.perform(get("/deploydash/api/apps-overview"))
+      .andExpect(status().isOk());
+
+    Assertions.assertFalse(QueryCounter.isActive());
+  }
+
+  // events are sent asynchronously
+  private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+    for (int i = 0; i < 50 && !response.getContentAsString().contains(expected); i++) {
+      Thread.sleep(100);
+    }
+    Assertions.assertTrue(response.getContentAsString().contains(expected), response.getContentAsString());
+  }
 }
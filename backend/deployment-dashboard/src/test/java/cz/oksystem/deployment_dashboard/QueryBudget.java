@@ -0,0 +1,95 @@
+package cz.oksystem.deployment_dashboard;
+
+import cz.oksystem.deployment_dashboard.metrics.QueryCounter;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+// Query budget of a single MockMvc request, e.g.
+//   mockMvc.perform(get("/deploydash/api/apps-overview").with(QueryBudget.statements(3)))
+// The filter from QueryBudget.filter() counts Hibernate work of every request (with SQL text)
+// and fails the request with the list of executed statements once its budget is exceeded.
+final class QueryBudget implements RequestPostProcessor {
+  private static final String BUDGET_ATTRIBUTE = QueryBudget.class.getName() + ".budget";
+  private static final String COUNTS_ATTRIBUTE = QueryBudget.class.getName() + ".counts";
+
+  private final long maxStatements;
+  private final long maxEntityLoads;
+
+  private QueryBudget(long maxStatements, long maxEntityLoads) {
+    this.maxStatements = maxStatements;
+    this.maxEntityLoads = maxEntityLoads;
+  }
+
+  static QueryBudget statements(long maxStatements) {
+    return new QueryBudget(maxStatements, Long.MAX_VALUE);
+  }
+
+  QueryBudget entityLoads(long maxEntityLoads) {
+    return new QueryBudget(maxStatements, maxEntityLoads);
+  }
+
+  @Override
+  public MockHttpServletRequest postProcessRequest(MockHttpServletRequest request) {
+    request.setAttribute(BUDGET_ATTRIBUTE, this);
+    return request;
+  }
+
+  static Filter filter() {
+    return new OncePerRequestFilter() {
+      @Override
+      protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        QueryCounter.Counts counts = QueryCounter.begin(true);
+        request.setAttribute(COUNTS_ATTRIBUTE, counts);
+
+        try {
+          filterChain.doFilter(request, response);
+        } finally {
+          QueryCounter.end();
+        }
+        if (request.getAttribute(BUDGET_ATTRIBUTE) instanceof QueryBudget budget) {
+          budget.check(request, counts);
+        }
+      }
+    };
+  }
+
+  // counts of an already performed request
+  static QueryCounter.Counts countsOf(MvcResult result) {
+    if (!(result.getRequest().getAttribute(COUNTS_ATTRIBUTE) instanceof QueryCounter.Counts counts)) {
+      throw new IllegalStateException("MockMvc is not set up with QueryBudget.filter()");
+    }
+    return counts;
+  }
+
+  private void check(HttpServletRequest request, QueryCounter.Counts counts) {
+    String exceeded = null;
+
+    if (counts.getStatements() > maxStatements) {
+      exceeded = String.format("%d SQL statements (budget %d)", counts.getStatements(), maxStatements);
+    } else if (counts.getEntityLoads() > maxEntityLoads) {
+      exceeded = String.format("%d entity loads (budget %d)", counts.getEntityLoads(), maxEntityLoads);
+    }
+    if (exceeded == null) {
+      return;
+    }
+
+    StringBuilder message = new StringBuilder(String.format("%s %s executed %s:",
+      request.getMethod(), request.getRequestURI(), exceeded));
+    List<String> statements = counts.getStatementSql();
+    for (int i = 0; i < statements.size(); i++) {
+      message.append(String.format("%n  %d. %s", i + 1, statements.get(i)));
+    }
+    throw new AssertionError(message.toString());
+  }
+}
@@ -0,0 +1,188 @@
+package cz.oksystem.deployment_dashboard.service;
+
+import com.jayway.jsonpath.JsonPath;
+import cz.oksystem.deployment_dashboard.dto.AppDto;
+import cz.oksystem.deployment_dashboard.dto.EnvironmentDto;
+import cz.oksystem.deployment_dashboard.entity.QueuedRelease;
+import cz.oksystem.deployment_dashboard.repository.QueuedReleaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+// The queue is enabled and the writer is stopped, the tests drive it themselves.
+// Releases are processed in their own transactions, so the tests commit and remove their data.
+@SpringBootTest(properties = {
+  "deploydash.release-queue.enabled=true",
+  "deploydash.release-queue.capacity=2"
+})
+class ReleaseQueueIntegrationTests {
+
+  @Autowired
+  private ReleaseQueue releaseQueue;
+
+  @Autowired
+  private ReleaseQueueWriter releaseQueueWriter;
+
+  @Autowired
+  private QueuedReleaseRepository queuedReleaseRepository;
+
+  @Autowired
+  private ServiceOrchestrator serviceOrchestrator;
+
+  @Autowired
+  private VersionService verService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private MockMvc mockMvc;
+
+
+  @BeforeEach
+  void setup(WebApplicationContext context, @Value("${server.servlet.context-path}") String contextPath) throws Exception {
+    this.mockMvc = MockMvcBuilders.webAppContextSetup(context)
+      .defaultRequest(get("/").contextPath(contextPath))
+      .build();
+
+    releaseQueueWriter.stop();
+
+    serviceOrchestrator.addApp(new AppDto("rq", "release queue"));
+    serviceOrchestrator.addApp(new AppDto("rq-fe", "front end", "rq"));
+    serviceOrchestrator.addEnvironment(new EnvironmentDto("rq", "test"));
+  }
+
+  @AfterEach
+  void cleanup() throws Exception {
+    releaseQueue.take(100, 0, TimeUnit.MILLISECONDS);
+
+    serviceOrchestrator.deleteApp("rq", true);
+    jdbcTemplate.update("DELETE FROM release_queue WHERE project_key = 'rq'");
+  }
+
+  // verify that accepted releases are tracked at their Location and recorded by the writer
+  @Test
+  void queuedReleaseIsAcceptedAndRecorded() throws Exception {
+    MvcResult accepted = mockMvc.perform(
+        get("/deploydash/api/apps/rq/envs/test/versions/async?rq=1-0"))
+      .andDo(print())
+      .andExpect(status().isAccepted())
+      .andExpect(jsonPath("$.status").value("QUEUED"))
+      .andExpect(jsonPath("$.projectKey").value("rq"))
+      .andReturn();
+    String trackingId = JsonPath.read(accepted.getResponse().getContentAsString(), "$.trackingId");
+
+    Assertions.assertEquals("http://localhost/deploydash/api/releases/" + trackingId,
+      accepted.getResponse().getHeader("Location"));
+
+    MvcResult forced = mockMvc.perform(
+        get("/deploydash/api/force/apps/rq/envs/test/versions/async?rq-fe=2-0"))
+      .andExpect(status().isAccepted())
+      .andExpect(header().exists("Location"))
+      .andReturn();
+    String forcedTrackingId = JsonPath.read(forced.getResponse().getContentAsString(), "$.trackingId");
+
+    List<Long> ids = releaseQueue.take(10, 1, TimeUnit.SECONDS);
+    Assertions.assertEquals(2, ids.size());
+
+    releaseQueueWriter.process(ids);
+
+    mockMvc.perform(
+        get("/deploydash/api/releases/" + trackingId))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.status").value("DONE"))
+      .andExpect(jsonPath("$.processedAt").isNotEmpty());
+    mockMvc.perform(
+        get("/deploydash/api/releases/" + forcedTrackingId))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.status").value("DONE"));
+
+    Assertions.assertTrue(verService.get("rq", "1-0").isPresent());
+    Assertions.assertTrue(verService.get("rq-fe", "2-0").isPresent());
+  }
+
+  // verify that a full queue rejects the release without keeping it waiting in the outbox
+  @Test
+  void fullQueueRejectsRelease() throws Exception {
+    mockMvc.perform(get("/deploydash/api/apps/rq/envs/test/versions/async?rq=1-0"))
+      .andExpect(status().isAccepted());
+    mockMvc.perform(get("/deploydash/api/apps/rq/envs/test/versions/async?rq=1-1"))
+      .andExpect(status().isAccepted());
+
+    mockMvc.perform(
+        get("/deploydash/api/apps/rq/envs/test/versions/async?rq=1-2"))
+      .andDo(print())
+      .andExpect(status().isServiceUnavailable())
+      .andExpect(jsonPath("$.details").value("Fronta nasazení je plná, zkuste to později."));
+
+    Assertions.assertEquals(2, releaseQueue.take(10, 1, TimeUnit.SECONDS).size());
+    Assertions.assertEquals(2L, jdbcTemplate.queryForObject(
+      "SELECT COUNT(*) FROM release_queue WHERE project_key = 'rq' AND status = 'QUEUED'", Long.class));
+  }
+
+  // verify that releases left in the outbox are queued again
+  @Test
+  void unprocessedReleasesAreRecovered() throws Exception {
+    QueuedRelease release = queuedReleaseRepository.save(
+      new QueuedRelease("rq", "test", Map.of("rq", "1-0"), null, false));
+
+    releaseQueue.recover();
+    List<Long> ids = releaseQueue.take(10, 1, TimeUnit.SECONDS);
+    Assertions.assertTrue(ids.contains(release.getId()));
+
+    releaseQueueWriter.process(List.of(release.getId()));
+
+    Assertions.assertEquals(QueuedRelease.Status.DONE,
+      queuedReleaseRepository.findById(release.getId()).orElseThrow().getStatus());
+  }
+
+  // verify that a database error fails only its own release, the rest of the batch is recorded one by one
+  @Test
+  void failingReleaseDoesNotFailBatch() {
+    double failuresBefore = meterRegistry.get("deploydash.release-queue.failures")
+      .tags("outcome", "failed").counter().count();
+
+    List<QueuedRelease> batch = queuedReleaseRepository.saveAll(List.of(
+      new QueuedRelease("rq", "test", Map.of("rq", "1-0"), null, false),
+      // longer than versions.name
+      new QueuedRelease("rq", "test", Map.of("rq-fe", "2-".repeat(200)), null, false),
+      new QueuedRelease("rq", "test", Map.of("rq-fe", "2-0"), null, false)
+    ));
+
+    releaseQueueWriter.process(batch.stream().map(QueuedRelease::getId).toList());
+
+    List<QueuedRelease.Status> statuses = batch.stream()
+      .map(release -> queuedReleaseRepository.findById(release.getId()).orElseThrow().getStatus())
+      .toList();
+    Assertions.assertEquals(
+      List.of(QueuedRelease.Status.DONE, QueuedRelease.Status.FAILED, QueuedRelease.Status.DONE), statuses);
+
+    Assertions.assertTrue(verService.get("rq", "1-0").isPresent());
+    Assertions.assertTrue(verService.get("rq-fe", "2-0").isPresent());
+    Assertions.assertEquals(failuresBefore + 1, meterRegistry.get("deploydash.release-queue.failures")
+      .tags("outcome", "failed").counter().count());
+  }
+}
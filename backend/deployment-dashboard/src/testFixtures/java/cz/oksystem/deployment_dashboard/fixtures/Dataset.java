@@ -0,0 +1,15 @@
+package cz.oksystem.deployment_dashboard.fixtures;
+
+import java.util.List;
+import java.util.Map;
+
+// prehled vygenerovanych dat - klice projektu s jejich aplikacemi (projekt je prvni) a prostredimi
+public record Dataset(Map<String, List<String>> projectKeyToAppKeys,
+                      Map<String, List<String>> projectKeyToEnvironmentNames,
+                      long versions,
+                      long deployments) {
+
+  public List<String> projectKeys() {
+    return List.copyOf(projectKeyToAppKeys.keySet());
+  }
+}
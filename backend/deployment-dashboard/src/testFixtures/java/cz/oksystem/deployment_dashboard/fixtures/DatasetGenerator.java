@@ -0,0 +1,272 @@
+package cz.oksystem.deployment_dashboard.fixtures;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// deterministicky generator synteticke datove sady - zapisuje JDBC batchem primo do schematu
+// z Liquibase (vcetne app_closure, root_project_id, jira_tickets a current_deployments), bez JPA;
+// rozlozeni odpovida produkci: par aktivnich aplikaci ma vetsinu nasazeni (Zipf), dlouhe
+// historie verzi, verze postupuji pipeline prostredi a casto sdileji Jira ticket
+public class DatasetGenerator {
+  private static final int BATCH_SIZE = 1000;
+
+  private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 8, 0);
+  private static final Duration SPAN = Duration.ofDays(5 * 365);
+  private static final List<String> PIPELINE = List.of("dev", "test", "int", "uat", "preprod", "prod");
+
+  private static final double ZIPF_EXPONENT = 1.1;
+  // rozptyl poctu komponent projektu (lognormalni rozdeleni se stredni hodnotou ze specifikace)
+  private static final double COMPONENTS_SIGMA = 0.75;
+  private static final double NESTED_COMPONENT = 0.2;
+  // pravdepodobnost, ze verze postoupi na dalsi prostredi
+  private static final double PROMOTION = 0.6;
+  private static final double NEW_TICKET = 0.7;
+  private static final double NO_TICKET = 0.05;
+  private static final double MINOR_BUMP = 0.1;
+  private static final double MAJOR_BUMP = 0.02;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public DatasetGenerator(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public DatasetGenerator(DataSource dataSource) {
+    this(new JdbcTemplate(dataSource));
+  }
+
+  // zapisuje ve volajici transakci (pokud nejaka je), jinak po davkach v auto-commitu
+  public Dataset generate(DatasetSpec spec) {
+    Random random = new Random(spec.seed());
+
+    IdAllocator appIds = new IdAllocator("apps_seq");
+    IdAllocator envIds = new IdAllocator("envs_seq");
+    IdAllocator versionIds = new IdAllocator("versions_seq");
+    IdAllocator deploymentIds = new IdAllocator("deployments_seq");
+    IdAllocator ticketIds = new IdAllocator("jira_tickets_seq");
+
+    Batch apps = new Batch(
+      "INSERT INTO apps (app_id, parent_id, root_project_id, app_key, name) VALUES (?, ?, ?, ?, ?)");
+    Batch closure = new Batch(
+      "INSERT INTO app_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, ?)", apps);
+    Batch envs = new Batch(
+      "INSERT INTO envs (env_id, app_id, name) VALUES (?, ?, ?)", apps);
+    Batch versions = new Batch(
+      "INSERT INTO versions (version_id, app_id, root_project_id, name) VALUES (?, ?, ?, ?)", apps);
+    Batch tickets = new Batch(
+      "INSERT INTO jira_tickets (ticket_id, protocol, ticket_key) VALUES (?, ?, ?)");
+    Batch deployments = new Batch(
+      "INSERT INTO deployments (deployment_id, env_id, version_id, root_project_id, jira_url, ticket_id, date) VALUES (?, ?, ?, ?, ?, ?, ?)",
+      versions, envs, tickets);
+    Batch currentDeployments = new Batch(
+      "INSERT INTO current_deployments (app_id, env_id, deployment_id) VALUES (?, ?, ?)", deployments);
+
+    // hierarchie a prostredi
+    List<AppRow> appRows = new ArrayList<>();
+    Map<Long, List<Long>> projectIdToEnvIds = new HashMap<>();
+    Map<String, List<String>> projectKeyToAppKeys = new LinkedHashMap<>();
+    Map<String, List<String>> projectKeyToEnvNames = new LinkedHashMap<>();
+
+    for (int p = 0; p < spec.projects(); p++) {
+      String projectKey = String.format("gen%04d", p);
+      long projectId = appIds.next();
+      List<AppRow> projectApps = new ArrayList<>();
+
+      projectApps.add(new AppRow(projectId, projectId, projectKey, projectKey, "project " + p, List.of()));
+
+      int componentCount = (int) Math.round(spec.componentsPerProject()
+        * Math.exp(COMPONENTS_SIGMA * random.nextGaussian() - COMPONENTS_SIGMA * COMPONENTS_SIGMA / 2));
+
+      for (int c = 0; c < componentCount; c++) {
+        // vetsina komponent visi primo pod projektem, cast je zanorena pod jinou komponentou
+        AppRow parent = projectApps.size() > 1 && random.nextDouble() < NESTED_COMPONENT
+          ? projectApps.get(1 + random.nextInt(projectApps.size() - 1))
+          : projectApps.getFirst();
+
+        List<Long> ancestorIds = new ArrayList<>();
+        ancestorIds.add(parent.id());
+        ancestorIds.addAll(parent.ancestorIds());
+
+        projectApps.add(new AppRow(appIds.next(), projectId, projectKey, String.format("%s-c%03d", projectKey, c),
+          projectKey + " component " + c, ancestorIds));
+      }
+
+      List<Long> projectEnvIds = new ArrayList<>();
+      List<String> projectEnvNames = new ArrayList<>();
+      for (int e = 0; e < spec.environmentsPerProject(); e++) {
+        long envId = envIds.next();
+        String envName = e < PIPELINE.size() ? PIPELINE.get(e) : "test" + (e - PIPELINE.size() + 2);
+
+        envs.add(envId, projectId, envName);
+        projectEnvIds.add(envId);
+        projectEnvNames.add(envName);
+      }
+
+      for (AppRow app : projectApps) {
+        apps.add(app.id(), app.ancestorIds().isEmpty() ? null : app.ancestorIds().getFirst(), projectId, app.key(), app.name());
+
+        closure.add(app.id(), app.id(), 0);
+        for (int depth = 1; depth <= app.ancestorIds().size(); depth++) {
+          closure.add(app.ancestorIds().get(depth - 1), app.id(), depth);
+        }
+      }
+      appRows.addAll(projectApps);
+      projectIdToEnvIds.put(projectId, projectEnvIds);
+      projectKeyToAppKeys.put(projectKey, projectApps.stream().map(AppRow::key).toList());
+      projectKeyToEnvNames.put(projectKey, List.copyOf(projectEnvNames));
+    }
+    closure.flush();
+    envs.flush();
+
+    // aktivita aplikaci podle Zipfova rozdeleni s nahodnym poradim
+    List<Integer> ranks = new ArrayList<>();
+    for (int rank = 1; rank <= appRows.size(); rank++) {
+      ranks.add(rank);
+    }
+    Collections.shuffle(ranks, random);
+
+    double[] weights = new double[appRows.size()];
+    double weightSum = 0;
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = 1 / Math.pow(ranks.get(i), ZIPF_EXPONENT);
+      weightSum += weights[i];
+    }
+
+    // historie verzi a nasazeni, aplikace po aplikaci
+    Map<Long, Integer> projectIdToTicket = new HashMap<>();
+    Map<String, Long> ticketToId = new HashMap<>();
+    long versionCount = 0;
+    long deploymentCount = 0;
+
+    for (int i = 0; i < appRows.size(); i++) {
+      AppRow app = appRows.get(i);
+      List<Long> appEnvIds = projectIdToEnvIds.get(app.projectId());
+      long budget = Math.round(spec.deployments() * weights[i] / weightSum);
+
+      // rozestup verzi tak, aby historie pokryla SPAN
+      double deploymentsPerVersion = (1 - Math.pow(PROMOTION, appEnvIds.size())) / (1 - PROMOTION);
+      double meanGapMinutes = SPAN.toMinutes() / Math.max(1, budget / deploymentsPerVersion);
+
+      LocalDateTime released = START.plusMinutes(random.nextInt(30 * 24 * 60));
+      int major = 1, minor = 0, patch = 0;
+      Map<Long, Current> envIdToCurrent = new HashMap<>();
+
+      while (budget > 0) {
+        double bump = random.nextDouble();
+        if (bump < MAJOR_BUMP) {
+          major++;
+          minor = 0;
+          patch = 0;
+        } else if (bump < MAJOR_BUMP + MINOR_BUMP) {
+          minor++;
+          patch = 0;
+        } else {
+          patch++;
+        }
+        long versionId = versionIds.next();
+        versions.add(versionId, app.id(), app.projectId(), major + "." + minor + "." + patch);
+        versionCount++;
+
+        // ticket projektu casto pokryva vice verzi a komponent
+        String ticket = null;
+        Long ticketId = null;
+        if (random.nextDouble() >= NO_TICKET) {
+          int ticketNumber = projectIdToTicket.merge(app.projectId(), random.nextDouble() < NEW_TICKET ? 1 : 0, Integer::sum);
+          String ticketKey = app.projectKey().toUpperCase() + "-" + Math.max(1, ticketNumber);
+
+          ticket = "ok-jira://" + ticketKey;
+          ticketId = ticketToId.computeIfAbsent(ticket, url -> {
+            long id = ticketIds.next();
+            tickets.add(id, "ok-jira", ticketKey);
+            return id;
+          });
+        }
+
+        released = released.plusMinutes(1 + (long) (-Math.log(1 - random.nextDouble()) * meanGapMinutes));
+        LocalDateTime deployedAt = released;
+
+        // verze postupuje pipeline, dokud neni zastavena
+        for (int e = 0; e < appEnvIds.size() && budget > 0; e++) {
+          if (e > 0) {
+            if (random.nextDouble() >= PROMOTION) {
+              break;
+            }
+            deployedAt = deployedAt.plusMinutes(30 + random.nextInt(3 * 24 * 60));
+          }
+          long deploymentId = deploymentIds.next();
+          deployments.add(deploymentId, appEnvIds.get(e), versionId, app.projectId(), ticket, ticketId, Timestamp.valueOf(deployedAt));
+          deploymentCount++;
+          budget--;
+
+          envIdToCurrent.merge(appEnvIds.get(e), new Current(deploymentId, deployedAt),
+            (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+        }
+      }
+      envIdToCurrent.forEach((envId, current) -> currentDeployments.add(app.id(), envId, current.deploymentId()));
+    }
+    currentDeployments.flush();
+
+    return new Dataset(projectKeyToAppKeys, projectKeyToEnvNames, versionCount, deploymentCount);
+  }
+
+  private record AppRow(long id, long projectId, String projectKey, String key, String name, List<Long> ancestorIds) {}
+
+  // stejne poradi jako current_deployments (date DESC, id DESC)
+  private record Current(long deploymentId, LocalDateTime date) {
+    boolean isAfter(Current other) {
+      int byDate = date.compareTo(other.date);
+      return byDate > 0 || (byDate == 0 && deploymentId > other.deploymentId);
+    }
+  }
+
+  // id primo ze sekvenci, ktere pouziva Hibernate - hodnoty sekvence se s jeho bloky (pooled) neprekryvaji
+  private final class IdAllocator {
+    private final String sql;
+    private final Deque<Long> ids = new ArrayDeque<>();
+
+    private IdAllocator(String sequence) {
+      this.sql = "SELECT NEXT VALUE FOR " + sequence + " FROM SYSTEM_RANGE(1, " + BATCH_SIZE + ")";
+    }
+
+    long next() {
+      if (ids.isEmpty()) {
+        List<Long> allocated = new ArrayList<>(jdbcTemplate.queryForList(sql, Long.class));
+        Collections.sort(allocated);
+        ids.addAll(allocated);
+      }
+      return ids.poll();
+    }
+  }
+
+  // radky se zapisuji po BATCH_SIZE, tabulky, na ktere radky odkazuji, se zapisi drive
+  private final class Batch {
+    private final String sql;
+    private final List<Batch> dependencies;
+    private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+    private Batch(String sql, Batch... dependencies) {
+      this.sql = sql;
+      this.dependencies = List.of(dependencies);
+    }
+
+    void add(Object... row) {
+      rows.add(row);
+      if (rows.size() >= BATCH_SIZE) {
+        this.flush();
+      }
+    }
+
+    void flush() {
+      dependencies.forEach(Batch::flush);
+      if (!rows.isEmpty()) {
+        jdbcTemplate.batchUpdate(sql, rows);
+        rows.clear();
+      }
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package cz.oksystem.deployment_dashboard.fixtures;
+
+import cz.oksystem.deployment_dashboard.DeploymentDashboardApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// naplneni DB aplikace syntetickymi daty: ./gradlew generateDataset --args="--dataset.seed=42 --dataset.projects=300"
+// schema pripravi Liquibase pri startu kontextu, ostatni argumenty (--spring.datasource.url=...) jdou do Springu
+public class DatasetGeneratorApplication {
+  private static final String DATASET_ARG_PREFIX = "--dataset.";
+
+  public static void main(String[] args) {
+    Map<String, String> datasetArgs = new HashMap<>();
+    List<String> springArgs = new ArrayList<>();
+
+    for (String arg : args) {
+      if (arg.startsWith(DATASET_ARG_PREFIX) && arg.contains("=")) {
+        String[] keyValue = arg.substring(DATASET_ARG_PREFIX.length()).split("=", 2);
+        datasetArgs.put(keyValue[0], keyValue[1]);
+      } else {
+        springArgs.add(arg);
+      }
+    }
+    DatasetSpec spec = DatasetSpec.fromArgs(datasetArgs);
+
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DeploymentDashboardApplication.class)
+      .web(WebApplicationType.NONE)
+      .properties("deploydash.read-model.enabled=false", "spring.main.banner-mode=off")
+      .run(springArgs.toArray(String[]::new))) {
+
+      long start = System.nanoTime();
+      Dataset dataset = new DatasetGenerator(context.getBean(JdbcTemplate.class)).generate(spec);
+
+      System.out.printf("Generated %s: %d apps in %d projects, %d versions, %d deployments in %s%n",
+        spec,
+        dataset.projectKeyToAppKeys().values().stream().mapToInt(List::size).sum(),
+        dataset.projectKeyToAppKeys().size(),
+        dataset.versions(),
+        dataset.deployments(),
+        Duration.ofNanos(System.nanoTime() - start));
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package cz.oksystem.deployment_dashboard.fixtures;
+
+import java.util.Map;
+
+// parametry synteticke datove sady - stejny seed a parametry daji vzdy stejna data
+// (pocty komponent a nasazeni jsou stredni hodnoty, skutecne hodnoty se rozkladaji nerovnomerne)
+public record DatasetSpec(long seed,
+                          int projects,
+                          int componentsPerProject,
+                          int environmentsPerProject,
+                          long deployments) {
+
+  public DatasetSpec {
+    if (projects < 1 || componentsPerProject < 0 || environmentsPerProject < 1 || deployments < 0) {
+      throw new IllegalArgumentException("Invalid dataset spec.");
+    }
+  }
+
+  // velikost odpovidajici produkci
+  public static DatasetSpec production(long seed) {
+    return new DatasetSpec(seed, 300, 12, 6, 2_000_000);
+  }
+
+  // pro integracni testy
+  public static DatasetSpec small(long seed) {
+    return new DatasetSpec(seed, 5, 4, 3, 500);
+  }
+
+  // z argumentu prikazove radky --seed=42 --projects=300 ..., chybejici hodnoty z production
+  public static DatasetSpec fromArgs(Map<String, String> args) {
+    DatasetSpec defaults = production(Long.parseLong(args.getOrDefault("seed", "42")));
+
+    return new DatasetSpec(
+      defaults.seed(),
+      Integer.parseInt(args.getOrDefault("projects", String.valueOf(defaults.projects()))),
+      Integer.parseInt(args.getOrDefault("components", String.valueOf(defaults.componentsPerProject()))),
+      Integer.parseInt(args.getOrDefault("environments", String.valueOf(defaults.environmentsPerProject()))),
+      Long.parseLong(args.getOrDefault("deployments", String.valueOf(defaults.deployments())))
+    );
+  }
+}